@@ -6,6 +6,7 @@ package com.iwebpp.crypto;
 import java.io.UnsupportedEncodingException;
 import java.security.SecureRandom;
 import java.lang.System;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicLong;
 
 
@@ -558,6 +559,174 @@ public final class TweetNaclFast {
 			return ret;
 		}
 
+		/*
+		 * @description
+		 *   Encrypts mlen bytes of message at moff in place and writes the
+		 *   authenticator (overheadLength bytes) to mac at macoff.
+		 *   Same result as box, which returns the authenticator followed by
+		 *   the encrypted message, but no temporary arrays are allocated.
+		 *
+		 *   Returns false if the arguments are invalid.
+		 * */
+		public synchronized boolean boxInPlace(byte [] message, final int moff, final int mlen, byte [] mac, final int macoff, byte [] theNonce) {
+			// check message
+			if (!(message!=null && moff>=0 && mlen>=0 && message.length>=(moff+mlen) &&
+			      mac!=null && macoff>=0 && mac.length>=(macoff+overheadLength) &&
+			      theNonce!=null && theNonce.length==nonceLength))
+				return false;
+
+			streamInit(theNonce);
+			streamXor(message, moff, mlen);
+			authenticator().update(message, moff, mlen).finish(mac, macoff);
+			return true;
+		}
+
+		/*
+		 * @description
+		 *   Encrypts the remaining bytes of message in place and puts the
+		 *   authenticator into mac. The position of message is not changed.
+		 *
+		 *   Returns false if the arguments are invalid.
+		 * */
+		public synchronized boolean boxInPlace(ByteBuffer message, ByteBuffer mac, byte [] theNonce) {
+			if (!(message!=null && !message.isReadOnly() && mac!=null && mac.remaining()>=overheadLength &&
+			      theNonce!=null && theNonce.length==nonceLength))
+				return false;
+
+			if (message.hasArray() && mac.hasArray()) {
+				if (!boxInPlace(message.array(), message.arrayOffset()+message.position(), message.remaining(),
+				                mac.array(), mac.arrayOffset()+mac.position(), theNonce))
+					return false;
+				mac.position(mac.position()+overheadLength);
+				return true;
+			}
+
+			streamInit(theNonce);
+			poly1305 auth = authenticator();
+			for (int pos = message.position(); pos < message.limit(); pos += chunk.length) {
+				int n = Math.min(chunk.length, message.limit()-pos);
+				for (int i = 0; i < n; i++) chunk[i] = message.get(pos+i);
+				streamXor(chunk, 0, n);
+				auth.update(chunk, 0, n);
+				for (int i = 0; i < n; i++) message.put(pos+i, chunk[i]);
+			}
+			auth.finish(tag, 0);
+			mac.put(tag, 0, overheadLength);
+			return true;
+		}
+
+		/*
+		 * @description
+		 *   Authenticates boxlen bytes of box at boxoff against the
+		 *   authenticator in mac at macoff, and decrypts them in place.
+		 *   Same result as open, but no temporary arrays are allocated.
+		 *
+		 *   Returns false if authentication fails, the box is left untouched in that case.
+		 * */
+		public synchronized boolean openInPlace(byte [] box, final int boxoff, final int boxlen, byte [] mac, final int macoff, byte [] theNonce) {
+			// check message
+			if (!(box!=null && boxoff>=0 && boxlen>=0 && box.length>=(boxoff+boxlen) &&
+			      mac!=null && macoff>=0 && mac.length>=(macoff+overheadLength) &&
+			      theNonce!=null && theNonce.length==nonceLength))
+				return false;
+
+			streamInit(theNonce);
+			authenticator().update(box, boxoff, boxlen).finish(tag, 0);
+			if (crypto_verify_16(mac, macoff, tag, 0) != 0)
+				return false;
+
+			streamXor(box, boxoff, boxlen);
+			return true;
+		}
+
+		/*
+		 * @description
+		 *   Authenticates the remaining bytes of box against the authenticator
+		 *   in mac, and decrypts them in place. The position of box is not changed.
+		 *
+		 *   Returns false if authentication fails, the box is left untouched in that case.
+		 * */
+		public synchronized boolean openInPlace(ByteBuffer box, ByteBuffer mac, byte [] theNonce) {
+			if (!(box!=null && !box.isReadOnly() && mac!=null && mac.remaining()>=overheadLength &&
+			      theNonce!=null && theNonce.length==nonceLength))
+				return false;
+
+			if (box.hasArray() && mac.hasArray()) {
+				if (!openInPlace(box.array(), box.arrayOffset()+box.position(), box.remaining(),
+				                 mac.array(), mac.arrayOffset()+mac.position(), theNonce))
+					return false;
+				mac.position(mac.position()+overheadLength);
+				return true;
+			}
+
+			streamInit(theNonce);
+			poly1305 auth = authenticator();
+			for (int pos = box.position(); pos < box.limit(); pos += chunk.length) {
+				int n = Math.min(chunk.length, box.limit()-pos);
+				for (int i = 0; i < n; i++) chunk[i] = box.get(pos+i);
+				auth.update(chunk, 0, n);
+			}
+			auth.finish(tag, 0);
+			for (int i = 0; i < overheadLength; i++) chunk[i] = mac.get(mac.position()+i);
+			if (crypto_verify_16(chunk, 0, tag, 0) != 0)
+				return false;
+			mac.position(mac.position()+overheadLength);
+
+			for (int pos = box.position(); pos < box.limit(); pos += chunk.length) {
+				int n = Math.min(chunk.length, box.limit()-pos);
+				for (int i = 0; i < n; i++) chunk[i] = box.get(pos+i);
+				streamXor(chunk, 0, n);
+				for (int i = 0; i < n; i++) box.put(pos+i, chunk[i]);
+			}
+			return true;
+		}
+
+		// state of the in-place variants, only used while holding the lock
+		private final byte [] subkey = new byte[32];
+		private final byte [] counter = new byte[16];
+		private final byte [] block = new byte[64];
+		private final byte [] authKey = new byte[32];
+		private final byte [] tag = new byte[16];
+		private final byte [] chunk = new byte[64];
+		private poly1305 auth;
+		private int blockpos;
+
+		/*
+		 * @description
+		 *   Same key stream as crypto_stream_xor, the first 32 bytes
+		 *   are the one-time authenticator key like in crypto_secretbox.
+		 * */
+		private void streamInit(byte [] theNonce) {
+			core_hsalsa20(subkey, theNonce, key, sigma);
+			for (int i = 0; i < 8; i++) counter[i] = theNonce[i+16];
+			for (int i = 8; i < 16; i++) counter[i] = 0;
+			core_salsa20(block, counter, subkey, sigma);
+			for (int i = 0; i < 32; i++) authKey[i] = block[i];
+			blockpos = 32;
+		}
+
+		private void streamXor(byte [] m, int mpos, int mlen) {
+			for (int i = 0; i < mlen; i++) {
+				if (blockpos == 64) {
+					int u = 1;
+					for (int j = 8; j < 16; j++) {
+						u = u + (counter[j] & 0xff);
+						counter[j] = (byte) (u & 0xff);
+						u >>>= 8;
+					}
+					core_salsa20(block, counter, subkey, sigma);
+					blockpos = 0;
+				}
+				m[mpos+i] ^= block[blockpos++];
+			}
+		}
+
+		private poly1305 authenticator() {
+			if (auth == null)
+				return auth = new poly1305(authKey);
+			return auth.init(authKey, 0);
+		}
+
 		/*
 		 * @description 
 		 *   Length of key in bytes.
@@ -1455,6 +1624,7 @@ public final class TweetNaclFast {
 		private int[] r;
 		private int[] h;
 		private int[] pad;
+		private int[] g;
 		private int leftover;
 		private int fin;
 
@@ -1463,30 +1633,43 @@ public final class TweetNaclFast {
 			this.r = new int[10];
 			this.h = new int[10];
 			this.pad = new int[8];
+			this.g = new int[10];
+			this.init(key, 0);
+		}
+
+		/*
+		 * @description
+		 *   Resets the state for a new message with the 32 byte key at keypos,
+		 *   so one instance can authenticate many messages without allocating.
+		 * */
+		public poly1305 init(byte [] key, int keypos) {
 			this.leftover = 0;
 			this.fin = 0;
+			for (int i = 0; i < 10; i++) this.h[i] = 0;
 
 			int t0, t1, t2, t3, t4, t5, t6, t7;
 
-			t0 = key[ 0] & 0xff | (key[ 1] & 0xff) << 8; this.r[0] = ( t0                     ) & 0x1fff;
-			t1 = key[ 2] & 0xff | (key[ 3] & 0xff) << 8; this.r[1] = ((t0 >>> 13) | (t1 <<  3)) & 0x1fff;
-			t2 = key[ 4] & 0xff | (key[ 5] & 0xff) << 8; this.r[2] = ((t1 >>> 10) | (t2 <<  6)) & 0x1f03;
-			t3 = key[ 6] & 0xff | (key[ 7] & 0xff) << 8; this.r[3] = ((t2 >>>  7) | (t3 <<  9)) & 0x1fff;
-			t4 = key[ 8] & 0xff | (key[ 9] & 0xff) << 8; this.r[4] = ((t3 >>>  4) | (t4 << 12)) & 0x00ff;
+			t0 = key[keypos+0] & 0xff | (key[keypos+1] & 0xff) << 8; this.r[0] = ( t0                     ) & 0x1fff;
+			t1 = key[keypos+2] & 0xff | (key[keypos+3] & 0xff) << 8; this.r[1] = ((t0 >>> 13) | (t1 <<  3)) & 0x1fff;
+			t2 = key[keypos+4] & 0xff | (key[keypos+5] & 0xff) << 8; this.r[2] = ((t1 >>> 10) | (t2 <<  6)) & 0x1f03;
+			t3 = key[keypos+6] & 0xff | (key[keypos+7] & 0xff) << 8; this.r[3] = ((t2 >>>  7) | (t3 <<  9)) & 0x1fff;
+			t4 = key[keypos+8] & 0xff | (key[keypos+9] & 0xff) << 8; this.r[4] = ((t3 >>>  4) | (t4 << 12)) & 0x00ff;
 			this.r[5] = ((t4 >>>  1)) & 0x1ffe;
-			t5 = key[10] & 0xff | (key[11] & 0xff) << 8; this.r[6] = ((t4 >>> 14) | (t5 <<  2)) & 0x1fff;
-			t6 = key[12] & 0xff | (key[13] & 0xff) << 8; this.r[7] = ((t5 >>> 11) | (t6 <<  5)) & 0x1f81;
-			t7 = key[14] & 0xff | (key[15] & 0xff) << 8; this.r[8] = ((t6 >>>  8) | (t7 <<  8)) & 0x1fff;
+			t5 = key[keypos+10] & 0xff | (key[keypos+11] & 0xff) << 8; this.r[6] = ((t4 >>> 14) | (t5 <<  2)) & 0x1fff;
+			t6 = key[keypos+12] & 0xff | (key[keypos+13] & 0xff) << 8; this.r[7] = ((t5 >>> 11) | (t6 <<  5)) & 0x1f81;
+			t7 = key[keypos+14] & 0xff | (key[keypos+15] & 0xff) << 8; this.r[8] = ((t6 >>>  8) | (t7 <<  8)) & 0x1fff;
 			this.r[9] = ((t7 >>>  5)) & 0x007f;
 
-			this.pad[0] = key[16] & 0xff | (key[17] & 0xff) << 8;
-			this.pad[1] = key[18] & 0xff | (key[19] & 0xff) << 8;
-			this.pad[2] = key[20] & 0xff | (key[21] & 0xff) << 8;
-			this.pad[3] = key[22] & 0xff | (key[23] & 0xff) << 8;
-			this.pad[4] = key[24] & 0xff | (key[25] & 0xff) << 8;
-			this.pad[5] = key[26] & 0xff | (key[27] & 0xff) << 8;
-			this.pad[6] = key[28] & 0xff | (key[29] & 0xff) << 8;
-			this.pad[7] = key[30] & 0xff | (key[31] & 0xff) << 8;
+			this.pad[0] = key[keypos+16] & 0xff | (key[keypos+17] & 0xff) << 8;
+			this.pad[1] = key[keypos+18] & 0xff | (key[keypos+19] & 0xff) << 8;
+			this.pad[2] = key[keypos+20] & 0xff | (key[keypos+21] & 0xff) << 8;
+			this.pad[3] = key[keypos+22] & 0xff | (key[keypos+23] & 0xff) << 8;
+			this.pad[4] = key[keypos+24] & 0xff | (key[keypos+25] & 0xff) << 8;
+			this.pad[5] = key[keypos+26] & 0xff | (key[keypos+27] & 0xff) << 8;
+			this.pad[6] = key[keypos+28] & 0xff | (key[keypos+29] & 0xff) << 8;
+			this.pad[7] = key[keypos+30] & 0xff | (key[keypos+31] & 0xff) << 8;
+		
+			return this;
 		}
 
 		public poly1305 blocks(byte [] m, int mpos, int bytes) {
@@ -1705,7 +1888,7 @@ public final class TweetNaclFast {
 		}
 
 		public poly1305 finish(byte [] mac, int macpos) {
-			int [] g = new int[10];
+			int [] g = this.g;
 			int c, mask, f, i;
 
 			if (this.leftover != 0) {
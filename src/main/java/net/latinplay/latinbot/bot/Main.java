@@ -11,6 +11,11 @@ import net.latinplay.latinbot.jda.api.JDA;
 import net.latinplay.latinbot.jda.api.JDABuilder;
 import net.latinplay.latinbot.jda.api.OnlineStatus;
 import net.latinplay.latinbot.jda.api.entities.Activity;
+import net.latinplay.latinbot.jda.api.events.message.MessageReceivedEvent;
+import net.latinplay.latinbot.jda.api.events.message.MessageUpdateEvent;
+import net.latinplay.latinbot.jda.api.hooks.AsyncEventManager;
+import net.latinplay.latinbot.jda.api.hooks.DispatchTableEventManager;
+import net.latinplay.latinbot.jda.api.utils.DispatchFilter;
 
 import javax.security.auth.login.LoginException;
 import java.io.File;
@@ -69,6 +74,8 @@ public class Main extends App {
         try {
             (this.jdaclient = new JDABuilder("NzIyODMzMTI2Njk0MzIyMTk2.XvufbQ.BEEf4oZiIlMUjDM-IoZipjoDzd4")
                     .setAutoReconnect(true)
+                    .setDispatchFilter(DispatchFilter.includeEvents(MessageReceivedEvent.class, MessageUpdateEvent.class))
+                    .setEventManager(new AsyncEventManager(new DispatchTableEventManager()))
                     .addEventListeners(new TicketCreationListener())
                     .addEventListeners(new MessageListener())
                     .addEventListeners(new LogsListener())
@@ -48,46 +48,44 @@ public class LogsListener extends ListenerAdapter {
                 if(member.getRoles().contains(staff) || member.getRoles().contains(master) || member.getRoles().contains(admin)) {
                     String[] jugador = msg.getContentRaw().split(" ");
                     if (Main.getInstance().getMysql() != null && Main.getInstance().getMysql().getConnection() != null) {
-                        new Thread(() -> {
-                            if(this.playerExists(jugador[1])) {
-                                ResultSet resultSet = Main.getInstance().getMysql().query("SELECT * FROM Banned_ WHERE NameLowerCase='" + jugador[1].toLowerCase() + "'");
-                                try {
-                                    if (resultSet != null && resultSet.next()) {
-                                        String playerName = resultSet.getString("PlayerName");
-                                        String reason = resultSet.getString("Reason");
-                                        String date = resultSet.getString("Date");
-                                        double tps = resultSet.getDouble("TPS");
-                                        int ping = resultSet.getInt("Ping");
-                                        int version = resultSet.getInt("Version");
-                                        EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
-                                                .setColor(Color.RED)
-                                                .setFooter("LatinPlay Network | mc.latinplay.net")
-                                                .setDescription("Logs de **" + playerName + "**\n" +
-                                                        "\n" +
-                                                        "   Razón: " + reason + "\n" +
-                                                        "   Fecha: " + date + "\n" +
-                                                        "   TPS: " + tps + "\n" +
-                                                        "   Ping: " + ping + "ms\n" +
-                                                        "   Version: " + MessageUtil.getVersion(version) + "\n" +
-                                                        " ");
-                                        event.getTextChannel().sendMessage(memberSuccess.build()).queue();
-                                    }
-                                } catch (SQLException e) {
+                        if(this.playerExists(jugador[1])) {
+                            ResultSet resultSet = Main.getInstance().getMysql().query("SELECT * FROM Banned_ WHERE NameLowerCase='" + jugador[1].toLowerCase() + "'");
+                            try {
+                                if (resultSet != null && resultSet.next()) {
+                                    String playerName = resultSet.getString("PlayerName");
+                                    String reason = resultSet.getString("Reason");
+                                    String date = resultSet.getString("Date");
+                                    double tps = resultSet.getDouble("TPS");
+                                    int ping = resultSet.getInt("Ping");
+                                    int version = resultSet.getInt("Version");
                                     EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
                                             .setColor(Color.RED)
                                             .setFooter("LatinPlay Network | mc.latinplay.net")
-                                            .setDescription("**No se encontraron datos de este jugador.**");
+                                            .setDescription("Logs de **" + playerName + "**\n" +
+                                                    "\n" +
+                                                    "   Razón: " + reason + "\n" +
+                                                    "   Fecha: " + date + "\n" +
+                                                    "   TPS: " + tps + "\n" +
+                                                    "   Ping: " + ping + "ms\n" +
+                                                    "   Version: " + MessageUtil.getVersion(version) + "\n" +
+                                                    " ");
                                     event.getTextChannel().sendMessage(memberSuccess.build()).queue();
                                 }
-                            } else {
+                            } catch (SQLException e) {
                                 EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
                                         .setColor(Color.RED)
                                         .setFooter("LatinPlay Network | mc.latinplay.net")
                                         .setDescription("**No se encontraron datos de este jugador.**");
                                 event.getTextChannel().sendMessage(memberSuccess.build()).queue();
                             }
-                            this.lastTime = System.currentTimeMillis();
-                        }).start();
+                        } else {
+                            EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
+                                    .setColor(Color.RED)
+                                    .setFooter("LatinPlay Network | mc.latinplay.net")
+                                    .setDescription("**No se encontraron datos de este jugador.**");
+                            event.getTextChannel().sendMessage(memberSuccess.build()).queue();
+                        }
+                        this.lastTime = System.currentTimeMillis();
                         return;
                     }
                 }
@@ -118,38 +116,36 @@ public class LogsListener extends ListenerAdapter {
                 if(member.getRoles().contains(staff) || member.getRoles().contains(master) || member.getRoles().contains(admin)) {
                     String[] jugador = msg.getContentRaw().split(" ");
                     if (Main.getInstance().getMysql() != null && Main.getInstance().getMysql().getConnection() != null) {
-                        new Thread(() -> {
-                            if(this.playerExists(jugador[1])) {
-                                ResultSet resultSet = Main.getInstance().getMysql().query("SELECT * FROM Banned_ WHERE NameLowerCase='" + jugador[1].toLowerCase() + "'");
-                                try {
-                                    if (resultSet != null && resultSet.next()) {
-                                        String playerName = resultSet.getString("PlayerName");
-                                        String logs = resultSet.getString("Logs").replaceAll(", ", "\n ");
-                                        EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
-                                                .setColor(Color.RED)
-                                                .setFooter("LatinPlay Network | mc.latinplay.net")
-                                                .setDescription("Logs de **" + playerName + "**\n" +
-                                                        "\n"+
-                                                        " "+logs+"\n"+
-                                                        " ");
-                                        event.getTextChannel().sendMessage(memberSuccess.build()).queue();
-                                    }
-                                } catch (SQLException e) {
+                        if(this.playerExists(jugador[1])) {
+                            ResultSet resultSet = Main.getInstance().getMysql().query("SELECT * FROM Banned_ WHERE NameLowerCase='" + jugador[1].toLowerCase() + "'");
+                            try {
+                                if (resultSet != null && resultSet.next()) {
+                                    String playerName = resultSet.getString("PlayerName");
+                                    String logs = resultSet.getString("Logs").replaceAll(", ", "\n ");
                                     EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
                                             .setColor(Color.RED)
                                             .setFooter("LatinPlay Network | mc.latinplay.net")
-                                            .setDescription("**No se encontraron datos de este jugador.**");
+                                            .setDescription("Logs de **" + playerName + "**\n" +
+                                                    "\n"+
+                                                    " "+logs+"\n"+
+                                                    " ");
                                     event.getTextChannel().sendMessage(memberSuccess.build()).queue();
                                 }
-                            } else {
+                            } catch (SQLException e) {
                                 EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
                                         .setColor(Color.RED)
                                         .setFooter("LatinPlay Network | mc.latinplay.net")
                                         .setDescription("**No se encontraron datos de este jugador.**");
                                 event.getTextChannel().sendMessage(memberSuccess.build()).queue();
                             }
-                            this.lastTime = System.currentTimeMillis();
-                        }).start();
+                        } else {
+                            EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
+                                    .setColor(Color.RED)
+                                    .setFooter("LatinPlay Network | mc.latinplay.net")
+                                    .setDescription("**No se encontraron datos de este jugador.**");
+                            event.getTextChannel().sendMessage(memberSuccess.build()).queue();
+                        }
+                        this.lastTime = System.currentTimeMillis();
                     }
                 }
             }
@@ -24,53 +24,47 @@ public class TicketCreationListener extends ListenerAdapter {
         Member member = event.getMember();
 
         if (msg.getContentRaw().equalsIgnoreCase("!apelacion") || msg.getContentRaw().equalsIgnoreCase("!apelación")) {
-            new Thread(() -> {
-                if(!this.hasTicket(event.getMember().getIdLong(), TicketTypeEnum.APELACION)) {
-                    new TicketManager(TicketTypeEnum.APELACION, event.getMember());
-                    msg.delete().complete();
-                } else {
-                    EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
-                            .setColor(Color.RED)
-                            .setFooter("LatinPlay Network | mc.latinplay.net")
-                            .setDescription(member.getAsMention()+" Ya tienes una apelación abierta.");
-                    event.getTextChannel().sendMessage(memberSuccess.build()).queue();
-                    msg.delete().complete();
-                }
-            }).start();
+            if(!this.hasTicket(event.getMember().getIdLong(), TicketTypeEnum.APELACION)) {
+                new TicketManager(TicketTypeEnum.APELACION, event.getMember());
+                msg.delete().complete();
+            } else {
+                EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
+                        .setColor(Color.RED)
+                        .setFooter("LatinPlay Network | mc.latinplay.net")
+                        .setDescription(member.getAsMention()+" Ya tienes una apelación abierta.");
+                event.getTextChannel().sendMessage(memberSuccess.build()).queue();
+                msg.delete().complete();
+            }
             return;
         }
 
         if (msg.getContentRaw().equalsIgnoreCase("!ticket")) {
-            new Thread(() -> {
-                if(!this.hasTicket(event.getMember().getIdLong(), TicketTypeEnum.TICKET)) {
-                    new TicketManager(TicketTypeEnum.TICKET, event.getMember());
-                    msg.delete().complete();
-                } else {
-                    EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
-                            .setColor(Color.RED)
-                            .setFooter("LatinPlay Network | mc.latinplay.net")
-                            .setDescription(member.getAsMention()+" Ya tienes un ticket abierto.");
-                    event.getTextChannel().sendMessage(memberSuccess.build()).queue();
-                    msg.delete().complete();
-                }
-            }).start();
+            if(!this.hasTicket(event.getMember().getIdLong(), TicketTypeEnum.TICKET)) {
+                new TicketManager(TicketTypeEnum.TICKET, event.getMember());
+                msg.delete().complete();
+            } else {
+                EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
+                        .setColor(Color.RED)
+                        .setFooter("LatinPlay Network | mc.latinplay.net")
+                        .setDescription(member.getAsMention()+" Ya tienes un ticket abierto.");
+                event.getTextChannel().sendMessage(memberSuccess.build()).queue();
+                msg.delete().complete();
+            }
             return;
         }
 
         if (msg.getContentRaw().equalsIgnoreCase("!reporte")) {
-            new Thread(() -> {
-                if(!this.hasTicket(event.getMember().getIdLong(), TicketTypeEnum.REPORTE)) {
-                    new TicketManager(TicketTypeEnum.REPORTE, event.getMember());
-                    msg.delete().complete();
-                } else {
-                    EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
-                            .setColor(Color.RED)
-                            .setFooter("LatinPlay Network | mc.latinplay.net")
-                            .setDescription(member.getAsMention()+" Ya tienes un reporte abierto.");
-                    event.getTextChannel().sendMessage(memberSuccess.build()).queue();
-                    msg.delete().complete();
-                }
-            }).start();
+            if(!this.hasTicket(event.getMember().getIdLong(), TicketTypeEnum.REPORTE)) {
+                new TicketManager(TicketTypeEnum.REPORTE, event.getMember());
+                msg.delete().complete();
+            } else {
+                EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
+                        .setColor(Color.RED)
+                        .setFooter("LatinPlay Network | mc.latinplay.net")
+                        .setDescription(member.getAsMention()+" Ya tienes un reporte abierto.");
+                event.getTextChannel().sendMessage(memberSuccess.build()).queue();
+                msg.delete().complete();
+            }
             return;
         }
 
@@ -84,7 +78,7 @@ public class TicketCreationListener extends ListenerAdapter {
                 event.getTextChannel().sendMessage(memberSuccess.build()).queue();
                 return;
             }
-            new Thread(() -> new CerrarManager(event)).start();
+            new CerrarManager(event);
         }
     }
 
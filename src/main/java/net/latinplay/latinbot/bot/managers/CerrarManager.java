@@ -11,12 +11,20 @@ import net.latinplay.latinbot.jda.api.utils.AttachmentOption;
 
 import java.awt.*;
 import java.io.File;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Handler;
 
 public class CerrarManager {
 
-    public static HashMap<Long, Boolean> porCerrar = new HashMap<>();
+    public static ConcurrentHashMap<Long, Boolean> porCerrar = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService CLOSER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LatinBot-Cerrar");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public CerrarManager(MessageReceivedEvent event) {
         Message msg = event.getMessage();
@@ -33,30 +41,26 @@ public class CerrarManager {
                 for (int i = 2; i < reason.length; i++) {
                     razon.append(" ").append(reason[i]);
                 }
-                new Thread(() -> {
-                    porCerrar.put(event.getTextChannel().getIdLong(), true);
+                porCerrar.put(event.getTextChannel().getIdLong(), true);
 
-                    if (Main.getInstance().getMysql() != null && Main.getInstance().getMysql().getConnection() != null) {
-                        EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
-                                .setColor(Color.RED)
-                                .setFooter("LatinPlay Network | mc.latinplay.net")
-                                .setDescription(":star: Ticket cerrado :star:" +
-                                        "\n" +
-                                        "Ticket creado por: "+ d[1].toLowerCase() + "\n" +
-                                        "Ticket cerrado por: " + member.getAsMention() + "\n" +
-                                        "Tipo de ticket: " + d[0].toUpperCase() + "\n" +
-                                        "Razón: " + razon);
-                        event.getTextChannel().sendMessage(memberSuccess.build()).complete();
-                        event.getTextChannel().sendMessage("**El ticket se cerrara en 7 segundos...**").complete();
-                        Main.getInstance().getJDAClient().getTextChannelById(Long.parseLong("672291854485684237")).sendMessage(memberSuccess.build()).queue();
-                        Main.debug("LatinBot", "Ticket de " + d[1].toLowerCase() + " cerrado por " + member.getEffectiveName());
-                    }
-                    try {
-                        Thread.sleep(7000L);
-                    } catch (InterruptedException e) {
-                        Main.debug("LatinBot", "El cerrado fue cancelado.");
-                    }
+                if (Main.getInstance().getMysql() != null && Main.getInstance().getMysql().getConnection() != null) {
+                    EmbedBuilder memberSuccess = EmbedUtil.getEmbed(member.getUser())
+                            .setColor(Color.RED)
+                            .setFooter("LatinPlay Network | mc.latinplay.net")
+                            .setDescription(":star: Ticket cerrado :star:" +
+                                    "\n" +
+                                    "Ticket creado por: "+ d[1].toLowerCase() + "\n" +
+                                    "Ticket cerrado por: " + member.getAsMention() + "\n" +
+                                    "Tipo de ticket: " + d[0].toUpperCase() + "\n" +
+                                    "Razón: " + razon);
+                    event.getTextChannel().sendMessage(memberSuccess.build()).complete();
+                    event.getTextChannel().sendMessage("**El ticket se cerrara en 7 segundos...**").complete();
+                    Main.getInstance().getJDAClient().getTextChannelById(Long.parseLong("672291854485684237")).sendMessage(memberSuccess.build()).queue();
+                    Main.debug("LatinBot", "Ticket de " + d[1].toLowerCase() + " cerrado por " + member.getEffectiveName());
+                }
 
+                // Don't hold the event lane of this channel, a cancel message has to be handled while waiting
+                CLOSER.schedule(() -> {
                     if(porCerrar.get(event.getTextChannel().getIdLong())) {
                         if(d[0].equalsIgnoreCase("apelación")) {
                             Main.getInstance().getMysql().update("DELETE FROM Apelaciones_ WHERE IDChannel='" + event.getTextChannel().getIdLong() + "';");
@@ -86,7 +90,7 @@ public class CerrarManager {
                         event.getTextChannel().delete().queue();
                     }
                     porCerrar.remove(event.getTextChannel().getIdLong());
-                }).start();
+                }, 7L, TimeUnit.SECONDS);
             }
         }
     }
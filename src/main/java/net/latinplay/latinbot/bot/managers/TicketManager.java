@@ -54,17 +54,15 @@ public class TicketManager {
                                 "\n" +
                                 "**Lo máximo para apelar un baneo por consola es de 2 días.**\n" +
                                 "**Lo máximo para apelar un baneo de un staff es de 7 días.**");
-                textChannel.sendMessage(role.getAsMention()).queue();
-                textChannel.sendMessage(member.getAsMention()).queue();
-                textChannel.sendMessage(memberSuccess.build()).queue();
-                textChannel.sendMessage(" **Bienvenido, por favor complete la plantilla y aguarde a que un policía disponible se encargue de su apelación.**").queue();
+                textChannel.sendMessage(role.getAsMention()).coalesce(true).queue();
+                textChannel.sendMessage(member.getAsMention()).coalesce(true).queue();
+                textChannel.sendMessage(memberSuccess.build()).coalesce(true).queue();
+                textChannel.sendMessage(" **Bienvenido, por favor complete la plantilla y aguarde a que un policía disponible se encargue de su apelación.**").coalesce(true).queue();
                 Main.debug("LatinBot", member.getEffectiveName()+" Creo una apelación.");
                 if(!tickets.containsKey(textChannel.getIdLong())) tickets.put(textChannel.getIdLong(), this);
 
-                new Thread(() -> {
-                    String s = new SimpleDateFormat("dd/MM/yyyy").format(new Date());
-                    Main.getInstance().getMysql().update("INSERT INTO Apelaciones_ (IDUser, IDChannel, Date) VALUES ('" + member.getIdLong() + "', '"+textChannel.getIdLong()+"', '"+s+"');");
-                }).start();
+                String s = new SimpleDateFormat("dd/MM/yyyy").format(new Date());
+                Main.getInstance().getMysql().update("INSERT INTO Apelaciones_ (IDUser, IDChannel, Date) VALUES ('" + member.getIdLong() + "', '"+textChannel.getIdLong()+"', '"+s+"');");
             } else if(type == TicketTypeEnum.REPORTE) {
                 TextChannel textChannel = Main.getInstance().getJDAClient().getTextChannelById(Main.getInstance().getJDAClient().getCategoryById(Long.parseLong("648927058164187176")).createTextChannel("Reporte-" + member.getUser().getName()).complete().getIdLong());
 
@@ -91,17 +89,15 @@ public class TicketManager {
                                 "» (Razón:) \n" +
                                 "» (Modalidad:) \n" +
                                 "» (Pruebas:) (En caso de Hackers o campers subir un video.)");
-                textChannel.sendMessage(role.getAsMention()).queue();
-                textChannel.sendMessage(member.getAsMention()).queue();
-                textChannel.sendMessage(memberSuccess.build()).queue();
-                textChannel.sendMessage(" **Bienvenido, por favor complete la plantilla y aguarde a que un policía disponible vea su reporte.**").queue();
+                textChannel.sendMessage(role.getAsMention()).coalesce(true).queue();
+                textChannel.sendMessage(member.getAsMention()).coalesce(true).queue();
+                textChannel.sendMessage(memberSuccess.build()).coalesce(true).queue();
+                textChannel.sendMessage(" **Bienvenido, por favor complete la plantilla y aguarde a que un policía disponible vea su reporte.**").coalesce(true).queue();
                 Main.debug("LatinBot", member.getEffectiveName()+" Creo un reporte.");
                 if(!tickets.containsKey(textChannel.getIdLong())) tickets.put(textChannel.getIdLong(), this);
 
-                new Thread(() -> {
-                    String s = new SimpleDateFormat("dd/MM/yyyy").format(new Date());
-                    Main.getInstance().getMysql().update("INSERT INTO Reportes_ (IDUser, IDChannel, Date) VALUES ('" + member.getIdLong() + "', '"+textChannel.getIdLong()+"', '"+s+"');");
-                }).start();
+                String s = new SimpleDateFormat("dd/MM/yyyy").format(new Date());
+                Main.getInstance().getMysql().update("INSERT INTO Reportes_ (IDUser, IDChannel, Date) VALUES ('" + member.getIdLong() + "', '"+textChannel.getIdLong()+"', '"+s+"');");
             } else if(type == TicketTypeEnum.TICKET) {
                 TextChannel textChannel = Main.getInstance().getJDAClient().getTextChannelById(Main.getInstance().getJDAClient().getCategoryById(Long.parseLong("646365245979492402")).createTextChannel("Ticket-" + member.getUser().getName()).complete().getIdLong());
 
@@ -123,16 +119,14 @@ public class TicketManager {
                         .setDescription(":chart_with_upwards_trend: Ticket :chart_with_upwards_trend:\n" +
                                 "\n" +
                                 "**Comentanos que necesitas y un staff te ayudara lo mas pronto posible**");
-                textChannel.sendMessage(role.getAsMention()).queue();
-                textChannel.sendMessage(member.getAsMention()).queue();
-                textChannel.sendMessage(memberSuccess.build()).queue();
+                textChannel.sendMessage(role.getAsMention()).coalesce(true).queue();
+                textChannel.sendMessage(member.getAsMention()).coalesce(true).queue();
+                textChannel.sendMessage(memberSuccess.build()).coalesce(true).queue();
                 Main.debug("LatinBot", member.getEffectiveName()+" Creo un ticket.");
                 if(!tickets.containsKey(textChannel.getIdLong())) tickets.put(textChannel.getIdLong(), this);
 
-                new Thread(() -> {
-                    String s = new SimpleDateFormat("dd/MM/yyyy").format(new Date());
-                    Main.getInstance().getMysql().update("INSERT INTO Tickets_ (IDUser, IDChannel, Date) VALUES ('" + member.getIdLong() + "', '"+textChannel.getIdLong()+"', '"+s+"');");
-                }).start();
+                String s = new SimpleDateFormat("dd/MM/yyyy").format(new Date());
+                Main.getInstance().getMysql().update("INSERT INTO Tickets_ (IDUser, IDChannel, Date) VALUES ('" + member.getIdLong() + "', '"+textChannel.getIdLong()+"', '"+s+"');");
             }
 
             this.logger = Logger.getLogger("Log-"+type.name().toUpperCase()+"-"+member.getUser().getName().toLowerCase());
@@ -39,9 +39,11 @@ import net.latinplay.latinbot.jda.api.requests.RestAction;
 import net.latinplay.latinbot.jda.api.requests.restaction.AuditableRestAction;
 import net.latinplay.latinbot.jda.api.requests.restaction.GuildAction;
 import net.latinplay.latinbot.jda.api.sharding.ShardManager;
+import net.latinplay.latinbot.jda.api.utils.DispatchFilter;
 import net.latinplay.latinbot.jda.api.utils.MiscUtil;
 import net.latinplay.latinbot.jda.api.utils.SessionController;
 import net.latinplay.latinbot.jda.api.utils.cache.CacheFlag;
+import net.latinplay.latinbot.jda.api.utils.cache.CacheStatistics;
 import net.latinplay.latinbot.jda.api.utils.cache.CacheView;
 import net.latinplay.latinbot.jda.api.utils.cache.SnowflakeCacheView;
 import net.latinplay.latinbot.jda.internal.requests.CompletedRestAction;
@@ -57,6 +59,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
@@ -509,6 +512,16 @@ public interface JDA
     
     SnowflakeCacheView<User> getUserCache();
 
+    /**
+     * Statistics of the {@link #getUserCache() user cache}.
+     * <br>This counts the hits and misses of {@link #getUserById(long)} and the users evicted
+     * by the {@link net.latinplay.latinbot.jda.api.utils.cache.UserCachePolicy UserCachePolicy} of this session.
+     *
+     * @return {@link CacheStatistics} for the user cache
+     */
+    
+    CacheStatistics getUserCacheStatistics();
+
     /**
      * An immutable list of all {@link User Users} that share a
      * {@link Guild Guild} with the currently logged in account.
@@ -1613,6 +1626,16 @@ public interface JDA
      */
     long getResponseTotal();
 
+    /**
+     * The amount of dispatches that have been dropped by the {@link DispatchFilter DispatchFilter}
+     * of this session, keyed by dispatch type.
+     * <br>Can be configured using {@link JDABuilder#setDispatchFilter(DispatchFilter) JDABuilder.setDispatchFilter(DispatchFilter)}.
+     *
+     * @return Immutable snapshot of the dropped dispatch counts
+     */
+    
+    Map<String, Long> getDroppedDispatches();
+
     /**
      * This value is the maximum amount of time, in seconds, that JDA will wait between reconnect attempts.
      * <br>Can be set using {@link JDABuilder#setMaxReconnectDelay(int) JDABuilder.setMaxReconnectDelay(int)}.
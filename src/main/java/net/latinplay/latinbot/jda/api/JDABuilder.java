@@ -16,13 +16,16 @@ import net.latinplay.latinbot.jda.api.managers.Presence;
 import net.latinplay.latinbot.jda.api.requests.RestAction;
 import net.latinplay.latinbot.jda.api.sharding.ShardManager;
 import net.latinplay.latinbot.jda.api.utils.ChunkingFilter;
+import net.latinplay.latinbot.jda.api.utils.DispatchFilter;
 import net.latinplay.latinbot.jda.api.utils.Compression;
 import net.latinplay.latinbot.jda.api.utils.SessionController;
 import net.latinplay.latinbot.jda.api.utils.SessionControllerAdapter;
 import net.latinplay.latinbot.jda.api.utils.cache.CacheFlag;
+import net.latinplay.latinbot.jda.api.utils.cache.UserCachePolicy;
 import net.latinplay.latinbot.jda.internal.JDAImpl;
 import net.latinplay.latinbot.jda.internal.managers.PresenceImpl;
 import net.latinplay.latinbot.jda.internal.utils.Checks;
+import net.latinplay.latinbot.jda.internal.utils.IOUtil;
 import net.latinplay.latinbot.jda.internal.utils.config.AuthorizationConfig;
 import net.latinplay.latinbot.jda.internal.utils.config.MetaConfig;
 import net.latinplay.latinbot.jda.internal.utils.config.SessionConfig;
@@ -31,6 +34,7 @@ import net.latinplay.latinbot.jda.internal.utils.config.flags.ConfigFlag;
 import okhttp3.OkHttpClient;
 
 import javax.security.auth.login.LoginException;
+import java.io.File;
 import java.util.*;
 import java.util.concurrent.*;
 
@@ -63,8 +67,11 @@ public class JDABuilder
     protected int maxReconnectDelay = 900;
     protected int largeThreshold = 250;
     protected int maxBufferSize = 2048;
+    protected UserCachePolicy userCachePolicy = null;
     protected EnumSet<ConfigFlag> flags = ConfigFlag.getDefault();
     protected ChunkingFilter chunkingFilter = ChunkingFilter.ALL;
+    protected DispatchFilter dispatchFilter = DispatchFilter.ALL;
+    protected File cacheSnapshotFile = null;
 
     /**
      * Creates a completely empty JDABuilder.
@@ -790,6 +797,29 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * The {@link DispatchFilter} to decide which gateway dispatches should be handled.
+     * <br>By default this uses {@link DispatchFilter#ALL}.
+     *
+     * <p>Filtered dispatches are dropped before any entity is built, they neither update the cache nor fire events.
+     * The amount of dropped dispatches can be retrieved with {@link JDA#getDroppedDispatches()}.
+     *
+     * @param  filter
+     *         The filter to apply
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @see    DispatchFilter#include(String...)
+     * @see    DispatchFilter#exclude(String...)
+     * @see    DispatchFilter#includeEvents(Class[])
+     */
+    
+    public JDABuilder setDispatchFilter( DispatchFilter filter)
+    {
+        this.dispatchFilter = filter == null ? DispatchFilter.ALL : filter;
+        return this;
+    }
+
     /**
      * Enable typing and presence update events.
      * <br>These events cover the majority of traffic happening on the gateway and thus cause a lot
@@ -858,6 +888,56 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets the {@link UserCachePolicy} used to evict users which are not referenced by any cached member.
+     * <br>Without a policy the user cache grows with every user encountered in direct messages, mentions or audit logs
+     * and is only pruned when members leave or guilds are removed.
+     *
+     * <p>Default: {@link UserCachePolicy#UNBOUNDED}
+     *
+     * @param  policy
+     *         The eviction policy, or {@code null} to use {@link UserCachePolicy#UNBOUNDED}
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @see    UserCachePolicy
+     */
+    
+    public JDABuilder setUserCachePolicy(UserCachePolicy policy)
+    {
+        this.userCachePolicy = policy;
+        return this;
+    }
+
+    /**
+     * Sets the file used to keep the guild cache between restarts.
+     * <br>When {@link JDA#shutdown()} is called on a connected session, the cached guilds, channels, roles and members
+     * are written to this file and the session is closed without invalidating it.
+     * The next login loads the file and resumes the session instead of identifying,
+     * which skips the {@code GUILD_CREATE} payloads and member chunking.
+     *
+     * <p>The snapshot is only used once and only within a few minutes of the shutdown, since discord will not resume older sessions.
+     * If the session cannot be resumed the restored cache is dropped and the session is started normally.
+     * Presences and voice states are not stored.
+     *
+     * <p>{@link JDA#shutdown()} waits for the snapshot to be written, unless it is called by a listener running on the
+     * gateway thread (the default for {@link net.latinplay.latinbot.jda.api.hooks.InterfacedEventManager InterfacedEventManager}).
+     * In that case it returns right away and the snapshot is written once the connection has been closed.
+     *
+     * <p>Default: {@code null} (disabled)
+     *
+     * @param  file
+     *         The snapshot file, or {@code null} to disable snapshots
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    
+    public JDABuilder setCacheSnapshotFile(File file)
+    {
+        this.cacheSnapshotFile = file;
+        return this;
+    }
+
     /**
      * Builds a new {@link JDA} instance and uses the provided token to start the login process.
      * <br>The login process runs in a different thread, so while this will return immediately, {@link JDA} has not
@@ -887,7 +967,7 @@ public class JDABuilder
         if (httpClient == null)
         {
             if (this.httpClientBuilder == null)
-                this.httpClientBuilder = new OkHttpClient.Builder();
+                this.httpClientBuilder = IOUtil.newHttpClientBuilder();
             httpClient = this.httpClientBuilder.build();
         }
 
@@ -902,10 +982,12 @@ public class JDABuilder
         threadingConfig.setGatewayPool(mainWsPool, shutdownMainWsPool);
         threadingConfig.setRateLimitPool(rateLimitPool, shutdownRateLimitPool);
         SessionConfig sessionConfig = new SessionConfig(controller, httpClient, wsFactory, voiceDispatchInterceptor, flags, maxReconnectDelay, largeThreshold);
-        MetaConfig metaConfig = new MetaConfig(maxBufferSize, contextMap, cacheFlags, flags);
+        MetaConfig metaConfig = new MetaConfig(maxBufferSize, contextMap, cacheFlags, flags, userCachePolicy);
 
         JDAImpl jda = new JDAImpl(authConfig, sessionConfig, threadingConfig, metaConfig);
         jda.setChunkingFilter(chunkingFilter);
+        jda.setCacheSnapshotFile(cacheSnapshotFile);
+        jda.setDispatchFilter(dispatchFilter);
 
         if (eventManager != null)
             jda.setEventManager(eventManager);
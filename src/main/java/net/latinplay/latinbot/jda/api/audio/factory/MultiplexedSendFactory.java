@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.audio.factory;
+
+import net.latinplay.latinbot.jda.api.JDABuilder;
+import net.latinplay.latinbot.jda.api.sharding.DefaultShardManagerBuilder;
+import net.latinplay.latinbot.jda.internal.audio.AudioReceiveSelector;
+import net.latinplay.latinbot.jda.internal.utils.Checks;
+import net.latinplay.latinbot.jda.internal.utils.config.ThreadingConfig;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * {@link IAudioSendFactory IAudioSendFactory} which shares a fixed number of threads between all audio connections.
+ * <br>Instead of a sending thread per connection, every connection gets a 20ms task on one shared scheduler.
+ * Received packets of all connections are read by a single thread using one {@link java.nio.channels.Selector Selector},
+ * and the combined audio of all connections is mixed on one more shared thread, which is only started when combined audio is received.
+ * The number of audio threads therefore stays the same no matter how many guilds are connected.
+ *
+ * <p>Use the same instance for all shards, either with {@link JDABuilder#setAudioSendFactory(IAudioSendFactory)}
+ * or {@link DefaultShardManagerBuilder#setAudioSendFactory(IAudioSendFactory)}.
+ * Slow {@link net.latinplay.latinbot.jda.api.audio.AudioSendHandler AudioSendHandlers} and
+ * {@link net.latinplay.latinbot.jda.api.audio.AudioReceiveHandler AudioReceiveHandlers} delay all other
+ * connections sharing a thread with them, so they should not block.
+ * Combined audio is handled on its own thread, a slow combined handler does not delay the sending.
+ */
+public class MultiplexedSendFactory implements IAudioSendFactory
+{
+    private final int threads;
+    private ScheduledThreadPoolExecutor scheduler;
+    private ScheduledThreadPoolExecutor combinedScheduler;
+    private AudioReceiveSelector receiveSelector;
+
+    /**
+     * Creates a factory sending on a single thread.
+     */
+    public MultiplexedSendFactory()
+    {
+        this(1);
+    }
+
+    /**
+     * Creates a factory sending on the provided number of threads.
+     *
+     * @param  threads
+     *         The number of sending threads
+     *
+     * @throws IllegalArgumentException
+     *         If the number of threads is not positive
+     */
+    public MultiplexedSendFactory(int threads)
+    {
+        Checks.positive(threads, "Threads");
+        this.threads = threads;
+    }
+
+    @Override
+    public IAudioSendSystem createSendSystem(IPacketProvider packetProvider)
+    {
+        return new MultiplexedSendSystem(this, packetProvider);
+    }
+
+    /**
+     * The scheduler running the send tasks of all connections.
+     * <br>Started on first use.
+     *
+     * @return The shared scheduler
+     */
+    public synchronized ScheduledExecutorService getScheduler()
+    {
+        if (scheduler == null || scheduler.isShutdown())
+        {
+            scheduler = ThreadingConfig.newScheduler(threads, () -> "JDA", "Multiplexed Audio");
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return scheduler;
+    }
+
+    /**
+     * The scheduler mixing the combined audio of all connections.
+     * <br>This is separate from the send scheduler, so slow combined audio handlers do not delay the sending.
+     * Started on first use.
+     *
+     * @return The shared combined audio scheduler
+     */
+    public synchronized ScheduledExecutorService getCombinedScheduler()
+    {
+        if (combinedScheduler == null || combinedScheduler.isShutdown())
+        {
+            combinedScheduler = ThreadingConfig.newScheduler(1, () -> "JDA", "Multiplexed Combined Audio");
+            combinedScheduler.setRemoveOnCancelPolicy(true);
+        }
+        return combinedScheduler;
+    }
+
+    /**
+     * The selector receiving for all connections, used by JDA's audio connections.
+     * <br>Started on first use.
+     *
+     * @return The shared receive selector
+     */
+    public synchronized AudioReceiveSelector getReceiveSelector()
+    {
+        if (receiveSelector == null)
+            receiveSelector = new AudioReceiveSelector("JDA Multiplexed Audio Receiving Thread");
+        return receiveSelector;
+    }
+
+    /**
+     * Stops the shared threads.
+     * <br>Connections that are still open stop sending and receiving, the threads are started again on next use.
+     */
+    public synchronized void shutdown()
+    {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+        if (combinedScheduler != null)
+            combinedScheduler.shutdownNow();
+        if (receiveSelector != null)
+            receiveSelector.shutdown();
+        scheduler = null;
+        combinedScheduler = null;
+        receiveSelector = null;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.audio.factory;
+
+import net.latinplay.latinbot.jda.api.audio.OpusPacket;
+import net.latinplay.latinbot.jda.internal.audio.AudioConnection;
+import org.slf4j.MDC;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IAudioSendSystem IAudioSendSystem} of a {@link MultiplexedSendFactory},
+ * sends one packet per run of its task on the shared scheduler.
+ *
+ * <p>Every run schedules the next one for the deadline of the following frame.
+ * Deadlines that already passed when the task gets to run again, for example after a stall of the scheduler, are skipped
+ * instead of being caught up with a burst of packets.
+ */
+class MultiplexedSendSystem implements IAudioSendSystem
+{
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(OpusPacket.OPUS_FRAME_TIME_AMOUNT);
+
+    private final MultiplexedSendFactory factory;
+    private final IPacketProvider packetProvider;
+    private ConcurrentMap<String, String> contextMap;
+    private ScheduledFuture<?> task;
+    // Incremented on every start, a task of an earlier start must not schedule itself again
+    private int generation;
+
+    // only accessed by the task
+    private DatagramSocket udpSocket;
+    private DatagramChannel channel;
+    private long deadline;
+    private boolean sentPacket = true;
+
+    MultiplexedSendSystem(MultiplexedSendFactory factory, IPacketProvider packetProvider)
+    {
+        this.factory = factory;
+        this.packetProvider = packetProvider;
+    }
+
+    @Override
+    public void setContextMap(ConcurrentMap<String, String> contextMap)
+    {
+        this.contextMap = contextMap;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        if (task != null)
+            return;
+        // The channel is used when available, the socket can't send once the channel is in non-blocking mode
+        udpSocket = packetProvider.getUdpSocket();
+        channel = udpSocket.getChannel();
+        deadline = System.nanoTime();
+        int generation = ++this.generation;
+        task = factory.getScheduler().schedule(() -> run(generation), 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void shutdown()
+    {
+        if (task != null)
+        {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    private void run(int generation)
+    {
+        // An exception would stop the task, so everything is caught here
+        if (udpSocket.isClosed())
+        {
+            shutdown();
+            return;
+        }
+        // The scheduler threads are shared, the context of this connection must not leak into the next task
+        if (contextMap != null)
+            MDC.setContextMap(contextMap);
+        long now = System.nanoTime();
+        try
+        {
+            boolean changeTalking = !sentPacket || now - deadline > FRAME_NANOS;
+            if (channel != null)
+            {
+                ByteBuffer packet = packetProvider.getNextPacketRaw(changeTalking);
+                sentPacket = packet != null;
+                if (sentPacket)
+                    channel.send(packet, packetProvider.getSocketAddress());
+            }
+            else
+            {
+                DatagramPacket packet = packetProvider.getNextPacket(changeTalking);
+                sentPacket = packet != null;
+                if (sentPacket)
+                    udpSocket.send(packet);
+            }
+        }
+        catch (NoRouteToHostException e)
+        {
+            packetProvider.onConnectionLost();
+        }
+        catch (ClosedChannelException | SocketException e)
+        {
+            //Most likely the socket has been closed due to the audio connection be closed. Next run will stop the task.
+        }
+        catch (Exception e)
+        {
+            AudioConnection.LOG.error("Error while sending udp audio data", e);
+        }
+        finally
+        {
+            if (contextMap != null)
+                MDC.clear();
+            scheduleNext(generation);
+        }
+    }
+
+    private synchronized void scheduleNext(int generation)
+    {
+        if (task == null || generation != this.generation)
+            return;
+        deadline += FRAME_NANOS;
+        long delay = deadline - System.nanoTime();
+        if (delay < 0)
+        {
+            // Skip the frames we missed, the next one is due at the first deadline that is still ahead
+            long missed = -delay / FRAME_NANOS + 1;
+            deadline += missed * FRAME_NANOS;
+            delay += missed * FRAME_NANOS;
+        }
+        try
+        {
+            task = factory.getScheduler().schedule(() -> run(generation), delay, TimeUnit.NANOSECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The factory has been shut down
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.audio.factory;
+
+import net.latinplay.latinbot.jda.api.JDABuilder;
+import net.latinplay.latinbot.jda.internal.utils.Checks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@link IAudioSendFactory IAudioSendFactory} creating {@link PrecisionSendSystem PrecisionSendSystems}.
+ * <br>Frames are paced against absolute {@link System#nanoTime()} deadlines instead of millisecond sleeps,
+ * which keeps the jitter low on loaded machines at the cost of a short busy spin before every frame.
+ *
+ * <p>Use with {@link JDABuilder#setAudioSendFactory(IAudioSendFactory) JDABuilder.setAudioSendFactory(new PrecisionSendFactory())}.
+ */
+public class PrecisionSendFactory implements IAudioSendFactory
+{
+    /** The default time spent spinning before a frame deadline: {@value} ns */
+    public static final long DEFAULT_SPIN_NANOS = 500_000;
+
+    private final long spinNanos;
+    private final Consumer<? super PrecisionSendSystem.Statistics> statisticsListener;
+
+    /**
+     * Creates a factory with a spin of {@link #DEFAULT_SPIN_NANOS} and no statistics listener.
+     */
+    public PrecisionSendFactory()
+    {
+        this(DEFAULT_SPIN_NANOS, TimeUnit.NANOSECONDS, null);
+    }
+
+    /**
+     * Creates a factory with the provided spin time and statistics listener.
+     *
+     * @param  spin
+     *         How long before a frame deadline the send thread stops parking and spins instead,
+     *         higher values trade CPU time for precision
+     * @param  unit
+     *         The {@link TimeUnit} of the spin time
+     * @param  statisticsListener
+     *         Called with the {@link PrecisionSendSystem.Statistics Statistics} of a send system
+     *         once every {@link PrecisionSendSystem#REPORT_INTERVAL} frames and on shutdown,
+     *         or {@code null}. This is called on the sending thread and should not block.
+     *
+     * @throws IllegalArgumentException
+     *         If the spin is negative or longer than a frame, or the unit is null
+     */
+    public PrecisionSendFactory(long spin, TimeUnit unit, Consumer<? super PrecisionSendSystem.Statistics> statisticsListener)
+    {
+        Checks.notNull(unit, "TimeUnit");
+        Checks.notNegative(spin, "Spin");
+        this.spinNanos = unit.toNanos(spin);
+        Checks.check(spinNanos <= PrecisionSendSystem.FRAME_NANOS, "Spin must not be longer than a frame");
+        this.statisticsListener = statisticsListener;
+    }
+
+    @Override
+    public IAudioSendSystem createSendSystem(IPacketProvider packetProvider)
+    {
+        return new PrecisionSendSystem(packetProvider, spinNanos, statisticsListener);
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.audio.factory;
+
+import net.latinplay.latinbot.jda.api.audio.OpusPacket;
+import net.latinplay.latinbot.jda.internal.audio.AudioConnection;
+import net.latinplay.latinbot.jda.internal.utils.JDALogger;
+import org.slf4j.MDC;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * {@link IAudioSendSystem IAudioSendSystem} which paces frames against absolute {@link System#nanoTime()} deadlines.
+ * <br>This implementation uses a Java thread, named based on: {@link IPacketProvider#getIdentifier()} + " Sending Thread".
+ *
+ * <p>The thread parks until shortly before the deadline of the next frame and spins for the rest.
+ * Deadlines advance by exactly one frame, so a late frame is followed by an early one instead of shifting all
+ * following frames. When the thread falls behind by more than {@link #MAX_BEHIND_FRAMES} frames the missed frames
+ * are skipped instead of sent in a burst.
+ *
+ * @see PrecisionSendFactory
+ */
+public class PrecisionSendSystem implements IAudioSendSystem
+{
+    /** Nanoseconds per opus frame */
+    public static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(OpusPacket.OPUS_FRAME_TIME_AMOUNT);
+    /** A frame sent more than {@value} ns after its deadline is counted as late */
+    public static final long LATE_NANOS = 1_000_000;
+    /** Number of frames the thread may fall behind before skipping frames: {@value} */
+    public static final int MAX_BEHIND_FRAMES = 3;
+    /** Number of frames between statistics reports: {@value} */
+    public static final int REPORT_INTERVAL = 3000;
+
+    private final IPacketProvider packetProvider;
+    private final long spinNanos;
+    private final Consumer<? super Statistics> statisticsListener;
+    private Thread sendThread;
+    private ConcurrentMap<String, String> contextMap;
+
+    // only written by the sending thread
+    private volatile long frames, packets, lateFrames, skippedFrames, totalJitter, maxJitter;
+
+    public PrecisionSendSystem(IPacketProvider packetProvider)
+    {
+        this(packetProvider, PrecisionSendFactory.DEFAULT_SPIN_NANOS, null);
+    }
+
+    public PrecisionSendSystem(IPacketProvider packetProvider, long spinNanos, Consumer<? super Statistics> statisticsListener)
+    {
+        this.packetProvider = packetProvider;
+        this.spinNanos = spinNanos;
+        this.statisticsListener = statisticsListener;
+    }
+
+    /**
+     * The pacing statistics since this system was created.
+     *
+     * @return Snapshot of the current {@link Statistics}
+     */
+    public Statistics getStatistics()
+    {
+        return new Statistics(packetProvider.getIdentifier(), frames, packets, lateFrames, skippedFrames, totalJitter, maxJitter);
+    }
+
+    @Override
+    public void setContextMap(ConcurrentMap<String, String> contextMap)
+    {
+        this.contextMap = contextMap;
+    }
+
+    @Override
+    public void start()
+    {
+        final DatagramSocket udpSocket = packetProvider.getUdpSocket();
+
+        sendThread = new Thread(() ->
+        {
+            if (contextMap != null)
+                MDC.setContextMap(contextMap);
+            long deadline = System.nanoTime();
+            boolean sentPacket = true;
+            while (!udpSocket.isClosed() && !sendThread.isInterrupted())
+            {
+                if (!awaitDeadline(deadline))
+                    break;
+                long jitter = System.nanoTime() - deadline;
+                try
+                {
+                    boolean changeTalking = !sentPacket || jitter > FRAME_NANOS;
+                    DatagramPacket packet = packetProvider.getNextPacket(changeTalking);
+
+                    sentPacket = packet != null;
+                    if (sentPacket)
+                        udpSocket.send(packet);
+                }
+                catch (NoRouteToHostException e)
+                {
+                    packetProvider.onConnectionLost();
+                }
+                catch (SocketException e)
+                {
+                    //Most likely the socket has been closed due to the audio connection be closed. Next iteration will kill loop.
+                }
+                catch (Exception e)
+                {
+                    AudioConnection.LOG.error("Error while sending udp audio data", e);
+                }
+                finally
+                {
+                    deadline = nextDeadline(deadline, jitter, sentPacket);
+                }
+            }
+            report();
+        });
+        sendThread.setUncaughtExceptionHandler((thread, throwable) ->
+        {
+            JDALogger.getLog(PrecisionSendSystem.class).error("Uncaught exception in audio send thread", throwable);
+            start();
+        });
+        sendThread.setDaemon(true);
+        sendThread.setName(packetProvider.getIdentifier() + " Sending Thread");
+        sendThread.setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2);
+        sendThread.start();
+    }
+
+    @Override
+    public void shutdown()
+    {
+        if (sendThread != null)
+            sendThread.interrupt();
+    }
+
+    private boolean awaitDeadline(long deadline)
+    {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0)
+        {
+            if (Thread.currentThread().isInterrupted())
+                return false;
+            if (remaining > spinNanos)
+                LockSupport.parkNanos(this, remaining - spinNanos);
+        }
+        return true;
+    }
+
+    private long nextDeadline(long deadline, long jitter, boolean sentPacket)
+    {
+        long frames = this.frames + 1;
+        this.frames = frames;
+        if (sentPacket)
+            packets++;
+        if (jitter > LATE_NANOS)
+            lateFrames++;
+        totalJitter += jitter;
+        if (jitter > maxJitter)
+            maxJitter = jitter;
+
+        deadline += FRAME_NANOS;
+        long behind = System.nanoTime() - deadline;
+        if (behind > MAX_BEHIND_FRAMES * FRAME_NANOS)
+        {
+            // Skip the missed frames, sending them all at once would only overflow the buffer on the other end
+            long skipped = behind / FRAME_NANOS;
+            skippedFrames += skipped;
+            deadline += skipped * FRAME_NANOS;
+        }
+
+        if (frames % REPORT_INTERVAL == 0)
+            report();
+        return deadline;
+    }
+
+    private void report()
+    {
+        Statistics statistics = getStatistics();
+        AudioConnection.LOG.debug("{}", statistics);
+        if (statisticsListener == null)
+            return;
+        try
+        {
+            statisticsListener.accept(statistics);
+        }
+        catch (Exception e)
+        {
+            AudioConnection.LOG.error("Statistics listener threw an exception", e);
+        }
+    }
+
+    /**
+     * Pacing statistics of a {@link PrecisionSendSystem}.
+     * <br>Jitter is the time between the deadline of a frame and the moment it was handed to the packet provider.
+     */
+    public static class Statistics
+    {
+        private final String identifier;
+        private final long frames, packets, lateFrames, skippedFrames, totalJitter, maxJitter;
+
+        protected Statistics(String identifier, long frames, long packets, long lateFrames, long skippedFrames, long totalJitter, long maxJitter)
+        {
+            this.identifier = identifier;
+            this.frames = frames;
+            this.packets = packets;
+            this.lateFrames = lateFrames;
+            this.skippedFrames = skippedFrames;
+            this.totalJitter = totalJitter;
+            this.maxJitter = maxJitter;
+        }
+
+        /**
+         * The identifier of the packet provider, see {@link IPacketProvider#getIdentifier()}
+         *
+         * @return The identifier
+         */
+        public String getIdentifier()
+        {
+            return identifier;
+        }
+
+        /**
+         * The number of frame deadlines that were handled, including the ones without audio to send
+         *
+         * @return The number of frames
+         */
+        public long getFrames()
+        {
+            return frames;
+        }
+
+        /**
+         * The number of packets that were sent
+         *
+         * @return The number of packets
+         */
+        public long getPackets()
+        {
+            return packets;
+        }
+
+        /**
+         * The number of frames that were handled more than {@link PrecisionSendSystem#LATE_NANOS} after their deadline
+         *
+         * @return The number of late frames
+         */
+        public long getLateFrames()
+        {
+            return lateFrames;
+        }
+
+        /**
+         * The number of frames that were skipped because the thread fell behind
+         * by more than {@link PrecisionSendSystem#MAX_BEHIND_FRAMES} frames
+         *
+         * @return The number of skipped frames
+         */
+        public long getSkippedFrames()
+        {
+            return skippedFrames;
+        }
+
+        /**
+         * The average jitter in nanoseconds
+         *
+         * @return The average jitter
+         */
+        public long getAverageJitter()
+        {
+            return frames == 0 ? 0 : totalJitter / frames;
+        }
+
+        /**
+         * The highest jitter in nanoseconds
+         *
+         * @return The maximum jitter
+         */
+        public long getMaxJitter()
+        {
+            return maxJitter;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("SendStatistics(%s)[frames=%d, packets=%d, late=%d, skipped=%d, jitter=%.3fms, maxJitter=%.3fms]",
+                identifier, frames, packets, lateFrames, skippedFrames, getAverageJitter() / 1e6, maxJitter / 1e6);
+        }
+    }
+}
@@ -19,12 +19,13 @@ import net.latinplay.latinbot.jda.api.events.Event;
 import net.latinplay.latinbot.jda.api.events.GenericEvent;
 import net.latinplay.latinbot.jda.internal.JDAImpl;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.*;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Implementation for {@link IEventManager IEventManager}
@@ -44,21 +45,39 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * }
  * </code></pre>
  *
+ * <p>Each subscriber method is compiled into a direct call when it is registered.
+ * Public methods of public classes use a generated {@link Consumer} (see {@link LambdaMetafactory}),
+ * other methods are called through a {@link MethodHandle}. The subscribers for an event type are
+ * resolved once and cached until a listener for one of its super types is registered or removed.
+ *
  * @see InterfacedEventManager
  * @see IEventManager
  * @see SubscribeEvent
  */
 public class AnnotatedEventManager implements IEventManager
 {
+    private static final Subscriber[] EMPTY = new Subscriber[0];
+
     private final Set<Object> listeners = ConcurrentHashMap.newKeySet();
-    private final Map<Class<?>, Map<Object, List<Method>>> methods = new ConcurrentHashMap<>();
+    // subscribers by the parameter type of their method
+    private final Map<Class<?>, List<Subscriber>> methods = new ConcurrentHashMap<>();
+    // subscribers by event class, including the subscribers of all super classes
+    private final Map<Class<?>, Subscriber[]> resolved = new ConcurrentHashMap<>();
 
     @Override
     public void register( Object listener)
     {
         if (listeners.add(listener))
         {
-            updateMethods();
+            List<Subscriber> compiled = compile(listener);
+            synchronized (methods)
+            {
+                for (Subscriber subscriber : compiled)
+                {
+                    methods.computeIfAbsent(subscriber.eventClass, (k) -> new CopyOnWriteArrayList<>()).add(subscriber);
+                    invalidate(subscriber.eventClass);
+                }
+            }
         }
     }
 
@@ -67,7 +86,15 @@ public class AnnotatedEventManager implements IEventManager
     {
         if (listeners.remove(listener))
         {
-            updateMethods();
+            synchronized (methods)
+            {
+                methods.forEach((eventClass, subscribers) ->
+                {
+                    if (subscribers.removeIf((subscriber) -> subscriber.listener.equals(listener)))
+                        invalidate(eventClass);
+                });
+                methods.values().removeIf(List::isEmpty);
+            }
         }
     }
 
@@ -79,68 +106,165 @@ public class AnnotatedEventManager implements IEventManager
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void handle( GenericEvent event)
     {
-        Class<?> eventClass = event.getClass();
-        do
+        Subscriber[] subscribers = resolved.get(event.getClass());
+        if (subscribers == null)
+            subscribers = resolve(event.getClass());
+        for (Subscriber subscriber : subscribers)
         {
-            Map<Object, List<Method>> listeners = methods.get(eventClass);
-            if (listeners != null)
+            try
             {
-                listeners.forEach((key, value) -> value.forEach(method ->
-                {
-                    try
-                    {
-                        method.setAccessible(true);
-                        method.invoke(key, event);
-                    }
-                    catch (IllegalAccessException | InvocationTargetException e1)
-                    {
-                        JDAImpl.LOG.error("Couldn't access annotated EventListener method", e1);
-                    }
-                    catch (Throwable throwable)
-                    {
-                        JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
-                    }
-                }));
+                subscriber.consumer.accept(event);
+            }
+            catch (Throwable throwable)
+            {
+                JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
             }
-            eventClass = eventClass == Event.class ? null : (Class<? extends GenericEvent>) eventClass.getSuperclass();
         }
-        while (eventClass != null);
     }
 
-    private void updateMethods()
+    private void invalidate(Class<?> eventClass)
     {
-        methods.clear();
-        for (Object listener : listeners)
+        // Only event classes that would call subscribers of this type have to be resolved again
+        resolved.keySet().removeIf(eventClass::isAssignableFrom);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Subscriber[] resolve(Class<? extends GenericEvent> type)
+    {
+        synchronized (methods)
         {
-            boolean isClass = listener instanceof Class;
-            Class<?> c = isClass ? (Class) listener : listener.getClass();
-            Method[] allMethods = c.getDeclaredMethods();
-            for (Method m : allMethods)
+            Subscriber[] subscribers = resolved.get(type);
+            if (subscribers != null)
+                return subscribers;
+
+            List<Subscriber> list = new ArrayList<>();
+            Class<?> eventClass = type;
+            do
             {
-                if (!m.isAnnotationPresent(SubscribeEvent.class) || (isClass && !Modifier.isStatic(m.getModifiers())))
+                List<Subscriber> current = methods.get(eventClass);
+                if (current != null)
+                    list.addAll(current);
+                eventClass = eventClass == Event.class ? null : (Class<? extends GenericEvent>) eventClass.getSuperclass();
+            }
+            while (eventClass != null);
+
+            subscribers = list.isEmpty() ? EMPTY : list.toArray(EMPTY);
+            resolved.put(type, subscribers);
+            return subscribers;
+        }
+    }
+
+    private List<Subscriber> compile(Object listener)
+    {
+        List<Subscriber> subscribers = new ArrayList<>();
+        boolean isClass = listener instanceof Class;
+        Class<?> c = isClass ? (Class) listener : listener.getClass();
+        Method[] allMethods = c.getDeclaredMethods();
+        for (Method m : allMethods)
+        {
+            if (!m.isAnnotationPresent(SubscribeEvent.class) || (isClass && !Modifier.isStatic(m.getModifiers())))
+            {
+                continue;
+            }
+            Class<?>[] pType  = m.getParameterTypes();
+            if (pType.length == 1 && GenericEvent.class.isAssignableFrom(pType[0]))
+            {
+                try
                 {
-                    continue;
+                    subscribers.add(new Subscriber(listener, pType[0], compile(listener, m)));
                 }
-                Class<?>[] pType  = m.getParameterTypes();
-                if (pType.length == 1 && GenericEvent.class.isAssignableFrom(pType[0]))
+                catch (Throwable e)
                 {
-                    Class<?> eventClass = pType[0];
-                    if (!methods.containsKey(eventClass))
-                    {
-                        methods.put(eventClass, new ConcurrentHashMap<>());
-                    }
-
-                    if (!methods.get(eventClass).containsKey(listener))
-                    {
-                        methods.get(eventClass).put(listener, new CopyOnWriteArrayList<>());
-                    }
-
-                    methods.get(eventClass).get(listener).add(m);
+                    JDAImpl.LOG.error("Couldn't access annotated EventListener method {}", m, e);
                 }
             }
         }
+        return subscribers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<GenericEvent> compile(Object listener, Method m) throws Throwable
+    {
+        boolean isStatic = Modifier.isStatic(m.getModifiers());
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (isGeneratable(m))
+        {
+            try
+            {
+                MethodHandle target = lookup.unreflect(m);
+                MethodType factoryType = isStatic
+                    ? MethodType.methodType(Consumer.class)
+                    : MethodType.methodType(Consumer.class, m.getDeclaringClass());
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", factoryType,
+                    MethodType.methodType(void.class, Object.class), target,
+                    MethodType.methodType(void.class, m.getParameterTypes()[0]));
+                MethodHandle factory = site.getTarget();
+                return isStatic ? (Consumer<GenericEvent>) factory.invoke() : (Consumer<GenericEvent>) factory.invoke(listener);
+            }
+            catch (LambdaConversionException | IllegalAccessException e)
+            {
+                JDAImpl.LOG.debug("Falling back to MethodHandle for annotated EventListener method {}", m, e);
+            }
+        }
+
+        m.setAccessible(true);
+        MethodHandle handle = lookup.unreflect(m);
+        if (!isStatic)
+            handle = handle.bindTo(listener);
+        MethodHandle target = handle.asType(MethodType.methodType(void.class, GenericEvent.class));
+        return (event) ->
+        {
+            try
+            {
+                target.invokeExact(event);
+            }
+            catch (RuntimeException | Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static boolean isGeneratable(Method m)
+    {
+        // The generated class is defined next to this class, it can only call methods it could call directly
+        if (!Modifier.isPublic(m.getModifiers()))
+            return false;
+        Class<?> type = m.getDeclaringClass();
+        try
+        {
+            if (Class.forName(type.getName(), false, AnnotatedEventManager.class.getClassLoader()) != type)
+                return false;
+        }
+        catch (ClassNotFoundException e)
+        {
+            return false;
+        }
+        for (; type != null; type = type.getEnclosingClass())
+        {
+            if (!Modifier.isPublic(type.getModifiers()))
+                return false;
+        }
+        return true;
+    }
+
+    private static class Subscriber
+    {
+        private final Object listener;
+        private final Class<?> eventClass;
+        private final Consumer<GenericEvent> consumer;
+
+        private Subscriber(Object listener, Class<?> eventClass, Consumer<GenericEvent> consumer)
+        {
+            this.listener = listener;
+            this.eventClass = eventClass;
+            this.consumer = consumer;
+        }
     }
 }
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.hooks;
+
+import net.latinplay.latinbot.jda.api.events.GenericEvent;
+import net.latinplay.latinbot.jda.api.events.channel.category.GenericCategoryEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.GenericStoreChannelEvent;
+import net.latinplay.latinbot.jda.api.events.channel.text.GenericTextChannelEvent;
+import net.latinplay.latinbot.jda.api.events.channel.voice.GenericVoiceChannelEvent;
+import net.latinplay.latinbot.jda.api.events.emote.GenericEmoteEvent;
+import net.latinplay.latinbot.jda.api.events.guild.GenericGuildEvent;
+import net.latinplay.latinbot.jda.api.events.message.GenericMessageEvent;
+import net.latinplay.latinbot.jda.api.events.message.guild.GenericGuildMessageEvent;
+import net.latinplay.latinbot.jda.api.events.message.priv.GenericPrivateMessageEvent;
+import net.latinplay.latinbot.jda.api.events.role.GenericRoleEvent;
+import net.latinplay.latinbot.jda.internal.JDAImpl;
+import net.latinplay.latinbot.jda.internal.utils.Checks;
+import net.latinplay.latinbot.jda.internal.utils.concurrent.CountingThreadFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link IEventManager IEventManager} implementation that hands events to a bounded executor
+ * instead of running the listeners on the thread that fired the event (usually the gateway read thread).
+ * <br>The listeners are managed by a delegate manager, for example {@link InterfacedEventManager InterfacedEventManager}.
+ *
+ * <p>Events are ordered by key, events with the same key are handled one after another in the order they were fired.
+ * Message events are keyed by their channel, other guild events are keyed by their guild and all remaining events
+ * share a single key. Keys are distributed over a fixed number of serial lanes, each lane holds at most
+ * {@code queueSize} pending events and the {@link Backpressure Backpressure} decides what happens when a lane is full.
+ *
+ * <p>By default this uses virtual threads when the runtime supports them and a fixed thread pool otherwise.
+ * Since the listeners no longer run on the gateway thread, the cache might have already changed
+ * by the time a listener receives an event.
+ *
+ * <p>Example
+ * <pre><code>
+ * builder.setEventManager(new AsyncEventManager(new InterfacedEventManager()));
+ * </code></pre>
+ *
+ * @see InterfacedEventManager
+ * @see IEventManager
+ */
+public class AsyncEventManager implements IEventManager
+{
+    // Maximum amount of events a lane handles before giving other lanes a chance
+    private static final int BATCH_SIZE = 64;
+    private static final ThreadLocal<Boolean> IS_WORKER = new ThreadLocal<>();
+
+    private final IEventManager delegate;
+    private final ExecutorService executor;
+    private final boolean shutdownExecutor;
+    private final Backpressure backpressure;
+    private final Lane[] lanes;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates a new AsyncEventManager with a queue size of 1000 and {@link Backpressure#BLOCK BLOCK} backpressure.
+     *
+     * @param  delegate
+     *         The event manager which handles the listeners
+     *
+     * @throws IllegalArgumentException
+     *         If the delegate is null
+     */
+    public AsyncEventManager( IEventManager delegate)
+    {
+        this(delegate, Runtime.getRuntime().availableProcessors(), 1000, Backpressure.BLOCK);
+    }
+
+    /**
+     * Creates a new AsyncEventManager with a default executor.
+     *
+     * @param  delegate
+     *         The event manager which handles the listeners
+     * @param  parallelism
+     *         The amount of threads for the fixed thread pool, this is ignored when virtual threads are used
+     * @param  queueSize
+     *         The maximum amount of pending events per lane
+     * @param  backpressure
+     *         The {@link Backpressure} to apply when a lane is full
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided or the parallelism or queue size are not positive
+     */
+    public AsyncEventManager( IEventManager delegate, int parallelism, int queueSize,  Backpressure backpressure)
+    {
+        this(delegate, createExecutor(parallelism), true, parallelism * 4, queueSize, backpressure);
+    }
+
+    /**
+     * Creates a new AsyncEventManager with the provided executor.
+     * <br>The executor is not shut down by {@link #shutdown()}.
+     *
+     * @param  delegate
+     *         The event manager which handles the listeners
+     * @param  executor
+     *         The executor used to run the lanes
+     * @param  lanes
+     *         The amount of serial lanes, keys are distributed over these lanes
+     * @param  queueSize
+     *         The maximum amount of pending events per lane
+     * @param  backpressure
+     *         The {@link Backpressure} to apply when a lane is full
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided or the lanes or queue size are not positive
+     */
+    public AsyncEventManager( IEventManager delegate,  ExecutorService executor, int lanes, int queueSize,  Backpressure backpressure)
+    {
+        this(delegate, executor, false, lanes, queueSize, backpressure);
+    }
+
+    private AsyncEventManager(IEventManager delegate, ExecutorService executor, boolean shutdownExecutor, int lanes, int queueSize, Backpressure backpressure)
+    {
+        Checks.notNull(delegate, "Delegate");
+        Checks.notNull(executor, "Executor");
+        Checks.notNull(backpressure, "Backpressure");
+        Checks.positive(lanes, "Lanes");
+        Checks.positive(queueSize, "Queue size");
+        this.delegate = delegate;
+        this.executor = executor;
+        this.shutdownExecutor = shutdownExecutor;
+        this.backpressure = backpressure;
+        // Power of two so the lane can be selected with a mask
+        this.lanes = new Lane[lanes == 1 ? 1 : Integer.highestOneBit(lanes - 1) << 1];
+        for (int i = 0; i < this.lanes.length; i++)
+            this.lanes[i] = new Lane(queueSize);
+    }
+
+    private static ExecutorService createExecutor(int parallelism)
+    {
+        Checks.positive(parallelism, "Parallelism");
+        try
+        {
+            // Java 21+, the lanes already bound the amount of concurrently running tasks
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException ignored) {}
+        return Executors.newFixedThreadPool(parallelism, new CountingThreadFactory(() -> "JDA", "EventDispatch"));
+    }
+
+    /**
+     * The amount of events that were dropped or shed due to full lanes.
+     *
+     * @return The amount of dropped events
+     */
+    public long getDroppedEvents()
+    {
+        return dropped.sum();
+    }
+
+    /**
+     * The amount of events that are currently waiting to be handled.
+     *
+     * @return The amount of pending events
+     */
+    public int getPendingEvents()
+    {
+        int pending = 0;
+        for (Lane lane : lanes)
+            pending += lane.size();
+        return pending;
+    }
+
+    /**
+     * Shuts down the executor if it was created by this manager.
+     * <br>Pending events are still handled.
+     */
+    public void shutdown()
+    {
+        if (shutdownExecutor)
+            executor.shutdown();
+    }
+
+    @Override
+    public void register( Object listener)
+    {
+        delegate.register(listener);
+    }
+
+    @Override
+    public void unregister( Object listener)
+    {
+        delegate.unregister(listener);
+    }
+
+
+    @Override
+    public List<Object> getRegisteredListeners()
+    {
+        return delegate.getRegisteredListeners();
+    }
+
+    @Override
+    public void handle( GenericEvent event)
+    {
+        long key = getKey(event);
+        int hash = (int) (key ^ (key >>> 32));
+        hash ^= hash >>> 16;
+        lanes[hash & (lanes.length - 1)].submit(event);
+    }
+
+    protected long getKey(GenericEvent event)
+    {
+        // Message events are ordered per channel, this allows slow listeners in one channel to not block the rest of the guild
+        if (event instanceof GenericMessageEvent)
+            return ((GenericMessageEvent) event).getChannel().getIdLong();
+        if (event instanceof GenericGuildMessageEvent)
+            return ((GenericGuildMessageEvent) event).getChannel().getIdLong();
+        if (event instanceof GenericPrivateMessageEvent)
+            return ((GenericPrivateMessageEvent) event).getChannel().getIdLong();
+        if (event instanceof GenericGuildEvent)
+            return ((GenericGuildEvent) event).getGuild().getIdLong();
+        if (event instanceof GenericTextChannelEvent)
+            return ((GenericTextChannelEvent) event).getGuild().getIdLong();
+        if (event instanceof GenericVoiceChannelEvent)
+            return ((GenericVoiceChannelEvent) event).getGuild().getIdLong();
+        if (event instanceof GenericCategoryEvent)
+            return ((GenericCategoryEvent) event).getGuild().getIdLong();
+        if (event instanceof GenericStoreChannelEvent)
+            return ((GenericStoreChannelEvent) event).getChannel().getGuild().getIdLong();
+        if (event instanceof GenericRoleEvent)
+            return ((GenericRoleEvent) event).getGuild().getIdLong();
+        if (event instanceof GenericEmoteEvent)
+            return ((GenericEmoteEvent) event).getGuild().getIdLong();
+        return 0L;
+    }
+
+    private class Lane implements Runnable
+    {
+        private final int capacity;
+        private final ArrayDeque<GenericEvent> queue;
+        // Events fired by listeners while the lane was full, these are handled after the queue
+        private final ArrayDeque<GenericEvent> overflow = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private int waiting = 0;
+
+        private Lane(int capacity)
+        {
+            this.capacity = capacity;
+            this.queue = new ArrayDeque<>(capacity);
+        }
+
+        private void submit(GenericEvent event)
+        {
+            synchronized (this)
+            {
+                if (!offer(event))
+                {
+                    switch (backpressure)
+                    {
+                    case BLOCK:
+                        // A worker blocking on a full lane could wait for itself, queue the event behind the lane instead
+                        if (IS_WORKER.get() != null)
+                        {
+                            overflow.add(event);
+                            break;
+                        }
+                        waiting++;
+                        try
+                        {
+                            while (!offer(event))
+                                wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            dropped.increment();
+                            return;
+                        }
+                        finally
+                        {
+                            waiting--;
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        if (queue.poll() != null)
+                            dropped.increment();
+                        queue.add(event);
+                        break;
+                    case SHED:
+                        dropped.increment();
+                        return;
+                    }
+                }
+            }
+            schedule();
+        }
+
+        // Events may only enter the queue while the overflow is empty, otherwise they would overtake it
+        private boolean offer(GenericEvent event)
+        {
+            if (!overflow.isEmpty() || queue.size() >= capacity)
+                return false;
+            queue.add(event);
+            return true;
+        }
+
+        private synchronized GenericEvent poll()
+        {
+            GenericEvent event = queue.poll();
+            if (event == null)
+                event = overflow.poll();
+            if (event != null && waiting > 0)
+                notifyAll();
+            return event;
+        }
+
+        private synchronized int size()
+        {
+            return queue.size() + overflow.size();
+        }
+
+        private void schedule()
+        {
+            if (!scheduled.compareAndSet(false, true))
+                return;
+            try
+            {
+                executor.execute(this);
+            }
+            catch (RejectedExecutionException e)
+            {
+                scheduled.set(false);
+                JDAImpl.LOG.error("Event dispatch executor rejected pending events", e);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            IS_WORKER.set(Boolean.TRUE);
+            try
+            {
+                for (int i = 0; i < BATCH_SIZE; i++)
+                {
+                    GenericEvent event = poll();
+                    if (event == null)
+                        break;
+                    try
+                    {
+                        delegate.handle(event);
+                    }
+                    catch (Throwable throwable)
+                    {
+                        JDAImpl.LOG.error("The EventManager.handle() call had an uncaught exception", throwable);
+                    }
+                }
+            }
+            finally
+            {
+                IS_WORKER.remove();
+                scheduled.set(false);
+                // Events might have been added after our last poll
+                if (size() > 0)
+                    schedule();
+            }
+        }
+    }
+
+    /**
+     * Decides what happens when an event is fired while its lane is full.
+     */
+    public enum Backpressure
+    {
+        /**
+         * Wait until the lane has room for the event, this blocks the thread that fired the event.
+         * <br>Events fired by a listener of this manager are queued behind the full lane instead, since waiting could deadlock.
+         */
+        BLOCK,
+        /** Drop the oldest pending event of the lane */
+        DROP_OLDEST,
+        /** Drop the new event */
+        SHED
+    }
+}
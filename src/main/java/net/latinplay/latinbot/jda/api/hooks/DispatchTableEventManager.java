@@ -0,0 +1,247 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.hooks;
+
+import net.latinplay.latinbot.jda.api.events.GenericEvent;
+import net.latinplay.latinbot.jda.internal.JDAImpl;
+import net.latinplay.latinbot.jda.internal.utils.JDALogger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An {@link IEventManager IEventManager} implementation
+ * that uses the {@link EventListener EventListener} interface for
+ * event listeners, just like {@link InterfacedEventManager InterfacedEventManager}.
+ *
+ * <p>Instead of calling {@link ListenerAdapter#onEvent(GenericEvent)} for every event, this inspects each
+ * {@link ListenerAdapter ListenerAdapter} class once and only calls the methods it actually overrides.
+ * The handlers for an event type are resolved on first use and cached in a dispatch table,
+ * firing an event is a single table lookup followed by the calls to the relevant handlers.
+ * <br>Listeners that only implement {@link EventListener EventListener} receive every event through
+ * {@link EventListener#onEvent(GenericEvent)}.
+ *
+ * <p>Handlers are called in the same order as {@link ListenerAdapter#onEvent(GenericEvent)} would call them.
+ * An uncaught exception in one handler does not skip the remaining handlers of the same listener.
+ *
+ * @see InterfacedEventManager
+ * @see IEventManager
+ */
+public class DispatchTableEventManager implements IEventManager
+{
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, GenericEvent.class);
+    private static final MethodHandle ON_EVENT;
+    private static final MethodHandle[] EMPTY = new MethodHandle[0];
+
+    static
+    {
+        try
+        {
+            ON_EVENT = MethodHandles.publicLookup().findVirtual(EventListener.class, "onEvent", HANDLER_TYPE);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final CopyOnWriteArrayList<EventListener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<Class<?>, ListenerTable> listenerTables = new ConcurrentHashMap<>();
+    private volatile Map<Class<? extends GenericEvent>, MethodHandle[]> dispatchTable = new IdentityHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException
+     *         If the provided listener does not implement {@link EventListener EventListener}
+     */
+    @Override
+    public void register( Object listener)
+    {
+        if (!(listener instanceof EventListener))
+        {
+            throw new IllegalArgumentException("Listener must implement EventListener");
+        }
+        // Inspect the listener class now rather than on the first event
+        listenerTables.computeIfAbsent(listener.getClass(), ListenerTable::new);
+        synchronized (listeners)
+        {
+            listeners.add((EventListener) listener);
+            dispatchTable = new IdentityHashMap<>();
+        }
+    }
+
+    @Override
+    public void unregister( Object listener)
+    {
+        if (!(listener instanceof EventListener))
+        {
+            //noinspection ConstantConditions
+            JDALogger.getLog(getClass()).warn(
+                    "Trying to remove a listener that does not implement EventListener: {}",
+                    listener == null ? "null" : listener.getClass().getName());
+        }
+
+        synchronized (listeners)
+        {
+            //noinspection SuspiciousMethodCalls
+            if (listeners.remove(listener))
+                dispatchTable = new IdentityHashMap<>();
+        }
+    }
+
+
+    @Override
+    public List<Object> getRegisteredListeners()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(listeners));
+    }
+
+    @Override
+    public void handle( GenericEvent event)
+    {
+        MethodHandle[] handlers = dispatchTable.get(event.getClass());
+        if (handlers == null)
+            handlers = resolve(event.getClass());
+        for (MethodHandle handler : handlers)
+        {
+            try
+            {
+                handler.invokeExact(event);
+            }
+            catch (Throwable throwable)
+            {
+                JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
+            }
+        }
+    }
+
+    private MethodHandle[] resolve(Class<? extends GenericEvent> type)
+    {
+        synchronized (listeners)
+        {
+            Map<Class<? extends GenericEvent>, MethodHandle[]> table = dispatchTable;
+            MethodHandle[] handlers = table.get(type);
+            if (handlers != null)
+                return handlers;
+
+            List<MethodHandle> list = new ArrayList<>();
+            for (EventListener listener : listeners)
+            {
+                ListenerTable listenerTable = listenerTables.computeIfAbsent(listener.getClass(), ListenerTable::new);
+                for (MethodHandle handle : listenerTable.getHandlers(type))
+                    list.add(handle.bindTo(listener));
+            }
+            handlers = list.isEmpty() ? EMPTY : list.toArray(EMPTY);
+
+            // Copy on write, handle() reads the table without locking
+            table = new IdentityHashMap<>(table);
+            table.put(type, handlers);
+            dispatchTable = table;
+            return handlers;
+        }
+    }
+
+    private static class ListenerTable
+    {
+        private final Class<?> listenerClass;
+        // Entries of ListenerAdapterGroups that are overridden by this class
+        private final Set<ListenerAdapterGroups.Entry> overridden = new HashSet<>();
+        private final boolean overridesGeneric;
+        private final ConcurrentMap<Class<?>, List<MethodHandle>> handlers = new ConcurrentHashMap<>();
+
+        private ListenerTable(Class<?> listenerClass)
+        {
+            this.listenerClass = listenerClass;
+            if (ListenerAdapter.class.isAssignableFrom(listenerClass))
+            {
+                this.overridesGeneric = isOverridden("onGenericEvent", GenericEvent.class);
+                for (List<ListenerAdapterGroups.Entry> group : ListenerAdapterGroups.GROUPS)
+                {
+                    for (ListenerAdapterGroups.Entry entry : group)
+                    {
+                        if (isOverridden(entry.method, entry.type))
+                            overridden.add(entry);
+                    }
+                }
+            }
+            else
+            {
+                this.overridesGeneric = false;
+            }
+        }
+
+        private boolean isOverridden(String name, Class<?> type)
+        {
+            try
+            {
+                return listenerClass.getMethod(name, type).getDeclaringClass() != ListenerAdapter.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // unbound handles of type (EventListener, GenericEvent)void
+        private List<MethodHandle> getHandlers(Class<? extends GenericEvent> type)
+        {
+            return handlers.computeIfAbsent(type, this::resolve);
+        }
+
+        private List<MethodHandle> resolve(Class<?> type)
+        {
+            if (!ListenerAdapter.class.isAssignableFrom(listenerClass))
+                return Collections.singletonList(ON_EVENT);
+
+            List<MethodHandle> list = new ArrayList<>();
+            if (overridesGeneric)
+                list.add(find("onGenericEvent", GenericEvent.class));
+            for (List<ListenerAdapterGroups.Entry> group : ListenerAdapterGroups.GROUPS)
+            {
+                // Only the first matching entry of each group is called, just like the if-else chains
+                for (ListenerAdapterGroups.Entry entry : group)
+                {
+                    if (!entry.type.isAssignableFrom(type))
+                        continue;
+                    if (overridden.contains(entry))
+                        list.add(find(entry.method, entry.type));
+                    break;
+                }
+            }
+            return list;
+        }
+
+        private MethodHandle find(String name, Class<?> type)
+        {
+            try
+            {
+                MethodHandle handle = MethodHandles.publicLookup().findVirtual(ListenerAdapter.class, name, MethodType.methodType(void.class, type));
+                return handle.asType(MethodType.methodType(void.class, EventListener.class, GenericEvent.class));
+            }
+            catch (NoSuchMethodException | IllegalAccessException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -24,15 +24,23 @@ import java.util.List;
  * An interface for JDA's EventManager system.
  * <br>This should be registered in the {@link JDABuilder JDABuilder}
  *
- * <p>JDA provides 2 implementations:
+ * <p>JDA provides 4 implementations:
  * <ul>
  *     <li>{@link InterfacedEventManager InterfacedEventManager}
  *     <br>Simple implementation that allows {@link EventListener EventListener}
  *         instances as listeners.</li>
  *
+ *     <li>{@link DispatchTableEventManager DispatchTableEventManager}
+ *     <br>Accepts the same listeners as {@link InterfacedEventManager InterfacedEventManager} but only calls
+ *         the {@link ListenerAdapter ListenerAdapter} methods a listener actually overrides.</li>
+ *
  *     <li>{@link AnnotatedEventManager AnnotatedEventManager}
  *     <br>An implementation that accepts any object and uses the {@link SubscribeEvent SubscribeEvent}
  *         annotation to handle events.</li>
+ *
+ *     <li>{@link AsyncEventManager AsyncEventManager}
+ *     <br>Wraps one of the other implementations and handles the events on a bounded executor,
+ *         events of the same guild or channel stay in order.</li>
  * </ul>
  *
  * <p>The default event manager is {@link InterfacedEventManager InterfacedEventManager}
@@ -41,6 +49,7 @@ import java.util.List;
  * <br>You can only use one implementation per JDA instance!
  *
  * @see InterfacedEventManager
+ * @see DispatchTableEventManager
  * @see AnnotatedEventManager
  */
 public interface IEventManager
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.hooks;
+
+import net.latinplay.latinbot.jda.api.events.*;
+import net.latinplay.latinbot.jda.api.events.channel.category.CategoryCreateEvent;
+import net.latinplay.latinbot.jda.api.events.channel.category.CategoryDeleteEvent;
+import net.latinplay.latinbot.jda.api.events.channel.category.GenericCategoryEvent;
+import net.latinplay.latinbot.jda.api.events.channel.category.update.CategoryUpdateNameEvent;
+import net.latinplay.latinbot.jda.api.events.channel.category.update.CategoryUpdatePermissionsEvent;
+import net.latinplay.latinbot.jda.api.events.channel.category.update.CategoryUpdatePositionEvent;
+import net.latinplay.latinbot.jda.api.events.channel.category.update.GenericCategoryUpdateEvent;
+import net.latinplay.latinbot.jda.api.events.channel.priv.PrivateChannelCreateEvent;
+import net.latinplay.latinbot.jda.api.events.channel.priv.PrivateChannelDeleteEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.GenericStoreChannelEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.StoreChannelCreateEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.StoreChannelDeleteEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.update.GenericStoreChannelUpdateEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.update.StoreChannelUpdateNameEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.update.StoreChannelUpdatePermissionsEvent;
+import net.latinplay.latinbot.jda.api.events.channel.store.update.StoreChannelUpdatePositionEvent;
+import net.latinplay.latinbot.jda.api.events.channel.text.GenericTextChannelEvent;
+import net.latinplay.latinbot.jda.api.events.channel.text.TextChannelCreateEvent;
+import net.latinplay.latinbot.jda.api.events.channel.text.TextChannelDeleteEvent;
+import net.latinplay.latinbot.jda.api.events.channel.text.update.*;
+import net.latinplay.latinbot.jda.api.events.channel.voice.GenericVoiceChannelEvent;
+import net.latinplay.latinbot.jda.api.events.channel.voice.VoiceChannelCreateEvent;
+import net.latinplay.latinbot.jda.api.events.channel.voice.VoiceChannelDeleteEvent;
+import net.latinplay.latinbot.jda.api.events.channel.voice.update.*;
+import net.latinplay.latinbot.jda.api.events.emote.EmoteAddedEvent;
+import net.latinplay.latinbot.jda.api.events.emote.EmoteRemovedEvent;
+import net.latinplay.latinbot.jda.api.events.emote.GenericEmoteEvent;
+import net.latinplay.latinbot.jda.api.events.emote.update.EmoteUpdateNameEvent;
+import net.latinplay.latinbot.jda.api.events.emote.update.EmoteUpdateRolesEvent;
+import net.latinplay.latinbot.jda.api.events.emote.update.GenericEmoteUpdateEvent;
+import net.latinplay.latinbot.jda.api.events.guild.*;
+import net.latinplay.latinbot.jda.api.events.guild.member.*;
+import net.latinplay.latinbot.jda.api.events.guild.member.update.GenericGuildMemberUpdateEvent;
+import net.latinplay.latinbot.jda.api.events.guild.member.update.GuildMemberUpdateBoostTimeEvent;
+import net.latinplay.latinbot.jda.api.events.guild.member.update.GuildMemberUpdateNicknameEvent;
+import net.latinplay.latinbot.jda.api.events.guild.update.*;
+import net.latinplay.latinbot.jda.api.events.guild.voice.*;
+import net.latinplay.latinbot.jda.api.events.http.HttpRequestEvent;
+import net.latinplay.latinbot.jda.api.events.message.*;
+import net.latinplay.latinbot.jda.api.events.message.guild.*;
+import net.latinplay.latinbot.jda.api.events.message.guild.react.GenericGuildMessageReactionEvent;
+import net.latinplay.latinbot.jda.api.events.message.guild.react.GuildMessageReactionAddEvent;
+import net.latinplay.latinbot.jda.api.events.message.guild.react.GuildMessageReactionRemoveAllEvent;
+import net.latinplay.latinbot.jda.api.events.message.guild.react.GuildMessageReactionRemoveEvent;
+import net.latinplay.latinbot.jda.api.events.message.priv.*;
+import net.latinplay.latinbot.jda.api.events.message.priv.react.GenericPrivateMessageReactionEvent;
+import net.latinplay.latinbot.jda.api.events.message.priv.react.PrivateMessageReactionAddEvent;
+import net.latinplay.latinbot.jda.api.events.message.priv.react.PrivateMessageReactionRemoveEvent;
+import net.latinplay.latinbot.jda.api.events.message.react.GenericMessageReactionEvent;
+import net.latinplay.latinbot.jda.api.events.message.react.MessageReactionAddEvent;
+import net.latinplay.latinbot.jda.api.events.message.react.MessageReactionRemoveAllEvent;
+import net.latinplay.latinbot.jda.api.events.message.react.MessageReactionRemoveEvent;
+import net.latinplay.latinbot.jda.api.events.role.GenericRoleEvent;
+import net.latinplay.latinbot.jda.api.events.role.RoleCreateEvent;
+import net.latinplay.latinbot.jda.api.events.role.RoleDeleteEvent;
+import net.latinplay.latinbot.jda.api.events.role.update.*;
+import net.latinplay.latinbot.jda.api.events.self.*;
+import net.latinplay.latinbot.jda.api.events.user.GenericUserEvent;
+import net.latinplay.latinbot.jda.api.events.user.UserActivityEndEvent;
+import net.latinplay.latinbot.jda.api.events.user.UserActivityStartEvent;
+import net.latinplay.latinbot.jda.api.events.user.UserTypingEvent;
+import net.latinplay.latinbot.jda.api.events.user.update.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The event handling order of {@link ListenerAdapter#onEvent(GenericEvent)} expressed as data.
+ * <br>Each group is an if-else chain, for every group only the first entry that matches the event type is called.
+ * {@link ListenerAdapter#onGenericEvent(GenericEvent) onGenericEvent} is always called first and not part of these groups.
+ *
+ * <p>This has to be kept in sync with {@link ListenerAdapter#onEvent(GenericEvent)}.
+ */
+final class ListenerAdapterGroups
+{
+    static final List<List<Entry>> GROUPS = Collections.unmodifiableList(Arrays.asList(
+        group(
+            entry(UpdateEvent.class, "onGenericUpdate"),
+            entry(RawGatewayEvent.class, "onRawGateway")),
+        group(
+            entry(ReadyEvent.class, "onReady"),
+            entry(ResumedEvent.class, "onResume"),
+            entry(ReconnectedEvent.class, "onReconnect"),
+            entry(DisconnectEvent.class, "onDisconnect"),
+            entry(ShutdownEvent.class, "onShutdown"),
+            entry(StatusChangeEvent.class, "onStatusChange"),
+            entry(ExceptionEvent.class, "onException"),
+            entry(GatewayPingEvent.class, "onGatewayPing"),
+            entry(GuildMessageReceivedEvent.class, "onGuildMessageReceived"),
+            entry(GuildMessageUpdateEvent.class, "onGuildMessageUpdate"),
+            entry(GuildMessageDeleteEvent.class, "onGuildMessageDelete"),
+            entry(GuildMessageEmbedEvent.class, "onGuildMessageEmbed"),
+            entry(GuildMessageReactionAddEvent.class, "onGuildMessageReactionAdd"),
+            entry(GuildMessageReactionRemoveEvent.class, "onGuildMessageReactionRemove"),
+            entry(GuildMessageReactionRemoveAllEvent.class, "onGuildMessageReactionRemoveAll"),
+            entry(PrivateMessageReceivedEvent.class, "onPrivateMessageReceived"),
+            entry(PrivateMessageUpdateEvent.class, "onPrivateMessageUpdate"),
+            entry(PrivateMessageDeleteEvent.class, "onPrivateMessageDelete"),
+            entry(PrivateMessageEmbedEvent.class, "onPrivateMessageEmbed"),
+            entry(PrivateMessageReactionAddEvent.class, "onPrivateMessageReactionAdd"),
+            entry(PrivateMessageReactionRemoveEvent.class, "onPrivateMessageReactionRemove"),
+            entry(MessageReceivedEvent.class, "onMessageReceived"),
+            entry(MessageUpdateEvent.class, "onMessageUpdate"),
+            entry(MessageDeleteEvent.class, "onMessageDelete"),
+            entry(MessageBulkDeleteEvent.class, "onMessageBulkDelete"),
+            entry(MessageEmbedEvent.class, "onMessageEmbed"),
+            entry(MessageReactionAddEvent.class, "onMessageReactionAdd"),
+            entry(MessageReactionRemoveEvent.class, "onMessageReactionRemove"),
+            entry(MessageReactionRemoveAllEvent.class, "onMessageReactionRemoveAll"),
+            entry(UserUpdateNameEvent.class, "onUserUpdateName"),
+            entry(UserUpdateDiscriminatorEvent.class, "onUserUpdateDiscriminator"),
+            entry(UserUpdateAvatarEvent.class, "onUserUpdateAvatar"),
+            entry(UserUpdateActivityOrderEvent.class, "onUserUpdateActivityOrder"),
+            entry(UserUpdateOnlineStatusEvent.class, "onUserUpdateOnlineStatus"),
+            entry(UserTypingEvent.class, "onUserTyping"),
+            entry(UserActivityStartEvent.class, "onUserActivityStart"),
+            entry(UserActivityEndEvent.class, "onUserActivityEnd"),
+            entry(SelfUpdateAvatarEvent.class, "onSelfUpdateAvatar"),
+            entry(SelfUpdateEmailEvent.class, "onSelfUpdateEmail"),
+            entry(SelfUpdateMFAEvent.class, "onSelfUpdateMFA"),
+            entry(SelfUpdateNameEvent.class, "onSelfUpdateName"),
+            entry(SelfUpdateVerifiedEvent.class, "onSelfUpdateVerified"),
+            entry(StoreChannelCreateEvent.class, "onStoreChannelCreate"),
+            entry(StoreChannelDeleteEvent.class, "onStoreChannelDelete"),
+            entry(StoreChannelUpdateNameEvent.class, "onStoreChannelUpdateName"),
+            entry(StoreChannelUpdatePositionEvent.class, "onStoreChannelUpdatePosition"),
+            entry(StoreChannelUpdatePermissionsEvent.class, "onStoreChannelUpdatePermissions"),
+            entry(TextChannelCreateEvent.class, "onTextChannelCreate"),
+            entry(TextChannelUpdateNameEvent.class, "onTextChannelUpdateName"),
+            entry(TextChannelUpdateTopicEvent.class, "onTextChannelUpdateTopic"),
+            entry(TextChannelUpdatePositionEvent.class, "onTextChannelUpdatePosition"),
+            entry(TextChannelUpdatePermissionsEvent.class, "onTextChannelUpdatePermissions"),
+            entry(TextChannelUpdateNSFWEvent.class, "onTextChannelUpdateNSFW"),
+            entry(TextChannelUpdateParentEvent.class, "onTextChannelUpdateParent"),
+            entry(TextChannelUpdateSlowmodeEvent.class, "onTextChannelUpdateSlowmode"),
+            entry(TextChannelDeleteEvent.class, "onTextChannelDelete"),
+            entry(VoiceChannelCreateEvent.class, "onVoiceChannelCreate"),
+            entry(VoiceChannelUpdateNameEvent.class, "onVoiceChannelUpdateName"),
+            entry(VoiceChannelUpdatePositionEvent.class, "onVoiceChannelUpdatePosition"),
+            entry(VoiceChannelUpdateUserLimitEvent.class, "onVoiceChannelUpdateUserLimit"),
+            entry(VoiceChannelUpdateBitrateEvent.class, "onVoiceChannelUpdateBitrate"),
+            entry(VoiceChannelUpdatePermissionsEvent.class, "onVoiceChannelUpdatePermissions"),
+            entry(VoiceChannelUpdateParentEvent.class, "onVoiceChannelUpdateParent"),
+            entry(VoiceChannelDeleteEvent.class, "onVoiceChannelDelete"),
+            entry(CategoryCreateEvent.class, "onCategoryCreate"),
+            entry(CategoryUpdateNameEvent.class, "onCategoryUpdateName"),
+            entry(CategoryUpdatePositionEvent.class, "onCategoryUpdatePosition"),
+            entry(CategoryUpdatePermissionsEvent.class, "onCategoryUpdatePermissions"),
+            entry(CategoryDeleteEvent.class, "onCategoryDelete"),
+            entry(PrivateChannelCreateEvent.class, "onPrivateChannelCreate"),
+            entry(PrivateChannelDeleteEvent.class, "onPrivateChannelDelete"),
+            entry(GuildReadyEvent.class, "onGuildReady"),
+            entry(GuildJoinEvent.class, "onGuildJoin"),
+            entry(GuildLeaveEvent.class, "onGuildLeave"),
+            entry(GuildAvailableEvent.class, "onGuildAvailable"),
+            entry(GuildUnavailableEvent.class, "onGuildUnavailable"),
+            entry(UnavailableGuildJoinedEvent.class, "onUnavailableGuildJoined"),
+            entry(UnavailableGuildLeaveEvent.class, "onUnavailableGuildLeave"),
+            entry(GuildBanEvent.class, "onGuildBan"),
+            entry(GuildUnbanEvent.class, "onGuildUnban"),
+            entry(GuildUpdateAfkChannelEvent.class, "onGuildUpdateAfkChannel"),
+            entry(GuildUpdateSystemChannelEvent.class, "onGuildUpdateSystemChannel"),
+            entry(GuildUpdateAfkTimeoutEvent.class, "onGuildUpdateAfkTimeout"),
+            entry(GuildUpdateExplicitContentLevelEvent.class, "onGuildUpdateExplicitContentLevel"),
+            entry(GuildUpdateIconEvent.class, "onGuildUpdateIcon"),
+            entry(GuildUpdateMFALevelEvent.class, "onGuildUpdateMFALevel"),
+            entry(GuildUpdateNameEvent.class, "onGuildUpdateName"),
+            entry(GuildUpdateNotificationLevelEvent.class, "onGuildUpdateNotificationLevel"),
+            entry(GuildUpdateOwnerEvent.class, "onGuildUpdateOwner"),
+            entry(GuildUpdateRegionEvent.class, "onGuildUpdateRegion"),
+            entry(GuildUpdateSplashEvent.class, "onGuildUpdateSplash"),
+            entry(GuildUpdateVerificationLevelEvent.class, "onGuildUpdateVerificationLevel"),
+            entry(GuildUpdateFeaturesEvent.class, "onGuildUpdateFeatures"),
+            entry(GuildUpdateVanityCodeEvent.class, "onGuildUpdateVanityCode"),
+            entry(GuildUpdateBannerEvent.class, "onGuildUpdateBanner"),
+            entry(GuildUpdateDescriptionEvent.class, "onGuildUpdateDescription"),
+            entry(GuildUpdateBoostTierEvent.class, "onGuildUpdateBoostTier"),
+            entry(GuildUpdateBoostCountEvent.class, "onGuildUpdateBoostCount"),
+            entry(GuildUpdateMaxMembersEvent.class, "onGuildUpdateMaxMembers"),
+            entry(GuildUpdateMaxPresencesEvent.class, "onGuildUpdateMaxPresences"),
+            entry(GuildMemberJoinEvent.class, "onGuildMemberJoin"),
+            entry(GuildMemberLeaveEvent.class, "onGuildMemberLeave"),
+            entry(GuildMemberRoleAddEvent.class, "onGuildMemberRoleAdd"),
+            entry(GuildMemberRoleRemoveEvent.class, "onGuildMemberRoleRemove"),
+            entry(GuildMemberUpdateNicknameEvent.class, "onGuildMemberUpdateNickname"),
+            entry(GuildMemberUpdateBoostTimeEvent.class, "onGuildMemberUpdateBoostTime"),
+            entry(GuildVoiceJoinEvent.class, "onGuildVoiceJoin"),
+            entry(GuildVoiceMoveEvent.class, "onGuildVoiceMove"),
+            entry(GuildVoiceLeaveEvent.class, "onGuildVoiceLeave"),
+            entry(GuildVoiceMuteEvent.class, "onGuildVoiceMute"),
+            entry(GuildVoiceDeafenEvent.class, "onGuildVoiceDeafen"),
+            entry(GuildVoiceGuildMuteEvent.class, "onGuildVoiceGuildMute"),
+            entry(GuildVoiceGuildDeafenEvent.class, "onGuildVoiceGuildDeafen"),
+            entry(GuildVoiceSelfMuteEvent.class, "onGuildVoiceSelfMute"),
+            entry(GuildVoiceSelfDeafenEvent.class, "onGuildVoiceSelfDeafen"),
+            entry(GuildVoiceSuppressEvent.class, "onGuildVoiceSuppress"),
+            entry(RoleCreateEvent.class, "onRoleCreate"),
+            entry(RoleDeleteEvent.class, "onRoleDelete"),
+            entry(RoleUpdateColorEvent.class, "onRoleUpdateColor"),
+            entry(RoleUpdateHoistedEvent.class, "onRoleUpdateHoisted"),
+            entry(RoleUpdateMentionableEvent.class, "onRoleUpdateMentionable"),
+            entry(RoleUpdateNameEvent.class, "onRoleUpdateName"),
+            entry(RoleUpdatePermissionsEvent.class, "onRoleUpdatePermissions"),
+            entry(RoleUpdatePositionEvent.class, "onRoleUpdatePosition"),
+            entry(EmoteAddedEvent.class, "onEmoteAdded"),
+            entry(EmoteRemovedEvent.class, "onEmoteRemoved"),
+            entry(EmoteUpdateNameEvent.class, "onEmoteUpdateName"),
+            entry(EmoteUpdateRolesEvent.class, "onEmoteUpdateRoles"),
+            entry(HttpRequestEvent.class, "onHttpRequest")),
+        group(
+            entry(GuildVoiceUpdateEvent.class, "onGuildVoiceUpdate")),
+        group(
+            entry(GenericMessageReactionEvent.class, "onGenericMessageReaction"),
+            entry(GenericPrivateMessageReactionEvent.class, "onGenericPrivateMessageReaction"),
+            entry(GenericStoreChannelUpdateEvent.class, "onGenericStoreChannelUpdate"),
+            entry(GenericTextChannelUpdateEvent.class, "onGenericTextChannelUpdate"),
+            entry(GenericCategoryUpdateEvent.class, "onGenericCategoryUpdate"),
+            entry(GenericGuildMessageReactionEvent.class, "onGenericGuildMessageReaction"),
+            entry(GenericVoiceChannelUpdateEvent.class, "onGenericVoiceChannelUpdate"),
+            entry(GenericGuildUpdateEvent.class, "onGenericGuildUpdate"),
+            entry(GenericGuildMemberUpdateEvent.class, "onGenericGuildMemberUpdate"),
+            entry(GenericGuildVoiceEvent.class, "onGenericGuildVoice"),
+            entry(GenericRoleUpdateEvent.class, "onGenericRoleUpdate"),
+            entry(GenericEmoteUpdateEvent.class, "onGenericEmoteUpdate"),
+            entry(GenericUserPresenceEvent.class, "onGenericUserPresence")),
+        group(
+            entry(GenericMessageEvent.class, "onGenericMessage"),
+            entry(GenericPrivateMessageEvent.class, "onGenericPrivateMessage"),
+            entry(GenericGuildMessageEvent.class, "onGenericGuildMessage"),
+            entry(GenericGuildMemberEvent.class, "onGenericGuildMember"),
+            entry(GenericUserEvent.class, "onGenericUser"),
+            entry(GenericSelfUpdateEvent.class, "onGenericSelfUpdate"),
+            entry(GenericStoreChannelEvent.class, "onGenericStoreChannel"),
+            entry(GenericTextChannelEvent.class, "onGenericTextChannel"),
+            entry(GenericVoiceChannelEvent.class, "onGenericVoiceChannel"),
+            entry(GenericCategoryEvent.class, "onGenericCategory"),
+            entry(GenericRoleEvent.class, "onGenericRole"),
+            entry(GenericEmoteEvent.class, "onGenericEmote")),
+        group(
+            entry(GenericGuildEvent.class, "onGenericGuild"))));
+
+    private ListenerAdapterGroups() {}
+
+    private static Entry entry(Class<? extends GenericEvent> type, String method)
+    {
+        return new Entry(type, method);
+    }
+
+    private static List<Entry> group(Entry... entries)
+    {
+        return Collections.unmodifiableList(Arrays.asList(entries));
+    }
+
+    static final class Entry
+    {
+        final Class<? extends GenericEvent> type;
+        final String method;
+
+        private Entry(Class<? extends GenericEvent> type, String method)
+        {
+            this.type = type;
+            this.method = method;
+        }
+    }
+}
@@ -148,6 +148,27 @@ public interface MessageAction extends RestAction<Message>, Appendable
     
     MessageAction tts(final boolean isTTS);
 
+    /**
+     * Whether this message may be merged with other messages queued to the same channel.
+     * <br>When enabled, {@link #queue()} waits a short moment (20 milliseconds) for more messages
+     * and sends all of them as a single message, the contents are joined with a new line.
+     * All success and failure callbacks receive the result of that single request.
+     *
+     * <p>Only messages without files, nonce, {@link #setCheck(BooleanSupplier) check} or {@link #override(boolean) override}
+     * are merged. A message with an embed ends the current batch since the embed is shown below the content,
+     * messages with a different {@link #tts(boolean) TTS} setting or that exceed the content limit start a new batch.
+     * <br>This has no effect on edits, {@link #submit()} or {@link #complete()}.
+     * Messages queued without coalescing may be sent before a pending batch.
+     *
+     * @param  enable
+     *         True, to allow merging this message with others
+     *
+     * @return Updated MessageAction for chaining convenience
+     */
+    
+    
+    MessageAction coalesce(final boolean enable);
+
     /**
      * Resets this MessageAction to empty state
      * <br>{@link #isEmpty()} will result in {@code true} after this has been performed!
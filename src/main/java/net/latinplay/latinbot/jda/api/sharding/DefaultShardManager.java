@@ -22,6 +22,7 @@ import net.latinplay.latinbot.jda.api.OnlineStatus;
 import net.latinplay.latinbot.jda.api.entities.Activity;
 import net.latinplay.latinbot.jda.api.entities.Guild;
 import net.latinplay.latinbot.jda.api.utils.ChunkingFilter;
+import net.latinplay.latinbot.jda.api.utils.DispatchFilter;
 import net.latinplay.latinbot.jda.api.utils.MiscUtil;
 import net.latinplay.latinbot.jda.api.utils.SessionController;
 import net.latinplay.latinbot.jda.api.utils.cache.ShardCacheView;
@@ -139,6 +140,11 @@ public class DefaultShardManager implements ShardManager
      */
     protected final ChunkingFilter chunkingFilter;
 
+    /**
+     * {@link DispatchFilter} used to determine which gateway dispatches should be handled.
+     */
+    protected final DispatchFilter dispatchFilter;
+
     public DefaultShardManager( String token)
     {
         this(token, null);
@@ -155,6 +161,16 @@ public class DefaultShardManager implements ShardManager
          PresenceProviderConfig presenceConfig,  ThreadingProviderConfig threadingConfig,
          ShardingSessionConfig sessionConfig,  ShardingMetaConfig metaConfig,
          ChunkingFilter chunkingFilter)
+    {
+        this(token, shardIds, shardingConfig, eventConfig, presenceConfig, threadingConfig, sessionConfig, metaConfig, chunkingFilter, null);
+    }
+
+    public DefaultShardManager(
+         String token,  Collection<Integer> shardIds,
+         ShardingConfig shardingConfig,  EventConfig eventConfig,
+         PresenceProviderConfig presenceConfig,  ThreadingProviderConfig threadingConfig,
+         ShardingSessionConfig sessionConfig,  ShardingMetaConfig metaConfig,
+         ChunkingFilter chunkingFilter,  DispatchFilter dispatchFilter)
     {
         this.token = token;
         this.eventConfig = eventConfig == null ? EventConfig.getDefault() : eventConfig;
@@ -164,6 +180,7 @@ public class DefaultShardManager implements ShardManager
         this.presenceConfig = presenceConfig == null ? PresenceProviderConfig.getDefault() : presenceConfig;
         this.metaConfig = metaConfig == null ? ShardingMetaConfig.getDefault() : metaConfig;
         this.chunkingFilter = chunkingFilter == null ? ChunkingFilter.ALL : chunkingFilter;
+        this.dispatchFilter = dispatchFilter == null ? DispatchFilter.ALL : dispatchFilter;
         this.executor = createExecutor(this.threadingConfig.getThreadFactory());
         this.shutdownHook = this.metaConfig.isUseShutdownHook() ? new Thread(this::shutdown, "JDA Shutdown Hook") : null;
 
@@ -484,9 +501,10 @@ public class DefaultShardManager implements ShardManager
         threadingConfig.setRateLimitPool(rateLimitPool, shutdownRateLimitPool);
         threadingConfig.setGatewayPool(gatewayPool, shutdownGatewayPool);
         threadingConfig.setCallbackPool(callbackPool, shutdownCallbackPool);
-        MetaConfig metaConfig = new MetaConfig(this.metaConfig.getMaxBufferSize(), this.metaConfig.getContextMap(shardId), this.metaConfig.getCacheFlags(), this.sessionConfig.getFlags());
+        MetaConfig metaConfig = new MetaConfig(this.metaConfig.getMaxBufferSize(), this.metaConfig.getContextMap(shardId), this.metaConfig.getCacheFlags(), this.sessionConfig.getFlags(), this.metaConfig.getUserCachePolicy());
         final JDAImpl jda = new JDAImpl(authConfig, sessionConfig, threadingConfig, metaConfig);
         jda.setChunkingFilter(chunkingFilter);
+        jda.setDispatchFilter(dispatchFilter);
         threadingConfig.init(jda::getIdentifierString);
 
         jda.setShardManager(this);
@@ -32,10 +32,12 @@ import net.latinplay.latinbot.jda.api.hooks.*;
 import net.latinplay.latinbot.jda.api.managers.Presence;
 import net.latinplay.latinbot.jda.api.requests.RestAction;
 import net.latinplay.latinbot.jda.api.utils.ChunkingFilter;
+import net.latinplay.latinbot.jda.api.utils.DispatchFilter;
 import net.latinplay.latinbot.jda.api.utils.Compression;
 import net.latinplay.latinbot.jda.api.utils.SessionController;
 import net.latinplay.latinbot.jda.api.utils.SessionControllerAdapter;
 import net.latinplay.latinbot.jda.api.utils.cache.CacheFlag;
+import net.latinplay.latinbot.jda.api.utils.cache.UserCachePolicy;
 import net.latinplay.latinbot.jda.internal.utils.Checks;
 import net.latinplay.latinbot.jda.internal.utils.config.flags.ConfigFlag;
 import net.latinplay.latinbot.jda.internal.utils.config.flags.ShardingConfigFlag;
@@ -72,6 +74,7 @@ public class  DefaultShardManagerBuilder
     protected int maxReconnectDelay = 900;
     protected int largeThreshold = 250;
     protected int maxBufferSize = 2048;
+    protected UserCachePolicy userCachePolicy = null;
     protected String token = null;
     protected IntFunction<Boolean> idleProvider = null;
     protected IntFunction<OnlineStatus> statusProvider = null;
@@ -88,6 +91,7 @@ public class  DefaultShardManagerBuilder
     protected IAudioSendFactory audioSendFactory = null;
     protected ThreadFactory threadFactory = null;
     protected ChunkingFilter chunkingFilter;
+    protected DispatchFilter dispatchFilter;
 
     /**
      * Creates a completely empty DefaultShardManagerBuilder.
@@ -1241,6 +1245,29 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * The {@link DispatchFilter} to decide which gateway dispatches should be handled.
+     * <br>By default this uses {@link DispatchFilter#ALL}.
+     *
+     * <p>Filtered dispatches are dropped before any entity is built, they neither update the cache nor fire events.
+     * The amount of dropped dispatches can be retrieved with {@link JDA#getDroppedDispatches()} on each shard.
+     *
+     * @param  filter
+     *         The filter to apply
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    DispatchFilter#include(String...)
+     * @see    DispatchFilter#exclude(String...)
+     * @see    DispatchFilter#includeEvents(Class[])
+     */
+
+    public DefaultShardManagerBuilder setDispatchFilter( DispatchFilter filter)
+    {
+        this.dispatchFilter = filter;
+        return this;
+    }
+
     /**
      * Enable typing and presence update events.
      * <br>These events cover the majority of traffic happening on the gateway and thus cause a lot
@@ -1309,6 +1336,27 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Sets the {@link UserCachePolicy} used to evict users which are not referenced by any cached member.
+     * <br>Without a policy the user cache grows with every user encountered in direct messages, mentions or audit logs
+     * and is only pruned when members leave or guilds are removed.
+     *
+     * <p>Default: {@link UserCachePolicy#UNBOUNDED}
+     *
+     * @param  policy
+     *         The eviction policy, or {@code null} to use {@link UserCachePolicy#UNBOUNDED}
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    UserCachePolicy
+     */
+
+    public DefaultShardManagerBuilder setUserCachePolicy(UserCachePolicy policy)
+    {
+        this.userCachePolicy = policy;
+        return this;
+    }
+
     /**
      * Builds a new {@link ShardManager ShardManager} instance and uses the provided token to start the login process.
      * <br>The login process runs in a different thread, so while this will return immediately, {@link ShardManager ShardManager} has not
@@ -1340,8 +1388,8 @@ public class  DefaultShardManagerBuilder
         presenceConfig.setIdleProvider(idleProvider);
         final ThreadingProviderConfig threadingConfig = new ThreadingProviderConfig(rateLimitPoolProvider, gatewayPoolProvider, callbackPoolProvider, threadFactory);
         final ShardingSessionConfig sessionConfig = new ShardingSessionConfig(sessionController, voiceDispatchInterceptor, httpClient, httpClientBuilder, wsFactory, audioSendFactory, flags, shardingFlags, maxReconnectDelay, largeThreshold);
-        final ShardingMetaConfig metaConfig = new ShardingMetaConfig(maxBufferSize, contextProvider, cacheFlags, flags, compression);
-        final DefaultShardManager manager = new DefaultShardManager(this.token, this.shards, shardingConfig, eventConfig, presenceConfig, threadingConfig, sessionConfig, metaConfig, chunkingFilter);
+        final ShardingMetaConfig metaConfig = new ShardingMetaConfig(maxBufferSize, contextProvider, cacheFlags, flags, compression, userCachePolicy);
+        final DefaultShardManager manager = new DefaultShardManager(this.token, this.shards, shardingConfig, eventConfig, presenceConfig, threadingConfig, sessionConfig, metaConfig, chunkingFilter, dispatchFilter);
 
         manager.login();
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.utils;
+
+import net.latinplay.latinbot.jda.api.JDA;
+import net.latinplay.latinbot.jda.api.JDABuilder;
+import net.latinplay.latinbot.jda.api.events.GenericEvent;
+import net.latinplay.latinbot.jda.api.sharding.DefaultShardManagerBuilder;
+import net.latinplay.latinbot.jda.internal.utils.Checks;
+import net.latinplay.latinbot.jda.internal.utils.DispatchTypes;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Filter function for gateway dispatches.
+ * <br>The filter decides based on the dispatch type (such as {@code PRESENCE_UPDATE} or {@code TYPING_START})
+ * whether the dispatch should be handled at all. Dispatches that are filtered are dropped before any
+ * entity is built, the cache is not updated and no event is fired for them.
+ *
+ * <p>Only dispatches that exist to deliver events are filtered, these are:
+ * <ul>
+ *     <li>{@code PRESENCE_UPDATE}</li>
+ *     <li>{@code TYPING_START}</li>
+ *     <li>{@code MESSAGE_CREATE}, {@code MESSAGE_UPDATE}, {@code MESSAGE_DELETE} and {@code MESSAGE_DELETE_BULK}</li>
+ *     <li>{@code MESSAGE_REACTION_ADD}, {@code MESSAGE_REACTION_REMOVE} and {@code MESSAGE_REACTION_REMOVE_ALL}</li>
+ *     <li>{@code GUILD_BAN_ADD} and {@code GUILD_BAN_REMOVE}</li>
+ * </ul>
+ * All other dispatches are required to keep the cache consistent and are never passed to the filter.
+ *
+ * @see   #ALL
+ * @see   JDA#getDroppedDispatches()
+ *
+ * @see   JDABuilder#setDispatchFilter(DispatchFilter) JDABuilder.setDispatchFilter(DispatchFilter)
+ * @see   DefaultShardManagerBuilder#setDispatchFilter(DispatchFilter) DefaultShardManagerBuilder.setDispatchFilter(DispatchFilter)
+ */
+@FunctionalInterface
+public interface DispatchFilter
+{
+    /** Handle all dispatches (default) */
+    DispatchFilter ALL = (x) -> true;
+
+    /**
+     * Decide whether the specified dispatch type should be handled.
+     *
+     * @param  type
+     *         The dispatch type, for example {@code PRESENCE_UPDATE}
+     *
+     * @return True, if this dispatch should be handled
+     */
+    boolean filter(String type);
+
+    /**
+     * Factory method to handle a whitelist of dispatch types.
+     * <br>All filterable dispatches that are not mentioned will be dropped.
+     *
+     * @param  types
+     *         The dispatch types that should be handled
+     *
+     * @return The resulting filter
+     */
+    
+    static DispatchFilter include( String... types)
+    {
+        Checks.noneNull(types, "Types");
+        Set<String> set = new HashSet<>(Arrays.asList(types));
+        return set::contains;
+    }
+
+    /**
+     * Factory method to drop a blacklist of dispatch types.
+     * <br>All dispatches that are not mentioned will be handled.
+     *
+     * @param  types
+     *         The dispatch types that should be dropped
+     *
+     * @return The resulting filter
+     */
+    
+    static DispatchFilter exclude( String... types)
+    {
+        Checks.noneNull(types, "Types");
+        Set<String> set = new HashSet<>(Arrays.asList(types));
+        return (type) -> !set.contains(type);
+    }
+
+    /**
+     * Factory method to only handle the dispatches which can fire one of the provided events.
+     * <br>Events are matched by type hierarchy, using {@code GenericMessageEvent.class} includes every
+     * message and reaction dispatch while {@code MessageReceivedEvent.class} only includes {@code MESSAGE_CREATE}.
+     *
+     * <p>Example: {@code DispatchFilter.includeEvents(MessageReceivedEvent.class, MessageUpdateEvent.class)}
+     *
+     * @param  events
+     *         The event classes that should be fired
+     *
+     * @return The resulting filter
+     */
+    
+    @SafeVarargs
+    static DispatchFilter includeEvents( Class<? extends GenericEvent>... events)
+    {
+        // The array is not handed to any other method, not even Checks, that keeps @SafeVarargs true
+        if (events == null)
+            throw new IllegalArgumentException("Events may not be null");
+        Set<String> set = new HashSet<>();
+        for (Class<? extends GenericEvent> event : events)
+        {
+            Checks.notNull(event, "Events");
+            set.addAll(DispatchTypes.getTypes(event));
+        }
+        return set::contains;
+    }
+}
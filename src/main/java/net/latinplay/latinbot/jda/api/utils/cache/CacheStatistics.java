@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.utils.cache;
+
+/**
+ * Counters for the lookups and evictions of a cache.
+ * <br>The counters are updated concurrently, a snapshot of multiple values might not be consistent.
+ *
+ * @see net.latinplay.latinbot.jda.api.JDA#getUserCacheStatistics()
+ */
+public interface CacheStatistics
+{
+    /**
+     * The amount of lookups that found a cached entity.
+     *
+     * @return The hit count
+     */
+    long getHitCount();
+
+    /**
+     * The amount of lookups that did not find a cached entity.
+     *
+     * @return The miss count
+     */
+    long getMissCount();
+
+    /**
+     * The amount of entities that were evicted from the cache.
+     *
+     * @return The eviction count
+     */
+    long getEvictionCount();
+}
@@ -133,6 +133,22 @@ public interface MemberCacheView extends SnowflakeCacheView<Member>
         return getElementsByNickname(name, false);
     }
 
+    /**
+     * Creates an immutable list of all members whose {@link Member#getEffectiveName() effective name}
+     * starts with the provided prefix. The comparison ignores case.
+     * <br>This is useful for autocompletion of member names.
+     *
+     * @param  prefix
+     *         The name prefix, an empty prefix matches all members
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If provided with {@code null}
+     *
+     * @return Immutable list of members with the given name prefix
+     */
+    
+    List<Member> getElementsByPrefix(String prefix);
+
     /**
      * Creates an immutable list of all members that hold all
      * of the provided roles.
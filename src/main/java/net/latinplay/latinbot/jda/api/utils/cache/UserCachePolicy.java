@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.api.utils.cache;
+
+import net.latinplay.latinbot.jda.api.entities.User;
+import net.latinplay.latinbot.jda.internal.utils.Checks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eviction policy for the {@link User User} cache of a JDA session.
+ * <br>Only users that are not referenced by any cached {@link net.latinplay.latinbot.jda.api.entities.Member Member}
+ * can be evicted, these are users that were only encountered in direct messages, mentions or audit logs.
+ * The self user is never evicted.
+ *
+ * <p>Evicted users are dropped from the cache together with their private channel and
+ * will be created again when they show up in a new event.
+ *
+ * <p><b>Example</b><br>
+ * <pre>{@code
+ * builder.setUserCachePolicy(UserCachePolicy.maxSize(10000).withExpireAfterAccess(1, TimeUnit.HOURS));
+ * }</pre>
+ *
+ * @see net.latinplay.latinbot.jda.api.JDABuilder#setUserCachePolicy(UserCachePolicy)
+ * @see net.latinplay.latinbot.jda.api.JDA#getUserCacheStatistics()
+ */
+public class UserCachePolicy
+{
+    /**
+     * Never evicts users, this is the default.
+     */
+    public static final UserCachePolicy UNBOUNDED = new UserCachePolicy(0, 0);
+
+    private final int maxSize;
+    private final long expireAfterAccess;
+
+    private UserCachePolicy(int maxSize, long expireAfterAccess)
+    {
+        this.maxSize = maxSize;
+        this.expireAfterAccess = expireAfterAccess;
+    }
+
+    /**
+     * Creates a policy that keeps at most the provided amount of member-less users.
+     * <br>When more users are cached, the least recently used ones are evicted first.
+     *
+     * @param  maxSize
+     *         The maximum amount of users without members, or {@code 0} for no limit
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the provided size is negative
+     *
+     * @return The new policy
+     */
+    
+    public static UserCachePolicy maxSize(int maxSize)
+    {
+        return UNBOUNDED.withMaxSize(maxSize);
+    }
+
+    /**
+     * Creates a policy that evicts member-less users which have not been accessed for the provided time.
+     *
+     * @param  duration
+     *         The idle time, or {@code 0} to never expire users
+     * @param  unit
+     *         The time unit
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the duration is negative or the unit is null
+     *
+     * @return The new policy
+     */
+    
+    public static UserCachePolicy expireAfterAccess(long duration, TimeUnit unit)
+    {
+        return UNBOUNDED.withExpireAfterAccess(duration, unit);
+    }
+
+    /**
+     * Creates a copy of this policy with the provided maximum size.
+     *
+     * @param  maxSize
+     *         The maximum amount of users without members, or {@code 0} for no limit
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the provided size is negative
+     *
+     * @return The new policy
+     */
+    
+    public UserCachePolicy withMaxSize(int maxSize)
+    {
+        Checks.notNegative(maxSize, "Max size");
+        return new UserCachePolicy(maxSize, expireAfterAccess);
+    }
+
+    /**
+     * Creates a copy of this policy with the provided idle time.
+     *
+     * @param  duration
+     *         The idle time, or {@code 0} to never expire users
+     * @param  unit
+     *         The time unit
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the duration is negative or the unit is null
+     *
+     * @return The new policy
+     */
+    
+    public UserCachePolicy withExpireAfterAccess(long duration, TimeUnit unit)
+    {
+        Checks.notNegative(duration, "Duration");
+        Checks.notNull(unit, "Unit");
+        return new UserCachePolicy(maxSize, unit.toMillis(duration));
+    }
+
+    /**
+     * The maximum amount of member-less users, {@code 0} if there is no limit.
+     *
+     * @return The maximum size
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * The time in milliseconds after which an idle member-less user is evicted, {@code 0} if users never expire.
+     *
+     * @return The idle time in milliseconds
+     */
+    public long getExpireAfterAccess()
+    {
+        return expireAfterAccess;
+    }
+
+    /**
+     * Whether this policy never evicts any users.
+     *
+     * @return True, if this policy has neither a maximum size nor an idle time
+     */
+    public boolean isUnbounded()
+    {
+        return maxSize == 0 && expireAfterAccess == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "UserCachePolicy(maxSize=" + maxSize + ", expireAfterAccess=" + expireAfterAccess + "ms)";
+    }
+}
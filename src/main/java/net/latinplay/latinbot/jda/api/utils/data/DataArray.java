@@ -613,6 +613,28 @@ public class DataArray implements Iterable<Object>
         }
     }
 
+    /**
+     * Serializes this DataArray to UTF-8 encoded JSON.
+     * <br>Unlike {@link #toString()} this writes the bytes directly without creating an intermediate String.
+     *
+     * @throws IllegalStateException
+     *         If the array cannot be serialized
+     *
+     * @return The JSON bytes
+     */
+    
+    public byte[] toJson()
+    {
+        try
+        {
+            return mapper.writeValueAsBytes(data);
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Converts this DataArray to a {@link java.util.List}.
      *
@@ -623,6 +623,28 @@ public class DataObject implements SerializableData
         }
     }
 
+    /**
+     * Serializes this DataObject to UTF-8 encoded JSON.
+     * <br>Unlike {@link #toString()} this writes the bytes directly without creating an intermediate String.
+     *
+     * @throws ParsingException
+     *         If the object cannot be serialized
+     *
+     * @return The JSON bytes
+     */
+    
+    public byte[] toJson()
+    {
+        try
+        {
+            return mapper.writeValueAsBytes(data);
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new ParsingException(e);
+        }
+    }
+
     /**
      * Converts this DataObject to a {@link java.util.Map}
      *
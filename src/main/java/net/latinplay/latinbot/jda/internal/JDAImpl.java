@@ -41,10 +41,12 @@ import net.latinplay.latinbot.jda.api.requests.Response;
 import net.latinplay.latinbot.jda.api.requests.RestAction;
 import net.latinplay.latinbot.jda.api.sharding.ShardManager;
 import net.latinplay.latinbot.jda.api.utils.ChunkingFilter;
+import net.latinplay.latinbot.jda.api.utils.DispatchFilter;
 import net.latinplay.latinbot.jda.api.utils.Compression;
 import net.latinplay.latinbot.jda.api.utils.MiscUtil;
 import net.latinplay.latinbot.jda.api.utils.SessionController;
 import net.latinplay.latinbot.jda.api.utils.cache.CacheFlag;
+import net.latinplay.latinbot.jda.api.utils.cache.CacheStatistics;
 import net.latinplay.latinbot.jda.api.utils.cache.CacheView;
 import net.latinplay.latinbot.jda.api.utils.cache.SnowflakeCacheView;
 import net.latinplay.latinbot.jda.api.utils.data.DataObject;
@@ -57,11 +59,14 @@ import net.latinplay.latinbot.jda.internal.managers.DirectAudioControllerImpl;
 import net.latinplay.latinbot.jda.internal.managers.PresenceImpl;
 import net.latinplay.latinbot.jda.internal.requests.*;
 import net.latinplay.latinbot.jda.internal.requests.restaction.GuildActionImpl;
+import net.latinplay.latinbot.jda.internal.requests.restaction.MessageCoalescer;
 import net.latinplay.latinbot.jda.internal.utils.Checks;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import net.latinplay.latinbot.jda.internal.utils.UnlockHook;
 import net.latinplay.latinbot.jda.internal.utils.cache.AbstractCacheView;
+import net.latinplay.latinbot.jda.internal.utils.cache.CacheSnapshot;
 import net.latinplay.latinbot.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.latinplay.latinbot.jda.internal.utils.cache.UserCacheEvictor;
 import net.latinplay.latinbot.jda.internal.utils.config.AuthorizationConfig;
 import net.latinplay.latinbot.jda.internal.utils.config.MetaConfig;
 import net.latinplay.latinbot.jda.internal.utils.config.SessionConfig;
@@ -71,8 +76,10 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.security.auth.login.LoginException;
+import java.io.File;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 public class JDAImpl implements JDA
@@ -89,15 +96,19 @@ public class JDAImpl implements JDA
     protected final SnowflakeCacheViewImpl<TextChannel> textChannelCache = new SnowflakeCacheViewImpl<>(TextChannel.class, GuildChannel::getName);
     protected final SnowflakeCacheViewImpl<VoiceChannel> voiceChannelCache = new SnowflakeCacheViewImpl<>(VoiceChannel.class, GuildChannel::getName);
     protected final SnowflakeCacheViewImpl<PrivateChannel> privateChannelCache = new SnowflakeCacheViewImpl<>(PrivateChannel.class, MessageChannel::getName);
+    protected final SnowflakeCacheViewImpl<Role> roleCache = new SnowflakeCacheViewImpl<>(Role.class, Role::getName);
+    protected final SnowflakeCacheViewImpl<Emote> emoteCache = new SnowflakeCacheViewImpl<>(Emote.class, Emote::getName);
 
     protected final TLongObjectMap<User> fakeUsers = MiscUtil.newLongMap();
     protected final TLongObjectMap<PrivateChannel> fakePrivateChannels = MiscUtil.newLongMap();
+    protected final UserCacheEvictor userCacheEvictor;
 
     protected final AbstractCacheView<AudioManager> audioManagers = new CacheView.SimpleCacheView<>(AudioManager.class, m -> m.getGuild().getName());
 
     protected final PresenceImpl presence;
     protected final Thread shutdownHook;
     protected final EntityBuilder entityBuilder = new EntityBuilder(this);
+    protected final MessageCoalescer messageCoalescer = new MessageCoalescer(this);
     protected final EventCache eventCache;
     protected final EventManagerProxy eventManager = new EventManagerProxy(new InterfacedEventManager());
 
@@ -119,6 +130,9 @@ public class JDAImpl implements JDA
     protected long gatewayPing = -1;
     protected String gatewayUrl;
     protected ChunkingFilter chunkingFilter;
+    protected File cacheSnapshotFile;
+    protected DispatchFilter dispatchFilter = DispatchFilter.ALL;
+    protected final ConcurrentMap<String, LongAdder> droppedDispatches = new ConcurrentHashMap<>();
 
     protected String clientId = null;
     protected ShardManager shardManager = null;
@@ -143,6 +157,8 @@ public class JDAImpl implements JDA
         this.guildSetupController = new GuildSetupController(this);
         this.audioController = new DirectAudioControllerImpl(this);
         this.eventCache = new EventCache(isGuildSubscriptions());
+        this.userCache.indexNames();
+        this.userCacheEvictor = new UserCacheEvictor(this, this.metaConfig.getUserCachePolicy());
     }
 
     public void handleEvent( GenericEvent event)
@@ -198,6 +214,38 @@ public class JDAImpl implements JDA
         this.chunkingFilter = filter;
     }
 
+    public File getCacheSnapshotFile()
+    {
+        return cacheSnapshotFile;
+    }
+
+    public void setCacheSnapshotFile(File file)
+    {
+        this.cacheSnapshotFile = file;
+    }
+
+    public boolean isDispatchEnabled(String type)
+    {
+        boolean enabled;
+        try
+        {
+            enabled = dispatchFilter.filter(type);
+        }
+        catch (Exception e)
+        {
+            LOG.error("Uncaught exception from dispatch filter", e);
+            return true;
+        }
+        if (!enabled)
+            droppedDispatches.computeIfAbsent(type, (k) -> new LongAdder()).increment();
+        return enabled;
+    }
+
+    public void setDispatchFilter(DispatchFilter filter)
+    {
+        this.dispatchFilter = filter == null ? DispatchFilter.ALL : filter;
+    }
+
     public SessionController getSessionController()
     {
         return sessionConfig.getSessionController();
@@ -228,6 +276,7 @@ public class JDAImpl implements JDA
         this.shardInfo = shardInfo;
         threadConfig.init(this::getIdentifierString);
         requester.getRateLimiter().init();
+        userCacheEvictor.start();
         this.gatewayUrl = gatewayUrl == null ? getGateway() : gatewayUrl;
         Checks.notNull(this.gatewayUrl, "Gateway URL");
 
@@ -257,7 +306,10 @@ public class JDAImpl implements JDA
             LOG.info("Login Successful!");
         }
 
-        client = new WebSocketClient(this, compression);
+        String sessionId = null;
+        if (cacheSnapshotFile != null && hasSelfUser())
+            sessionId = CacheSnapshot.restore(this, cacheSnapshotFile);
+        client = new WebSocketClient(this, compression, sessionId);
         // remove our MDC metadata when we exit our code
         if (previousContext != null)
             previousContext.forEach(MDC::put);
@@ -484,6 +536,11 @@ public class JDAImpl implements JDA
         return this;
     }
 
+    public MessageCoalescer getMessageCoalescer()
+    {
+        return messageCoalescer;
+    }
+
     
     @Override
     public ScheduledExecutorService getRateLimitPool()
@@ -593,14 +650,14 @@ public class JDAImpl implements JDA
     @Override
     public SnowflakeCacheView<Role> getRoleCache()
     {
-        return CacheView.allSnowflakes(() -> guildCache.stream().map(Guild::getRoleCache));
+        return roleCache;
     }
 
     
     @Override
     public SnowflakeCacheView<Emote> getEmoteCache()
     {
-        return CacheView.allSnowflakes(() -> guildCache.stream().map(Guild::getEmoteCache));
+        return emoteCache;
     }
 
     
@@ -645,6 +702,27 @@ public class JDAImpl implements JDA
         return userCache;
     }
 
+    
+    @Override
+    public CacheStatistics getUserCacheStatistics()
+    {
+        return userCacheEvictor;
+    }
+
+    
+    @Override
+    public User getUserById(String id)
+    {
+        return getUserById(MiscUtil.parseSnowflake(id));
+    }
+
+    
+    @Override
+    public User getUserById(long id)
+    {
+        return userCacheEvictor.record(userCache.getElementById(id));
+    }
+
     public boolean hasSelfUser()
     {
         return selfUser != null;
@@ -672,11 +750,13 @@ public class JDAImpl implements JDA
         if (status == Status.SHUTDOWN || status == Status.SHUTTING_DOWN)
             return;
 
+        // the session can only be resumed if it was fully loaded
+        boolean keepSession = cacheSnapshotFile != null && status == Status.CONNECTED;
         setStatus(Status.SHUTTING_DOWN);
 
         WebSocketClient client = getClient();
         if (client != null)
-            client.shutdown();
+            client.shutdown(keepSession);
 
         shutdownInternals();
     }
@@ -690,6 +770,7 @@ public class JDAImpl implements JDA
         guildSetupController.close();
 
         getRequester().shutdown();
+        userCacheEvictor.stop();
         if (audioLifeCyclePool != null)
             audioLifeCyclePool.shutdownNow();
         threadConfig.shutdown();
@@ -725,6 +806,15 @@ public class JDAImpl implements JDA
         return responseTotal;
     }
 
+    
+    @Override
+    public Map<String, Long> getDroppedDispatches()
+    {
+        Map<String, Long> snapshot = new HashMap<>();
+        droppedDispatches.forEach((type, count) -> snapshot.put(type, count.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
     @Override
     public int getMaxReconnectDelay()
     {
@@ -950,6 +1040,16 @@ public class JDAImpl implements JDA
         return privateChannelCache;
     }
 
+    public SnowflakeCacheViewImpl<Role> getRolesView()
+    {
+        return roleCache;
+    }
+
+    public SnowflakeCacheViewImpl<Emote> getEmotesView()
+    {
+        return emoteCache;
+    }
+
     public AbstractCacheView<AudioManager> getAudioManagersView()
     {
         return audioManagers;
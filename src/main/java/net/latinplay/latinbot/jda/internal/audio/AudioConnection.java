@@ -27,6 +27,7 @@ import net.latinplay.latinbot.jda.api.audio.*;
 import net.latinplay.latinbot.jda.api.audio.factory.IAudioSendFactory;
 import net.latinplay.latinbot.jda.api.audio.factory.IAudioSendSystem;
 import net.latinplay.latinbot.jda.api.audio.factory.IPacketProvider;
+import net.latinplay.latinbot.jda.api.audio.factory.MultiplexedSendFactory;
 import net.latinplay.latinbot.jda.api.audio.hooks.ConnectionStatus;
 import net.latinplay.latinbot.jda.api.entities.Guild;
 import net.latinplay.latinbot.jda.api.entities.User;
@@ -39,6 +40,7 @@ import net.latinplay.latinbot.jda.internal.utils.IOUtil;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import net.latinplay.latinbot.jda.internal.utils.cache.SnowflakeReference;
 import org.slf4j.Logger;
+import org.slf4j.MDC;
 import tomp2p.opuswrapper.Opus;
 
 import java.net.*;
@@ -46,6 +48,7 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -64,7 +67,7 @@ public class AudioConnection
 
     private final TIntLongMap ssrcMap = new TIntLongHashMap();
     private final TIntObjectMap<Decoder> opusDecoders = new TIntObjectHashMap<>();
-    private final HashMap<User, Queue<AudioData>> combinedQueue = new HashMap<>();
+    private final AudioMixer mixer = new AudioMixer();
     private final String threadIdentifier;
     private final AudioWebSocket webSocket;
     private final JDAImpl api;
@@ -72,8 +75,12 @@ public class AudioConnection
     private SnowflakeReference<VoiceChannel> channel;
     private PointerByReference opusEncoder;
     private ScheduledExecutorService combinedAudioExecutor;
+    private CombinedAudioTask combinedAudioTask;
     private IAudioSendSystem sendSystem;
     private Thread receiveThread;
+    // Set instead of the receive thread when a MultiplexedSendFactory receives for us
+    private AudioReceiveSelector receiveSelector;
+    private DatagramChannel receiveChannel;
     private long queueTimeout;
     private boolean sentSilenceOnConnect = false;
     private int speakingDelay = 10;
@@ -179,16 +186,8 @@ public class AudioConnection
             sendSystem.shutdown();
             sendSystem = null;
         }
-        if (receiveThread != null)
-        {
-            receiveThread.interrupt();
-            receiveThread = null;
-        }
-        if (combinedAudioExecutor != null)
-        {
-            combinedAudioExecutor.shutdownNow();
-            combinedAudioExecutor = null;
-        }
+        stopReceiving();
+        stopCombinedAudio();
         if (opusEncoder != null)
         {
             Opus.INSTANCE.opus_encoder_destroy(opusEncoder);
@@ -263,6 +262,7 @@ public class AudioConnection
         });
         if (!modified)
             return;
+        mixer.removeBuffer(ssrcRef.get());
         final Decoder decoder = opusDecoders.remove(ssrcRef.get());
         if (decoder != null) // cleanup decoder
             decoder.close();
@@ -286,7 +286,7 @@ public class AudioConnection
             ssrcMap.put(ssrc, userId);
 
             //Only create a decoder if we are actively handling received audio.
-            if (receiveThread != null && AudioNatives.ensureOpus())
+            if (isReceiving() && AudioNatives.ensureOpus())
                 opusDecoders.put(ssrc, new Decoder(ssrc));
         }
     }
@@ -317,34 +317,61 @@ public class AudioConnection
 
     private synchronized void setupReceiveSystem()
     {
-        if (udpSocket != null && !udpSocket.isClosed() && receiveHandler != null && receiveThread == null)
+        if (udpSocket != null && !udpSocket.isClosed() && receiveHandler != null && !isReceiving())
         {
             setupReceiveThread();
         }
-        else if (receiveHandler == null && receiveThread != null)
+        else if (receiveHandler == null && (receiveThread != null || receiveChannel != null))
         {
-            receiveThread.interrupt();
-            receiveThread = null;
-
-            if (combinedAudioExecutor != null)
-            {
-                combinedAudioExecutor.shutdownNow();
-                combinedAudioExecutor = null;
-            }
+            stopReceiving();
+            stopCombinedAudio();
+            mixer.clear();
 
             opusDecoders.valueCollection().forEach(Decoder::close);
             opusDecoders.clear();
         }
-        else if (receiveHandler != null && !receiveHandler.canReceiveCombined() && combinedAudioExecutor != null)
+        else if (receiveHandler != null && !receiveHandler.canReceiveCombined())
         {
-            combinedAudioExecutor.shutdownNow();
-            combinedAudioExecutor = null;
+            stopCombinedAudio();
+        }
+    }
+
+    private boolean isReceiving()
+    {
+        // The receive thread follows the current socket, a registration only covers the channel it was made for
+        return receiveThread != null || (receiveChannel != null && udpSocket != null && receiveChannel == udpSocket.getChannel());
+    }
+
+    private void stopReceiving()
+    {
+        if (receiveThread != null)
+        {
+            receiveThread.interrupt();
+            receiveThread = null;
+        }
+        if (receiveChannel != null)
+        {
+            receiveSelector.unregister(receiveChannel);
+            receiveSelector = null;
+            receiveChannel = null;
         }
     }
 
     private synchronized void setupReceiveThread()
     {
-        if (receiveThread == null)
+        IAudioSendFactory factory = getJDA().getAudioSendFactory();
+        DatagramChannel channel = udpSocket.getChannel();
+        if (channel != null && factory instanceof MultiplexedSendFactory)
+        {
+            if (receiveChannel != channel)
+            {
+                // A reconnect replaced the socket, its key was cancelled when the old one was closed
+                receiveSelector = ((MultiplexedSendFactory) factory).getReceiveSelector();
+                receiveSelector.register(this, channel);
+                receiveChannel = channel;
+            }
+        }
+        else if (receiveThread == null)
         {
             receiveThread = new Thread(() ->
             {
@@ -357,91 +384,15 @@ public class AudioConnection
                 {
                     LOG.error("Couldn't set SO_TIMEOUT for UDP socket", e);
                 }
+                // the packets are only valid until the next receive
+                AudioPacketBuffer buffer = new AudioPacketBuffer();
                 while (!udpSocket.isClosed() && !Thread.currentThread().isInterrupted())
                 {
-                    DatagramPacket receivedPacket = new DatagramPacket(new byte[1920], 1920);
                     try
                     {
-                        udpSocket.receive(receivedPacket);
-
-                        boolean shouldDecode = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined());
-                        boolean canReceive = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined() || receiveHandler.canReceiveEncoded());
-                        if (canReceive && webSocket.getSecretKey() != null)
-                        {
-                            if (!couldReceive)
-                            {
-                                couldReceive = true;
-                                sendSilentPackets();
-                            }
-                            AudioPacket decryptedPacket = AudioPacket.decryptAudioPacket(webSocket.encryption, receivedPacket, webSocket.getSecretKey());
-                            if (decryptedPacket == null)
-                                continue;
-
-                            int ssrc = decryptedPacket.getSSRC();
-                            final long userId = ssrcMap.get(ssrc);
-                            Decoder decoder = opusDecoders.get(ssrc);
-                            if (userId == ssrcMap.getNoEntryValue())
-                            {
-                                ByteBuffer audio = decryptedPacket.getEncodedAudio();
-
-                                //If the bytes are silence, then this was caused by a User joining the voice channel,
-                                // and as such, we haven't yet received information to pair the SSRC with the UserId.
-                                if (!audio.equals(silenceBytes))
-                                    LOG.debug("Received audio data with an unknown SSRC id. Ignoring");
-
-                                continue;
-                            }
-                            if (decoder == null)
-                            {
-                                if (AudioNatives.ensureOpus())
-                                {
-                                    opusDecoders.put(ssrc, decoder = new Decoder(ssrc));
-                                }
-                                else if (!receiveHandler.canReceiveEncoded())
-                                {
-                                    LOG.error("Unable to decode audio due to missing opus binaries!");
-                                    break;
-                                }
-                            }
-                            OpusPacket opusPacket = new OpusPacket(decryptedPacket, userId, decoder);
-                            if (receiveHandler.canReceiveEncoded())
-                                receiveHandler.handleEncodedAudio(opusPacket);
-                            if (!shouldDecode || !opusPacket.canDecode())
-                                continue;
-
-                            User user = getJDA().getUserById(userId);
-                            if (user == null)
-                            {
-                                LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
-                                continue;
-                            }
-                            short[] decodedAudio = opusPacket.decode();
-                            //If decodedAudio is null, then the Opus decode failed, so throw away the packet.
-                            if (decodedAudio == null)
-                            {
-                                //decoder error logged in method
-                                continue;
-                            }
-                            if (receiveHandler.canReceiveUser())
-                            {
-                                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
-                            }
-                            if (receiveHandler.canReceiveCombined() && receiveHandler.includeUserInCombinedAudio(user))
-                            {
-                                Queue<AudioData> queue = combinedQueue.get(user);
-                                if (queue == null)
-                                {
-                                    queue = new ConcurrentLinkedQueue<>();
-                                    combinedQueue.put(user, queue);
-                                }
-                                queue.add(new AudioData(decodedAudio));
-                            }
-                        }
-                        else if (couldReceive)
-                        {
-                            couldReceive = false;
-                            sendSilentPackets();
-                        }
+                        udpSocket.receive(buffer.getPacket());
+                        if (!handleReceivedPacket(buffer))
+                            break;
                     }
                     catch (SocketTimeoutException e)
                     {
@@ -476,93 +427,151 @@ public class AudioConnection
         }
     }
 
-    private synchronized void setupCombinedExecutor()
+    /**
+     * Handles a packet received on the UDP socket.
+     *
+     * @param  buffer
+     *         The buffer holding the received packet
+     *
+     * @return False, if receiving has to be stopped
+     */
+    protected boolean handleReceivedPacket(AudioPacketBuffer buffer)
     {
-        if (combinedAudioExecutor == null)
+        boolean shouldDecode = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined());
+        boolean canReceive = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined() || receiveHandler.canReceiveEncoded());
+        if (canReceive && webSocket.getSecretKey() != null)
         {
-            combinedAudioExecutor = Executors.newSingleThreadScheduledExecutor((task) ->
+            if (!couldReceive)
             {
-                final Thread t = new Thread(task, threadIdentifier + " Combined Thread");
-                t.setDaemon(true);
-                t.setUncaughtExceptionHandler((thread, throwable) ->
-                {
-                    LOG.error("I have no idea how, but there was an uncaught exception in the combinedAudioExecutor", throwable);
-                    JDAImpl api = getJDA();
-                    api.handleEvent(new ExceptionEvent(api, throwable, true));
-                });
-                return t;
-            });
-            combinedAudioExecutor.scheduleAtFixedRate(() ->
+                couldReceive = true;
+                sendSilentPackets();
+            }
+            if (!buffer.decrypt(webSocket.encryption, webSocket.getSecretKey()))
+                return true;
+
+            int ssrc = buffer.getSSRC();
+            final long userId = ssrcMap.get(ssrc);
+            Decoder decoder = opusDecoders.get(ssrc);
+            if (userId == ssrcMap.getNoEntryValue())
             {
-                getJDA().setContext();
-                try
-                {
-                    List<User> users = new LinkedList<>();
-                    List<short[]> audioParts = new LinkedList<>();
-                    if (receiveHandler != null && receiveHandler.canReceiveCombined())
-                    {
-                        long currentTime = System.currentTimeMillis();
-                        for (Map.Entry<User, Queue<AudioData>> entry : combinedQueue.entrySet())
-                        {
-                            User user = entry.getKey();
-                            Queue<AudioData> queue = entry.getValue();
-
-                            if (queue.isEmpty())
-                                continue;
-
-                            AudioData audioData = queue.poll();
-                            //Make sure the audio packet is younger than 100ms
-                            while (audioData != null && currentTime - audioData.time > queueTimeout)
-                            {
-                                audioData = queue.poll();
-                            }
-
-                            //If none of the audio packets were younger than 100ms, then there is nothing to add.
-                            if (audioData == null)
-                            {
-                                continue;
-                            }
-                            users.add(user);
-                            audioParts.add(audioData.data);
-                        }
+                //If the bytes are silence, then this was caused by a User joining the voice channel,
+                // and as such, we haven't yet received information to pair the SSRC with the UserId.
+                if (!buffer.isSilence())
+                    LOG.debug("Received audio data with an unknown SSRC id. Ignoring");
 
-                        if (!audioParts.isEmpty())
-                        {
-                            int audioLength = audioParts.stream().mapToInt(it -> it.length).max().getAsInt();
-                            short[] mix = new short[1920];  //960 PCM samples for each channel
-                            int sample;
-                            for (int i = 0; i < audioLength; i++)
-                            {
-                                sample = 0;
-                                for (Iterator<short[]> iterator = audioParts.iterator(); iterator.hasNext(); )
-                                {
-                                    short[] audio = iterator.next();
-                                    if (i < audio.length)
-                                        sample += audio[i];
-                                    else
-                                        iterator.remove();
-                                }
-                                if (sample > Short.MAX_VALUE)
-                                    mix[i] = Short.MAX_VALUE;
-                                else if (sample < Short.MIN_VALUE)
-                                    mix[i] = Short.MIN_VALUE;
-                                else
-                                    mix[i] = (short) sample;
-                            }
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(users, mix));
-                        }
-                        else
-                        {
-                            //No audio to mix, provide 20 MS of silence. (960 PCM samples for each channel)
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(Collections.emptyList(), new short[1920]));
-                        }
-                    }
+                return true;
+            }
+            if (decoder == null)
+            {
+                if (AudioNatives.ensureOpus())
+                {
+                    opusDecoders.put(ssrc, decoder = new Decoder(ssrc));
                 }
-                catch (Exception e)
+                else if (!receiveHandler.canReceiveEncoded())
                 {
-                    LOG.error("There was some unexpected exception in the combinedAudioExecutor!", e);
+                    LOG.error("Unable to decode audio due to missing opus binaries!");
+                    return false;
                 }
-            }, 0, 20, TimeUnit.MILLISECONDS);
+            }
+            // Only packets that are handed to the handler have to be copied out of the buffer
+            OpusPacket opusPacket = null;
+            if (receiveHandler.canReceiveEncoded())
+            {
+                opusPacket = new OpusPacket(buffer.toAudioPacket(), userId, decoder);
+                receiveHandler.handleEncodedAudio(opusPacket);
+            }
+            if (!shouldDecode || decoder == null || !decoder.isInOrder(buffer.getSequence()))
+                return true;
+
+            User user = getJDA().getUserById(userId);
+            if (user == null)
+            {
+                LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
+                return true;
+            }
+            boolean combined = receiveHandler.canReceiveCombined() && receiveHandler.includeUserInCombinedAudio(user);
+            JitterBuffer jitterBuffer = combined ? mixer.getBuffer(ssrc, queueTimeout) : null;
+            // The handler may keep user audio, frames that are only used for combined audio are decoded into the jitter buffer
+            if (combined && opusPacket == null && !receiveHandler.canReceiveUser())
+            {
+                short[] frame = jitterBuffer.claim();
+                if (frame == null)
+                    return true; // the mixer is behind, it drops old frames on its own
+                int length = decoder.decodeFromOpus(buffer.getData(), buffer.getAudioOffset(), buffer.getAudioLength(),
+                                                    buffer.getSequence(), buffer.getTimestamp(), frame);
+                //If the length is negative, then the Opus decode failed, so throw away the packet.
+                if (length >= 0)
+                    jitterBuffer.commit(user, length, buffer.getTimestamp());
+                return true;
+            }
+
+            if (opusPacket == null)
+                opusPacket = new OpusPacket(buffer.toAudioPacket(), userId, decoder);
+            short[] decodedAudio = opusPacket.decode();
+            //If decodedAudio is null, then the Opus decode failed, so throw away the packet.
+            if (decodedAudio == null)
+            {
+                //decoder error logged in method
+                return true;
+            }
+            if (receiveHandler.canReceiveUser())
+            {
+                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
+            }
+            if (combined)
+            {
+                jitterBuffer.offer(user, decodedAudio, buffer.getTimestamp());
+            }
+        }
+        else if (couldReceive)
+        {
+            couldReceive = false;
+            sendSilentPackets();
+        }
+        return true;
+    }
+
+    private synchronized void setupCombinedExecutor()
+    {
+        if (combinedAudioTask == null)
+        {
+            IAudioSendFactory factory = getJDA().getAudioSendFactory();
+            ScheduledExecutorService executor;
+            if (factory instanceof MultiplexedSendFactory)
+            {
+                executor = ((MultiplexedSendFactory) factory).getCombinedScheduler();
+            }
+            else
+            {
+                executor = combinedAudioExecutor = Executors.newSingleThreadScheduledExecutor((task) ->
+                {
+                    final Thread t = new Thread(task, threadIdentifier + " Combined Thread");
+                    t.setDaemon(true);
+                    t.setUncaughtExceptionHandler((thread, throwable) ->
+                    {
+                        LOG.error("I have no idea how, but there was an uncaught exception in the combinedAudioExecutor", throwable);
+                        JDAImpl api = getJDA();
+                        api.handleEvent(new ExceptionEvent(api, throwable, true));
+                    });
+                    return t;
+                });
+            }
+            combinedAudioTask = new CombinedAudioTask(executor);
+            combinedAudioTask.start();
+        }
+    }
+
+    private synchronized void stopCombinedAudio()
+    {
+        if (combinedAudioTask != null)
+        {
+            combinedAudioTask.cancel();
+            combinedAudioTask = null;
+        }
+        if (combinedAudioExecutor != null)
+        {
+            combinedAudioExecutor.shutdownNow();
+            combinedAudioExecutor = null;
         }
     }
 
@@ -828,15 +837,77 @@ public class AudioConnection
         }
     }
 
-    private static class AudioData
+    // Mixes the combined audio every 20ms. The next run is scheduled for the deadline of the following frame
+    // and deadlines that already passed are skipped, a stalled executor does not cause a burst of mixes.
+    private class CombinedAudioTask implements Runnable
     {
-        private final long time;
-        private final short[] data;
+        private final ScheduledExecutorService executor;
+        private long deadline;
+        private ScheduledFuture<?> future;
+        private boolean cancelled;
 
-        public AudioData(short[] data)
+        private CombinedAudioTask(ScheduledExecutorService executor)
         {
-            this.time = System.currentTimeMillis();
-            this.data = data;
+            this.executor = executor;
+        }
+
+        private synchronized void start()
+        {
+            deadline = System.nanoTime();
+            future = executor.schedule(this, 0, TimeUnit.NANOSECONDS);
+        }
+
+        private synchronized void cancel()
+        {
+            cancelled = true;
+            if (future != null)
+                future.cancel(false);
+        }
+
+        @Override
+        public void run()
+        {
+            getJDA().setContext();
+            try
+            {
+                AudioReceiveHandler handler = receiveHandler;
+                if (handler != null && handler.canReceiveCombined())
+                    handler.handleCombinedAudio(mixer.mix(queueTimeout));
+            }
+            catch (Exception e)
+            {
+                LOG.error("There was some unexpected exception in the combinedAudioExecutor!", e);
+            }
+            finally
+            {
+                // The executor might be shared, the context of this connection must not leak into the next task
+                MDC.clear();
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext()
+        {
+            if (cancelled)
+                return;
+            long frameNanos = TimeUnit.MILLISECONDS.toNanos(OpusPacket.OPUS_FRAME_TIME_AMOUNT);
+            deadline += frameNanos;
+            long delay = deadline - System.nanoTime();
+            if (delay < 0)
+            {
+                long missed = -delay / frameNanos + 1;
+                deadline += missed * frameNanos;
+                delay += missed * frameNanos;
+            }
+            try
+            {
+                future = executor.schedule(this, delay, TimeUnit.NANOSECONDS);
+            }
+            catch (RejectedExecutionException e)
+            {
+                // The executor has been shut down
+                cancelled = true;
+            }
         }
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.audio;
+
+import net.latinplay.latinbot.jda.api.audio.CombinedAudio;
+import net.latinplay.latinbot.jda.api.entities.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mixes the {@link JitterBuffer JitterBuffers} of all speakers of a connection into {@link CombinedAudio}.
+ * <br>Buffers are added by the receiving thread and removed by the websocket thread, {@link #mix(long)} is only
+ * called by the combined audio task.
+ */
+public class AudioMixer
+{
+    //20 MS of silence (960 PCM samples for each channel), never modified
+    private static final short[] SILENCE = new short[JitterBuffer.FRAME_LENGTH];
+    private static final JitterBuffer[] EMPTY = new JitterBuffer[0];
+
+    private final int[] accumulator = new int[JitterBuffer.FRAME_LENGTH];
+    // copy-on-write, so the mixer and the receiving thread can iterate it without locking
+    private volatile JitterBuffer[] buffers = EMPTY;
+
+    /**
+     * The buffer of the SSRC, created if there is none yet.
+     *
+     * @param  ssrc
+     *         The SSRC of the speaker
+     * @param  queueTimeout
+     *         The queue timeout in milliseconds, used to size a new buffer
+     *
+     * @return The buffer for the SSRC
+     */
+    public JitterBuffer getBuffer(int ssrc, long queueTimeout)
+    {
+        JitterBuffer buffer = find(buffers, ssrc);
+        if (buffer != null)
+            return buffer;
+        synchronized (this)
+        {
+            JitterBuffer[] buffers = this.buffers;
+            buffer = find(buffers, ssrc);
+            if (buffer == null)
+            {
+                // Room for the queue timeout and two frames more, at most one second
+                int capacity = (int) Math.min(50, Math.max(0, queueTimeout) / 20 + 2);
+                buffer = new JitterBuffer(ssrc, capacity);
+                JitterBuffer[] updated = Arrays.copyOf(buffers, buffers.length + 1);
+                updated[buffers.length] = buffer;
+                this.buffers = updated;
+            }
+            return buffer;
+        }
+    }
+
+    public synchronized void removeBuffer(int ssrc)
+    {
+        JitterBuffer[] buffers = this.buffers;
+        for (int i = 0; i < buffers.length; i++)
+        {
+            if (buffers[i].getSSRC() != ssrc)
+                continue;
+            JitterBuffer[] updated = new JitterBuffer[buffers.length - 1];
+            System.arraycopy(buffers, 0, updated, 0, i);
+            System.arraycopy(buffers, i + 1, updated, i, updated.length - i);
+            this.buffers = updated;
+            return;
+        }
+    }
+
+    public synchronized void clear()
+    {
+        buffers = EMPTY;
+    }
+
+    /**
+     * Mixes the next frame of every speaker.
+     *
+     * @param  queueTimeout
+     *         Frames older than this many milliseconds are dropped
+     *
+     * @return The combined audio, with shared silence if nobody is speaking
+     */
+    public CombinedAudio mix(long queueTimeout)
+    {
+        JitterBuffer[] buffers = this.buffers;
+        long now = System.currentTimeMillis();
+        List<User> users = null;
+        int[] accumulator = this.accumulator;
+        for (JitterBuffer buffer : buffers)
+        {
+            int slot = buffer.poll(now, queueTimeout);
+            if (slot < 0)
+                continue;
+            short[] frame = buffer.getFrame(slot);
+            int length = buffer.getLength(slot);
+            if (users == null)
+            {
+                users = new ArrayList<>(buffers.length);
+                Arrays.fill(accumulator, 0);
+            }
+            users.add(buffer.getUser());
+            for (int i = 0; i < length; i++)
+                accumulator[i] += frame[i];
+            buffer.release();
+        }
+
+        if (users == null)
+            return new CombinedAudio(Collections.emptyList(), SILENCE);
+
+        // The handler may keep the audio, so the result can't be reused
+        short[] mix = new short[JitterBuffer.FRAME_LENGTH];
+        for (int i = 0; i < mix.length; i++)
+            mix[i] = (short) Math.min(Math.max(accumulator[i], Short.MIN_VALUE), Short.MAX_VALUE);
+        return new CombinedAudio(users, mix);
+    }
+
+    private static JitterBuffer find(JitterBuffer[] buffers, int ssrc)
+    {
+        for (JitterBuffer buffer : buffers)
+        {
+            if (buffer.getSSRC() == ssrc)
+                return buffer;
+        }
+        return null;
+    }
+}
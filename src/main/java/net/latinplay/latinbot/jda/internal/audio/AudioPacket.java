@@ -19,7 +19,6 @@ package net.latinplay.latinbot.jda.internal.audio;
 import com.iwebpp.crypto.TweetNaclFast;
 import net.latinplay.latinbot.jda.internal.utils.IOUtil;
 
-import java.net.DatagramPacket;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
@@ -65,11 +64,6 @@ public class AudioPacket
     private final byte[] rawPacket;
     private final ByteBuffer encodedAudio;
 
-    public AudioPacket(DatagramPacket packet)
-    {
-        this(Arrays.copyOf(packet.getData(), packet.getLength()));
-    }
-
     public AudioPacket(byte[] rawPacket)
     {
         this.rawPacket = rawPacket;
@@ -165,23 +159,40 @@ public class AudioPacket
     protected ByteBuffer asEncryptedPacket(TweetNaclFast.SecretBox boxer, ByteBuffer buffer, byte[] nonce, int nlen)
     {
         //Xsalsa20's Nonce is 24 bytes long, however RTP (and consequently Discord)'s nonce is a different length
-        // so we need to create a 24 byte array, and copy the nonce into it.
-        // we will leave the extra bytes as nulls. (Java sets non-populated bytes as 0).
-        byte[] extendedNonce = nonce;
+        // so we need to copy the nonce into the provided 24 byte array.
+        // we will leave the extra bytes as zeros.
         if (nlen == 0) // this means the header is the nonce!
-            extendedNonce = getNoncePadded();
+        {
+            System.arraycopy(rawPacket, 0, nonce, 0, RTP_HEADER_BYTE_LENGTH);
+            Arrays.fill(nonce, RTP_HEADER_BYTE_LENGTH, nonce.length, (byte) 0);
+        }
 
-        //Create our SecretBox encoder with the secretKey provided by Discord.
-        byte[] array = encodedAudio.array();
-        int offset = encodedAudio.arrayOffset() + encodedAudio.position();
         int length = encodedAudio.remaining();
-        byte[] encryptedAudio = boxer.box(array, offset, length, extendedNonce);
-
         ((Buffer) buffer).clear();
-        int capacity = RTP_HEADER_BYTE_LENGTH + encryptedAudio.length + nlen;
+        int capacity = RTP_HEADER_BYTE_LENGTH + TweetNaclFast.SecretBox.overheadLength + length + nlen;
         if (capacity > buffer.remaining())
             buffer = ByteBuffer.allocate(capacity);
-        populateBuffer(seq, timestamp, ssrc, ByteBuffer.wrap(encryptedAudio), buffer);
+
+        //The payload is the authenticator followed by the encrypted audio,
+        // copy the audio behind the space for the authenticator and encrypt it in place
+        ((Buffer) buffer).position(RTP_HEADER_BYTE_LENGTH + TweetNaclFast.SecretBox.overheadLength);
+        int position = encodedAudio.position();
+        buffer.put(encodedAudio);
+        ((Buffer) encodedAudio).position(position);
+
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset() + RTP_HEADER_BYTE_LENGTH;
+        if (!boxer.boxInPlace(array, offset + TweetNaclFast.SecretBox.overheadLength, length, array, offset, nonce))
+            throw new IllegalStateException("Failed to encrypt audio packet");
+
+        int end = buffer.position();
+        ((Buffer) buffer).position(0);
+        buffer.put(RTP_VERSION_PAD_EXTEND);
+        buffer.put(RTP_PAYLOAD_TYPE);
+        buffer.putChar(seq);
+        buffer.putInt(timestamp);
+        buffer.putInt(ssrc);
+        ((Buffer) buffer).position(end);
         if (nlen > 0) // this means we append the nonce to the payload
             buffer.put(nonce, 0, nlen);
 
@@ -189,68 +200,6 @@ public class AudioPacket
         return buffer;
     }
 
-    protected static AudioPacket decryptAudioPacket(AudioEncryption encryption, DatagramPacket packet, byte[] secretKey)
-    {
-        TweetNaclFast.SecretBox boxer = new TweetNaclFast.SecretBox(secretKey);
-        AudioPacket encryptedPacket = new AudioPacket(packet);
-        if (encryptedPacket.type != RTP_PAYLOAD_TYPE)
-            return null;
-
-        byte[] extendedNonce;
-        byte[] rawPacket = encryptedPacket.getRawPacket();
-        switch (encryption)
-        {
-            case XSALSA20_POLY1305:
-                extendedNonce = encryptedPacket.getNoncePadded();
-                break;
-            case XSALSA20_POLY1305_SUFFIX:
-                extendedNonce = new byte[TweetNaclFast.SecretBox.nonceLength];
-                System.arraycopy(rawPacket, rawPacket.length - extendedNonce.length, extendedNonce, 0, extendedNonce.length);
-                break;
-            case XSALSA20_POLY1305_LITE:
-                extendedNonce = new byte[TweetNaclFast.SecretBox.nonceLength];
-                System.arraycopy(rawPacket, rawPacket.length - 4, extendedNonce, 0, 4);
-                break;
-            default:
-                AudioConnection.LOG.debug("Failed to decrypt audio packet, unsupported encryption mode!");
-                return null;
-        }
-
-        ByteBuffer encodedAudio = encryptedPacket.encodedAudio;
-        int length = encodedAudio.remaining();
-        int offset = encodedAudio.arrayOffset() + encodedAudio.position();
-        switch (encryption)
-        {
-            case XSALSA20_POLY1305:
-//                length = encodedAudio.remaining();
-                break;
-            case XSALSA20_POLY1305_LITE:
-                length -= 4;
-                break;
-            case XSALSA20_POLY1305_SUFFIX:
-                length -= TweetNaclFast.SecretBox.nonceLength;
-                break;
-            default:
-                AudioConnection.LOG.debug("Failed to decrypt audio packet, unsupported encryption mode!");
-                return null;
-        }
-
-        final byte[] decryptedAudio = boxer.open(encodedAudio.array(), offset, length, extendedNonce);
-        if (decryptedAudio == null)
-        {
-            AudioConnection.LOG.trace("Failed to decrypt audio packet");
-            return null;
-        }
-        final byte[] decryptedRawPacket = new byte[RTP_HEADER_BYTE_LENGTH + decryptedAudio.length];
-
-        //first 12 bytes of rawPacket are the RTP header
-        //the rest is the audio data we just decrypted
-        System.arraycopy(encryptedPacket.rawPacket, 0, decryptedRawPacket, 0, RTP_HEADER_BYTE_LENGTH);
-        System.arraycopy(decryptedAudio, 0, decryptedRawPacket, RTP_HEADER_BYTE_LENGTH, decryptedAudio.length);
-
-        return new AudioPacket(decryptedRawPacket);
-    }
-
     private static byte[] generateRawPacket(ByteBuffer buffer, char seq, int timestamp, int ssrc, ByteBuffer data)
     {
         if (buffer == null)
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.audio;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import net.latinplay.latinbot.jda.internal.utils.IOUtil;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Reusable buffers for the receiving side of an {@link AudioConnection}.
+ * <br>Received packets are parsed and decrypted in place, the decrypted packet is only valid until the next call to
+ * {@link #decrypt(AudioEncryption, byte[])}. Use {@link #toAudioPacket()} to get a copy that can be handed out.
+ *
+ * <p>This class is not thread-safe, it is only used by the thread receiving for the connection.
+ */
+public class AudioPacketBuffer
+{
+    // Larger than any packet discord sends
+    public static final int MAX_PACKET_SIZE = 1920;
+    private static final byte[] SILENCE = {(byte) 0xF8, (byte) 0xFF, (byte) 0xFE};
+
+    private final byte[] received = new byte[MAX_PACKET_SIZE];
+    private final DatagramPacket packet = new DatagramPacket(received, received.length);
+    private final ByteBuffer receiveBuffer = ByteBuffer.wrap(received);
+    // RTP header followed by the decrypted payload, same layout as AudioPacket#getRawPacket
+    private final byte[] decrypted = new byte[MAX_PACKET_SIZE];
+    private final byte[] nonce = new byte[TweetNaclFast.SecretBox.nonceLength];
+
+    private byte[] secretKey;
+    private TweetNaclFast.SecretBox boxer;
+
+    private char seq;
+    private int timestamp;
+    private int ssrc;
+    private int length;
+    private int audioOffset;
+
+    public DatagramPacket getPacket()
+    {
+        // DatagramSocket#receive shrinks the length to the size of the last packet
+        packet.setLength(received.length);
+        return packet;
+    }
+
+    /**
+     * Receives the next packet from a non-blocking channel.
+     *
+     * @param  channel
+     *         The channel to receive from
+     *
+     * @throws IOException
+     *         If the channel fails to receive
+     *
+     * @return True, if a packet was received
+     */
+    public boolean receive(DatagramChannel channel) throws IOException
+    {
+        ((Buffer) receiveBuffer).clear();
+        if (channel.receive(receiveBuffer) == null)
+            return false;
+        packet.setLength(receiveBuffer.position());
+        return true;
+    }
+
+    /**
+     * Decrypts the last received packet.
+     *
+     * @param  encryption
+     *         The encryption mode of the connection
+     * @param  secretKey
+     *         The secret key of the connection
+     *
+     * @return True, if the packet is a valid audio packet that was decrypted successfully
+     */
+    public boolean decrypt(AudioEncryption encryption, byte[] secretKey)
+    {
+        int packetLength = packet.getLength();
+        if (packetLength < AudioPacket.RTP_HEADER_BYTE_LENGTH || received[AudioPacket.PT_INDEX] != AudioPacket.RTP_PAYLOAD_TYPE)
+            return false;
+        if (this.secretKey != secretKey)
+        {
+            this.secretKey = secretKey;
+            this.boxer = new TweetNaclFast.SecretBox(secretKey);
+        }
+
+        Arrays.fill(nonce, (byte) 0);
+        int payloadLength;
+        switch (encryption)
+        {
+            case XSALSA20_POLY1305:
+                System.arraycopy(received, 0, nonce, 0, AudioPacket.RTP_HEADER_BYTE_LENGTH);
+                payloadLength = packetLength;
+                break;
+            case XSALSA20_POLY1305_SUFFIX:
+                payloadLength = packetLength - nonce.length;
+                if (payloadLength < AudioPacket.RTP_HEADER_BYTE_LENGTH)
+                    return false;
+                System.arraycopy(received, payloadLength, nonce, 0, nonce.length);
+                break;
+            case XSALSA20_POLY1305_LITE:
+                payloadLength = packetLength - 4;
+                if (payloadLength < AudioPacket.RTP_HEADER_BYTE_LENGTH)
+                    return false;
+                System.arraycopy(received, payloadLength, nonce, 0, 4);
+                break;
+            default:
+                AudioConnection.LOG.debug("Failed to decrypt audio packet, unsupported encryption mode!");
+                return false;
+        }
+
+        int offset = getPayloadOffset(received, payloadLength);
+        if (offset < 0)
+            return false;
+        // the payload is the authenticator followed by the encrypted audio, decrypt it where it was received
+        int audioStart = offset + TweetNaclFast.SecretBox.overheadLength;
+        int audioLength = payloadLength - audioStart;
+        if (audioLength < 0 || AudioPacket.RTP_HEADER_BYTE_LENGTH + audioLength > decrypted.length
+            || !boxer.openInPlace(received, audioStart, audioLength, received, offset, nonce))
+        {
+            AudioConnection.LOG.trace("Failed to decrypt audio packet");
+            return false;
+        }
+
+        //first 12 bytes of the packet are the RTP header
+        //the rest is the audio data we just decrypted
+        System.arraycopy(received, 0, decrypted, 0, AudioPacket.RTP_HEADER_BYTE_LENGTH);
+        System.arraycopy(received, audioStart, decrypted, AudioPacket.RTP_HEADER_BYTE_LENGTH, audioLength);
+        length = AudioPacket.RTP_HEADER_BYTE_LENGTH + audioLength;
+        audioOffset = getPayloadOffset(decrypted, length);
+        if (audioOffset < 0)
+            return false;
+        seq = (char) IOUtil.getShortBigEndian(decrypted, AudioPacket.SEQ_INDEX);
+        timestamp = IOUtil.getIntBigEndian(decrypted, AudioPacket.TIMESTAMP_INDEX);
+        ssrc = IOUtil.getIntBigEndian(decrypted, AudioPacket.SSRC_INDEX);
+        return true;
+    }
+
+    public char getSequence()
+    {
+        return seq;
+    }
+
+    public int getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public int getSSRC()
+    {
+        return ssrc;
+    }
+
+    public byte[] getData()
+    {
+        return decrypted;
+    }
+
+    public int getAudioOffset()
+    {
+        return audioOffset;
+    }
+
+    public int getAudioLength()
+    {
+        return length - audioOffset;
+    }
+
+    public boolean isSilence()
+    {
+        if (getAudioLength() != SILENCE.length)
+            return false;
+        for (int i = 0; i < SILENCE.length; i++)
+        {
+            if (decrypted[audioOffset + i] != SILENCE[i])
+                return false;
+        }
+        return true;
+    }
+
+    public AudioPacket toAudioPacket()
+    {
+        return new AudioPacket(Arrays.copyOf(decrypted, length));
+    }
+
+    // Same as AudioPacket#getPayloadOffset but bounds checked, -1 if the packet is malformed
+    private static int getPayloadOffset(byte[] data, int length)
+    {
+        final byte profile = data[0];
+        final boolean hasExtension = (profile & 0x10) != 0; // extension bit is at 000X
+        final int csrcLength = (profile & 0x0f) * 4;         // CSRC count, defines count of 4-byte words
+        int offset = AudioPacket.RTP_HEADER_BYTE_LENGTH + csrcLength;
+        if (!hasExtension || offset + 4 > length || IOUtil.getShortBigEndian(data, offset) != AudioPacket.RTP_DISCORD_EXTENSION)
+            return offset <= length ? offset : -1;
+
+        // headerLength defines number of 4-byte words in the extension
+        final short headerLength = IOUtil.getShortBigEndian(data, offset + 2);
+        offset += 4 + headerLength * 4;
+        // strip excess 0 bytes
+        while (offset < length && data[offset] == 0)
+            offset++;
+        return offset <= length ? offset : -1;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.audio;
+
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Receives the UDP packets of many {@link AudioConnection AudioConnections} on a single thread.
+ * <br>The channels are switched to non-blocking mode and registered with one {@link Selector}.
+ */
+public class AudioReceiveSelector
+{
+    // Upper bound of packets read from one channel before the next one gets a turn
+    private static final int MAX_BURST = 16;
+
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final String threadName;
+    private Selector selector;
+    private Thread thread;
+
+    public AudioReceiveSelector(String threadName)
+    {
+        this.threadName = threadName;
+    }
+
+    public void register(AudioConnection connection, DatagramChannel channel)
+    {
+        submit(() ->
+        {
+            try
+            {
+                channel.configureBlocking(false);
+                // A key cancelled by an unregister in the same batch is only removed by the next select,
+                // registering again before that would throw a CancelledKeyException
+                if (channel.keyFor(selector) != null)
+                    selector.selectNow();
+                channel.register(selector, SelectionKey.OP_READ, new Receiver(connection));
+            }
+            catch (ClosedChannelException ignored)
+            {
+                //The connection was closed before we got to register it
+            }
+            catch (IOException e)
+            {
+                AudioConnection.LOG.error("Failed to register UDP channel for receiving", e);
+            }
+        });
+    }
+
+    public void unregister(DatagramChannel channel)
+    {
+        submit(() ->
+        {
+            SelectionKey key = channel.keyFor(selector);
+            if (key != null)
+                key.cancel();
+        });
+    }
+
+    public synchronized void shutdown()
+    {
+        if (thread == null)
+            return;
+        thread.interrupt();
+        thread = null;
+        try
+        {
+            selector.close();
+        }
+        catch (IOException e)
+        {
+            AudioConnection.LOG.error("Failed to close receive selector", e);
+        }
+        selector = null;
+        pending.clear();
+    }
+
+    private synchronized void submit(Runnable task)
+    {
+        if (thread == null)
+            start();
+        pending.add(task);
+        selector.wakeup();
+    }
+
+    private void start()
+    {
+        try
+        {
+            selector = Selector.open();
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Failed to open receive selector", e);
+        }
+        final Selector selector = this.selector;
+        thread = new Thread(() ->
+        {
+            while (selector.isOpen() && !Thread.currentThread().isInterrupted())
+            {
+                try
+                {
+                    selector.select();
+                    Runnable task;
+                    while ((task = pending.poll()) != null)
+                        task.run();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext())
+                    {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid())
+                            ((Receiver) key.attachment()).receive(key);
+                    }
+                }
+                catch (ClosedSelectorException e)
+                {
+                    //We have been shut down
+                }
+                catch (Exception e)
+                {
+                    AudioConnection.LOG.error("There was some random exception while waiting for udp packets", e);
+                }
+            }
+        });
+        thread.setUncaughtExceptionHandler((t, throwable) ->
+            AudioConnection.LOG.error("There was some uncaught exception in the audio receive thread", throwable));
+        thread.setDaemon(true);
+        thread.setName(threadName);
+        thread.start();
+    }
+
+    private static class Receiver
+    {
+        private final AudioConnection connection;
+        // the packets are only valid until the next receive
+        private final AudioPacketBuffer buffer = new AudioPacketBuffer();
+
+        private Receiver(AudioConnection connection)
+        {
+            this.connection = connection;
+        }
+
+        private void receive(SelectionKey key)
+        {
+            connection.getJDA().setContext();
+            DatagramChannel channel = (DatagramChannel) key.channel();
+            try
+            {
+                for (int i = 0; i < MAX_BURST && buffer.receive(channel); i++)
+                {
+                    if (!connection.handleReceivedPacket(buffer))
+                    {
+                        key.cancel();
+                        return;
+                    }
+                }
+            }
+            catch (ClosedChannelException e)
+            {
+                //The socket was closed, closing a channel also cancels its key
+            }
+            catch (Exception e)
+            {
+                AudioConnection.LOG.error("There was some random exception while waiting for udp packets", e);
+            }
+            finally
+            {
+                // The thread is shared, the context of this connection must not leak into the next one
+                MDC.clear();
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ package net.latinplay.latinbot.jda.internal.audio;
 import com.neovisionaries.ws.client.*;
 import net.latinplay.latinbot.jda.api.JDAInfo;
 import net.latinplay.latinbot.jda.api.audio.SpeakingMode;
+import net.latinplay.latinbot.jda.api.audio.factory.MultiplexedSendFactory;
 import net.latinplay.latinbot.jda.api.audio.hooks.ConnectionListener;
 import net.latinplay.latinbot.jda.api.audio.hooks.ConnectionStatus;
 import net.latinplay.latinbot.jda.api.entities.Guild;
@@ -40,6 +41,7 @@ import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.NoRouteToHostException;
 import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
@@ -578,7 +580,7 @@ class AudioWebSocket extends WebSocketAdapter
             if (audioConnection.udpSocket != null)
                 audioConnection.udpSocket.close();
             //Create new UDP socket for communication
-            audioConnection.udpSocket = new DatagramSocket();
+            audioConnection.udpSocket = openUdpSocket();
 
             //Create a byte array of length 70 containing our ssrc.
             ByteBuffer buffer = ByteBuffer.allocate(70);    //70 taken from documentation
@@ -629,6 +631,24 @@ class AudioWebSocket extends WebSocketAdapter
         }
     }
 
+    private DatagramSocket openUdpSocket() throws IOException
+    {
+        if (!(getJDA().getAudioSendFactory() instanceof MultiplexedSendFactory))
+            return new DatagramSocket();
+        //The multiplexed send and receive paths work on the channel, it is switched to non-blocking once it is ready
+        DatagramChannel channel = DatagramChannel.open();
+        try
+        {
+            channel.bind(null);
+        }
+        catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+        return channel.socket();
+    }
+
     private void stopKeepAlive()
     {
         if (keepAliveHandle != null)
@@ -650,8 +670,16 @@ class AudioWebSocket extends WebSocketAdapter
             {
                 try
                 {
-                    DatagramPacket keepAlivePacket = new DatagramPacket(UDP_KEEP_ALIVE, UDP_KEEP_ALIVE.length, address);
-                    audioConnection.udpSocket.send(keepAlivePacket);
+                    DatagramChannel channel = audioConnection.udpSocket.getChannel();
+                    if (channel != null) // the socket can't send on its own in non-blocking mode
+                    {
+                        channel.send(ByteBuffer.wrap(UDP_KEEP_ALIVE), address);
+                    }
+                    else
+                    {
+                        DatagramPacket keepAlivePacket = new DatagramPacket(UDP_KEEP_ALIVE, UDP_KEEP_ALIVE.length, address);
+                        audioConnection.udpSocket.send(keepAlivePacket);
+                    }
                 }
                 catch (NoRouteToHostException e)
                 {
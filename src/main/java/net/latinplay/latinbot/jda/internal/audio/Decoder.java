@@ -20,6 +20,7 @@ import com.sun.jna.ptr.PointerByReference;
 import net.latinplay.latinbot.jda.api.audio.OpusPacket;
 import tomp2p.opuswrapper.Opus;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
@@ -33,6 +34,9 @@ public class Decoder
     protected char lastSeq;
     protected int lastTimestamp;
     protected PointerByReference opusDecoder;
+    // Reused for every packet, opus_decode only accepts arrays starting at index 0
+    protected final byte[] encoded = new byte[AudioPacketBuffer.MAX_PACKET_SIZE];
+    protected final ShortBuffer decoded = ShortBuffer.allocate(4096);
 
     protected Decoder(int ssrc)
     {
@@ -56,42 +60,84 @@ public class Decoder
         return newSeq > lastSeq + 1;
     }
 
-    public short[] decodeFromOpus(AudioPacket decryptedPacket)
+    public synchronized short[] decodeFromOpus(AudioPacket decryptedPacket)
     {
         int result;
-        ShortBuffer decoded = ShortBuffer.allocate(4096);
         if (decryptedPacket == null)    //Flag for packet-loss
         {
-            result = Opus.INSTANCE.opus_decode(opusDecoder, null, 0, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
-            lastSeq = (char) -1;
-            lastTimestamp = -1;
+            result = decode(null, 0, 0, (char) -1, -1, null);
         }
         else
         {
-            this.lastSeq = decryptedPacket.getSequence();
-            this.lastTimestamp = decryptedPacket.getTimestamp();
-
             ByteBuffer encodedAudio = decryptedPacket.getEncodedAudio();
             int length = encodedAudio.remaining();
             int offset = encodedAudio.arrayOffset() + encodedAudio.position();
-            byte[] buf = new byte[length];
-            byte[] data = encodedAudio.array();
-            System.arraycopy(data, offset, buf, 0, length);
-            result = Opus.INSTANCE.opus_decode(opusDecoder, buf, buf.length, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
+            result = decode(encodedAudio.array(), offset, length, decryptedPacket.getSequence(), decryptedPacket.getTimestamp(), null);
         }
 
         //If we get a result that is less than 0, then there was an error. Return null as a signifier.
         if (result < 0)
-        {
-            handleDecodeError(result);
             return null;
-        }
 
-        short[] audio = new short[result * 2];
+        short[] audio = new short[result];
         decoded.get(audio);
         return audio;
     }
 
+    /**
+     * Decodes the opus audio into the provided array.
+     *
+     * @param  data
+     *         The array holding the opus audio
+     * @param  offset
+     *         The start of the opus audio
+     * @param  length
+     *         The length of the opus audio
+     * @param  seq
+     *         The sequence of the packet
+     * @param  timestamp
+     *         The timestamp of the packet
+     * @param  audio
+     *         The array to decode into, must be able to hold {@link OpusPacket#OPUS_FRAME_SIZE} samples for every channel
+     *
+     * @return The amount of decoded samples, or -1 if the audio could not be decoded
+     */
+    public int decodeFromOpus(byte[] data, int offset, int length, char seq, int timestamp, short[] audio)
+    {
+        return decode(data, offset, length, seq, timestamp, audio);
+    }
+
+    private synchronized int decode(byte[] data, int offset, int length, char seq, int timestamp, short[] audio)
+    {
+        ((Buffer) decoded).clear();
+        int result;
+        if (data == null)
+        {
+            result = Opus.INSTANCE.opus_decode(opusDecoder, null, 0, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
+        }
+        else
+        {
+            if (length > encoded.length)
+                return -1;
+            System.arraycopy(data, offset, encoded, 0, length);
+            result = Opus.INSTANCE.opus_decode(opusDecoder, encoded, length, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
+        }
+        this.lastSeq = seq;
+        this.lastTimestamp = timestamp;
+
+        if (result < 0)
+        {
+            handleDecodeError(result);
+            return -1;
+        }
+
+        int samples = result * OpusPacket.OPUS_CHANNEL_COUNT;
+        ((Buffer) decoded).limit(samples);
+        if (audio != null)
+            decoded.get(audio, 0, samples);
+        return samples;
+    }
+
     private void handleDecodeError(int result)
     {
         StringBuilder b = new StringBuilder("Decoder failed to decode audio from user with code ");
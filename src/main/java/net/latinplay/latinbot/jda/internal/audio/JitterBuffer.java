@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.audio;
+
+import net.latinplay.latinbot.jda.api.audio.OpusPacket;
+import net.latinplay.latinbot.jda.api.entities.User;
+
+/**
+ * Fixed-capacity ring of decoded frames of one SSRC, written by the receiving thread and read by the mixer.
+ * <br>Lock-free for exactly one producer and one consumer: the producer only moves {@code tail}, the consumer only {@code head}.
+ *
+ * <p>Frames are played in arrival order, one per mix. A frame is dropped instead of played when
+ * <ul>
+ *     <li>it arrived longer than the queue timeout ago,</li>
+ *     <li>its RTP timestamp is more than the queue timeout behind the newest received frame,
+ *         so a burst after a network stall catches up instead of adding delay,</li>
+ *     <li>or its RTP timestamp is not after the one of the previously played frame.</li>
+ * </ul>
+ * A timestamp jumping back by more than 5 seconds is taken as a restarted stream.
+ */
+public class JitterBuffer
+{
+    public static final int FRAME_LENGTH = OpusPacket.OPUS_FRAME_SIZE * OpusPacket.OPUS_CHANNEL_COUNT;
+    // RTP timestamps count samples per channel
+    private static final int SAMPLES_PER_MILLI = OpusPacket.OPUS_SAMPLE_RATE / 1000;
+    // A timestamp this far behind is taken as a restarted stream instead of an old frame
+    private static final int RESET_SAMPLES = 5000 * SAMPLES_PER_MILLI;
+
+    private final int ssrc;
+    private final int mask;
+    private final short[][] frames;
+    private final int[] lengths;
+    private final int[] timestamps;
+    private final long[] arrivals;
+
+    private volatile long head, tail;
+    private volatile int newestTimestamp;
+    private volatile User user;
+
+    // only accessed by the consumer
+    private int lastTimestamp;
+    private boolean played;
+
+    public JitterBuffer(int ssrc, int capacity)
+    {
+        capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ssrc = ssrc;
+        this.mask = capacity - 1;
+        this.frames = new short[capacity][FRAME_LENGTH];
+        this.lengths = new int[capacity];
+        this.timestamps = new int[capacity];
+        this.arrivals = new long[capacity];
+    }
+
+    public int getSSRC()
+    {
+        return ssrc;
+    }
+
+    public User getUser()
+    {
+        return user;
+    }
+
+    /* Producer */
+
+    /**
+     * The frame to decode the next packet into, only valid until {@link #commit(User, int, int)}.
+     *
+     * @return The next free frame, or null if the buffer is full
+     */
+    public short[] claim()
+    {
+        long tail = this.tail;
+        if (tail - head > mask)
+            return null;
+        return frames[(int) tail & mask];
+    }
+
+    /**
+     * Publishes the frame returned by {@link #claim()}.
+     *
+     * @param user
+     *        The user speaking
+     * @param length
+     *        The number of samples in the frame
+     * @param timestamp
+     *        The RTP timestamp of the frame
+     */
+    public void commit(User user, int length, int timestamp)
+    {
+        long tail = this.tail;
+        int slot = (int) tail & mask;
+        lengths[slot] = Math.min(length, FRAME_LENGTH);
+        timestamps[slot] = timestamp;
+        arrivals[slot] = System.currentTimeMillis();
+        this.user = user;
+        int difference = timestamp - newestTimestamp;
+        if (difference > 0 || difference < -RESET_SAMPLES || tail == 0)
+            newestTimestamp = timestamp;
+        this.tail = tail + 1;
+    }
+
+    /**
+     * Copies the audio into the buffer.
+     *
+     * @param  user
+     *         The user speaking
+     * @param  audio
+     *         The decoded audio
+     * @param  timestamp
+     *         The RTP timestamp of the frame
+     *
+     * @return False, if the buffer is full and the frame was dropped
+     */
+    public boolean offer(User user, short[] audio, int timestamp)
+    {
+        short[] frame = claim();
+        if (frame == null)
+            return false;
+        int length = Math.min(audio.length, FRAME_LENGTH);
+        System.arraycopy(audio, 0, frame, 0, length);
+        commit(user, length, timestamp);
+        return true;
+    }
+
+    /* Consumer */
+
+    /**
+     * Skips stale frames and returns the slot of the next frame to play.
+     * <br>The slot stays reserved until {@link #release()}.
+     *
+     * @param  now
+     *         The current time in milliseconds
+     * @param  timeout
+     *         The queue timeout in milliseconds
+     *
+     * @return The slot, or -1 if there is no frame to play
+     */
+    public int poll(long now, long timeout)
+    {
+        long head = this.head;
+        long tail = this.tail;
+        int newest = newestTimestamp;
+        long timeoutSamples = timeout * SAMPLES_PER_MILLI;
+        for (; head < tail; head++)
+        {
+            int slot = (int) head & mask;
+            int timestamp = timestamps[slot];
+            int behind = newest - timestamp;
+            if (now - arrivals[slot] > timeout || (behind > timeoutSamples && behind < RESET_SAMPLES))
+                continue;
+            int difference = timestamp - lastTimestamp;
+            if (played && difference <= 0 && difference > -RESET_SAMPLES)
+                continue;
+            this.head = head;
+            lastTimestamp = timestamp;
+            played = true;
+            return slot;
+        }
+        this.head = head;
+        return -1;
+    }
+
+    public short[] getFrame(int slot)
+    {
+        return frames[slot];
+    }
+
+    public int getLength(int slot)
+    {
+        return lengths[slot];
+    }
+
+    /**
+     * Frees the slot returned by the last {@link #poll(long, long)}.
+     */
+    public void release()
+    {
+        head = head + 1;
+    }
+}
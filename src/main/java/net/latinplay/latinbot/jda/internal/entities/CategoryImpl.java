@@ -39,8 +39,9 @@ public class CategoryImpl extends AbstractChannelImpl<Category, CategoryImpl> im
     @Override
     public CategoryImpl setPosition(int rawPosition)
     {
-        getGuild().getCategoriesView().clearCachedLists();
-        return super.setPosition(rawPosition);
+        super.setPosition(rawPosition);
+        getGuild().getCategoriesView().updateOrder(this);
+        return this;
     }
 
     @Override
@@ -41,6 +41,7 @@ import net.latinplay.latinbot.jda.internal.handle.EventCache;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import net.latinplay.latinbot.jda.internal.utils.UnlockHook;
 import net.latinplay.latinbot.jda.internal.utils.cache.MemberCacheViewImpl;
+import net.latinplay.latinbot.jda.internal.utils.cache.PresenceStore;
 import net.latinplay.latinbot.jda.internal.utils.cache.SnowflakeCacheViewImpl;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
@@ -135,9 +136,12 @@ public class EntityBuilder
         if (!getJDA().isCacheFlagSet(CacheFlag.EMOTE))
             return;
         SnowflakeCacheViewImpl<Emote> emoteView = guildObj.getEmotesView();
-        try (UnlockHook hook = emoteView.writeLock())
+        SnowflakeCacheViewImpl<Emote> globalView = getJDA().getEmotesView();
+        try (UnlockHook hook = emoteView.writeLock();
+             UnlockHook globalHook = globalView.writeLock())
         {
             TLongObjectMap<Emote> emoteMap = emoteView.getMap();
+            TLongObjectMap<Emote> globalMap = globalView.getMap();
             for (int i = 0; i < array.length(); i++)
             {
                 DataObject object = array.getObject(i);
@@ -147,7 +151,9 @@ public class EntityBuilder
                     continue;
                 }
                 final long emoteId = object.getLong("id");
-                emoteMap.put(emoteId, createEmote(guildObj, object, false));
+                EmoteImpl emote = createEmote(guildObj, object, false);
+                emoteMap.put(emoteId, emote);
+                globalMap.put(emoteId, emote);
             }
         }
     }
@@ -392,16 +398,20 @@ public class EntityBuilder
         if (modifyCache || userObj.isFake())
         {
             // Initial creation
+            String oldName = userObj.getName();
             userObj.setName(user.getString("username"))
                    .setDiscriminator(user.get("discriminator").toString())
                    .setAvatarId(user.getString("avatar", null))
                    .setBot(user.getBoolean("bot"));
+            if (!userObj.isFake() && !Objects.equals(oldName, userObj.getName()))
+                updateNameIndexes(userObj);
         }
         else if (!userObj.isFake())
         {
             // Fire update events
             updateUser(userObj, user);
         }
+        userObj.touch();
         if (!fake && modifyCache)
             getJDA().getEventCache().playbackCache(EventCache.Type.USER, id);
         return userObj;
@@ -421,6 +431,7 @@ public class EntityBuilder
         if (!oldName.equals(newName))
         {
             userObj.setName(newName);
+            updateNameIndexes(userObj);
             jda.handleEvent(
                 new UserUpdateNameEvent(
                     jda, responseNumber,
@@ -510,6 +521,19 @@ public class EntityBuilder
         return member;
     }
 
+    public void updateNameIndexes(UserImpl user)
+    {
+        long id = user.getIdLong();
+        getJDA().getUsersView().updateNames(id);
+        // The effective name of members without nickname is the username
+        for (long guildId : user.getMutualGuildIds())
+        {
+            GuildImpl guild = (GuildImpl) getJDA().getGuildsView().get(guildId);
+            if (guild != null)
+                guild.getMembersView().updateNames(id);
+        }
+    }
+
     private void loadMember(GuildImpl guild, DataObject memberJson, User user, MemberImpl member)
     {
         GuildVoiceStateImpl state = (GuildVoiceStateImpl) member.getVoiceState();
@@ -531,8 +555,10 @@ public class EntityBuilder
         TemporalAccessor joinedAt = DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(joinedAtRaw);
         member.setJoinDate(Instant.from(joinedAt).toEpochMilli())
             .setNickname(memberJson.getString("nick", null));
+        guild.getMembersView().updateNames(member.getUser().getIdLong());
 
         DataArray rolesJson = memberJson.getArray("roles");
+        List<Role> roles = new ArrayList<>(rolesJson.length());
         for (int k = 0; k < rolesJson.length(); k++)
         {
             final long roleId = rolesJson.getLong(k);
@@ -544,9 +570,11 @@ public class EntityBuilder
             }
             else
             {
-                member.getRoleSet().add(r);
+                roles.add(r);
             }
         }
+        member.setRoles(roles);
+        guild.getMembersView().updateRoles(member.getUser().getIdLong(), roles, Collections.emptyList());
     }
 
     public void updateMember(GuildImpl guild, MemberImpl member, DataObject content, List<Role> newRoles)
@@ -564,6 +592,7 @@ public class EntityBuilder
             if (!Objects.equals(oldNick, newNick))
             {
                 member.setNickname(newNick);
+                guild.getMembersView().updateNames(member.getUser().getIdLong());
                 getJDA().handleEvent(
                     new GuildMemberUpdateNicknameEvent(
                         getJDA(), responseNumber,
@@ -592,7 +621,8 @@ public class EntityBuilder
 
     private void updateMemberRoles(MemberImpl member, List<Role> newRoles, long responseNumber)
     {
-        Set<Role> currentRoles = member.getRoleSet();
+        List<Role> currentRoles = member.getRoles();
+        member.setRoles(newRoles);
         //Find the roles removed.
         List<Role> removedRoles = new LinkedList<>();
         each:
@@ -610,10 +640,7 @@ public class EntityBuilder
             removedRoles.add(role);
         }
 
-        if (removedRoles.size() > 0)
-            currentRoles.removeAll(removedRoles);
-        if (newRoles.size() > 0)
-            currentRoles.addAll(newRoles);
+        member.getGuild().getMembersView().updateRoles(member.getUser().getIdLong(), newRoles, removedRoles);
 
         if (removedRoles.size() > 0)
         {
@@ -668,14 +695,19 @@ public class EntityBuilder
             member.setActivities(activities);
         member.setOnlineStatus(onlineStatus);
         if (clientStatusJson != null)
+            member.setClientStatus(createClientStatus(clientStatusJson));
+    }
+
+    public static int createClientStatus(DataObject json)
+    {
+        int clientStatus = 0;
+        for (String key : json.keys())
         {
-            for (String key : clientStatusJson.keys())
-            {
-                ClientType type = ClientType.fromKey(key);
-                OnlineStatus status = OnlineStatus.fromKey(clientStatusJson.getString(key));
-                member.setOnlineStatus(type, status);
-            }
+            ClientType type = ClientType.fromKey(key);
+            OnlineStatus status = OnlineStatus.fromKey(String.valueOf(json.get(key)));
+            clientStatus = PresenceStore.setClientStatus(clientStatus, type, status);
         }
+        return clientStatus;
     }
 
     public static Activity createActivity(DataObject gameJson)
@@ -1055,6 +1087,11 @@ public class EntityBuilder
                 role = new RoleImpl(id, guild);
                 playbackCache = roleView.getMap().put(id, role) == null;
             }
+            SnowflakeCacheViewImpl<Role> globalView = getJDA().getRolesView();
+            try (UnlockHook hook = globalView.writeLock())
+            {
+                globalView.getMap().put(id, role);
+            }
         }
         final int color = roleJson.getInt("color");
         role.setName(roleJson.getString("name"))
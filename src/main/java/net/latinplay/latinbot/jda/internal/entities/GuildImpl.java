@@ -1056,7 +1056,7 @@ public class GuildImpl implements Guild
         Checks.notNull(member, "Member");
         checkGuild(member.getGuild(), "Member");
         checkPermission(Permission.MANAGE_ROLES);
-        Set<Role> currentRoles = new HashSet<>(((MemberImpl) member).getRoleSet());
+        Set<Role> currentRoles = new HashSet<>(member.getRoles());
         if (rolesToAdd != null)
         {
             checkRoles(rolesToAdd, "add", "to");
@@ -24,40 +24,51 @@ import net.latinplay.latinbot.jda.api.utils.cache.CacheFlag;
 import net.latinplay.latinbot.jda.internal.JDAImpl;
 import net.latinplay.latinbot.jda.internal.utils.Checks;
 import net.latinplay.latinbot.jda.internal.utils.PermissionUtil;
-import net.latinplay.latinbot.jda.internal.utils.cache.SnowflakeReference;
+import net.latinplay.latinbot.jda.internal.utils.cache.PresenceStore;
+import net.latinplay.latinbot.jda.internal.utils.cache.SnowflakeCacheViewImpl;
 
 import java.awt.*;
+import java.lang.ref.WeakReference;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class MemberImpl implements Member
 {
     private static final ZoneOffset OFFSET = ZoneOffset.of("+00:00");
-    private final SnowflakeReference<Guild> guild;
+    private static final long[] NO_ROLES = new long[0];
+    private static final ClientType[] CLIENT_TYPES = ClientType.values();
+    // This entity is cached for every member of every guild, so the state is kept as compact as possible
+    private final long guildId;
     private final User user;
     private final JDAImpl api;
-    private final Set<Role> roles = ConcurrentHashMap.newKeySet();
     private final GuildVoiceState voiceState;
-    private final Map<ClientType, OnlineStatus> clientStatus;
+    // Weak reference to the guild, we want to pick up the new instance when the guild is re-created
+    private WeakReference<GuildImpl> guild;
+    // Sorted role ids, replaced as a whole on updates
+    private volatile long[] roles = NO_ROLES;
+    // The presence of cached members is kept in the presence store of the guild,
+    // the fields below are only used while the member is not attached to a store
+    private volatile PresenceStore presences;
+    private int presenceSlot = -1;
+    // See PresenceStore#setClientStatus(int, ClientType, OnlineStatus)
+    private volatile int clientStatus;
+    private volatile List<Activity> activities = null;
+    private volatile OnlineStatus onlineStatus = OnlineStatus.OFFLINE;
 
     private String nickname;
     private long joinDate, boostDate;
-    private List<Activity> activities = null;
-    private OnlineStatus onlineStatus = OnlineStatus.OFFLINE;
 
     public MemberImpl(GuildImpl guild, User user)
     {
         this.api = (JDAImpl) user.getJDA();
-        this.guild = new SnowflakeReference<>(guild, api::getGuildById);
+        this.guildId = guild.getIdLong();
+        this.guild = new WeakReference<>(guild);
         this.user = user;
         boolean cacheState = api.isCacheFlagSet(CacheFlag.VOICE_STATE) || user.equals(api.getSelfUser());
-        boolean cacheOnline = api.isCacheFlagSet(CacheFlag.CLIENT_STATUS);
         this.voiceState = cacheState ? new GuildVoiceStateImpl(this) : null;
-        this.clientStatus = cacheOnline ? Collections.synchronizedMap(new EnumMap<>(ClientType.class)) : null;
     }
 
     
@@ -71,7 +82,15 @@ public class MemberImpl implements Member
     @Override
     public GuildImpl getGuild()
     {
-        return (GuildImpl) guild.resolve();
+        GuildImpl referent = guild.get();
+        if (referent == null)
+        {
+            referent = (GuildImpl) api.getGuildById(guildId);
+            if (referent == null)
+                throw new IllegalStateException("Cannot get reference as it has already been Garbage Collected");
+            guild = new WeakReference<>(referent);
+        }
+        return referent;
     }
 
     
@@ -105,14 +124,21 @@ public class MemberImpl implements Member
     @Override
     public List<Activity> getActivities()
     {
-        return activities == null || activities.isEmpty() ? Collections.emptyList() : activities;
+        PresenceStore store = presences;
+        List<Activity> activities = store == null ? null : store.getActivities(presenceSlot, getIdLong());
+        if (activities != null)
+            return activities;
+        activities = this.activities;
+        return activities == null ? Collections.emptyList() : activities;
     }
 
     
     @Override
     public OnlineStatus getOnlineStatus()
     {
-        return onlineStatus;
+        PresenceStore store = presences;
+        OnlineStatus status = store == null ? null : store.getOnlineStatus(presenceSlot, getIdLong());
+        return status == null ? onlineStatus : status;
     }
 
     
@@ -120,19 +146,21 @@ public class MemberImpl implements Member
     public OnlineStatus getOnlineStatus( ClientType type)
     {
         Checks.notNull(type, "Type");
-        if (this.clientStatus == null || this.clientStatus.isEmpty())
-            return OnlineStatus.OFFLINE;
-        OnlineStatus status = this.clientStatus.get(type);
-        return status == null ? OnlineStatus.OFFLINE : status;
+        return PresenceStore.getClientStatus(getClientStatus(), type);
     }
 
     
     @Override
     public EnumSet<ClientType> getActiveClients()
     {
-        if (clientStatus == null || clientStatus.isEmpty())
-            return EnumSet.noneOf(ClientType.class);
-        return EnumSet.copyOf(clientStatus.keySet());
+        EnumSet<ClientType> clients = EnumSet.noneOf(ClientType.class);
+        int status = getClientStatus();
+        for (int i = 0; status != 0; i++, status >>>= 4)
+        {
+            if ((status & 0xF) != 0)
+                clients.add(CLIENT_TYPES[i]);
+        }
+        return clients;
     }
 
     @Override
@@ -152,7 +180,17 @@ public class MemberImpl implements Member
     @Override
     public List<Role> getRoles()
     {
-        List<Role> roleList = new ArrayList<>(roles);
+        long[] roleIds = roles;
+        if (roleIds.length == 0)
+            return Collections.emptyList();
+        SnowflakeCacheViewImpl<Role> roleView = getGuild().getRolesView();
+        List<Role> roleList = new ArrayList<>(roleIds.length);
+        for (long id : roleIds)
+        {
+            Role role = roleView.get(id);
+            if (role != null)
+                roleList.add(role);
+        }
         roleList.sort(Comparator.reverseOrder());
 
         return Collections.unmodifiableList(roleList);
@@ -291,32 +329,105 @@ public class MemberImpl implements Member
         return this;
     }
 
-    public MemberImpl setActivities(List<Activity> activities)
+    public synchronized MemberImpl setActivities(List<Activity> activities)
     {
-        this.activities = Collections.unmodifiableList(activities);
+        PresenceStore store = presences;
+        if (store == null || !store.setActivities(presenceSlot, getIdLong(), activities))
+            this.activities = activities.isEmpty() ? null : Collections.unmodifiableList(activities);
         return this;
     }
 
-    public MemberImpl setOnlineStatus(ClientType type, OnlineStatus status)
+    public synchronized MemberImpl setClientStatus(int clientStatus)
     {
-        if (this.clientStatus == null || type == ClientType.UNKNOWN || type == null)
+        if (!api.isCacheFlagSet(CacheFlag.CLIENT_STATUS))
             return this;
-        if (status == null || status == OnlineStatus.UNKNOWN || status == OnlineStatus.OFFLINE)
-            this.clientStatus.remove(type);
-        else
-            this.clientStatus.put(type, status);
+        PresenceStore store = presences;
+        if (store == null || !store.setClientStatus(presenceSlot, getIdLong(), clientStatus))
+            this.clientStatus = clientStatus;
+        return this;
+    }
+
+    public synchronized MemberImpl setOnlineStatus(OnlineStatus onlineStatus)
+    {
+        PresenceStore store = presences;
+        if (store == null || !store.setOnlineStatus(presenceSlot, getIdLong(), onlineStatus))
+            this.onlineStatus = onlineStatus;
         return this;
     }
 
-    public MemberImpl setOnlineStatus(OnlineStatus onlineStatus)
+    public synchronized void attachPresence(PresenceStore store)
+    {
+        if (presences == store)
+            return;
+        detachPresence();
+        presenceSlot = store.attach(this, onlineStatus, clientStatus, activities);
+        presences = store;
+        // the store holds the state now
+        activities = null;
+        clientStatus = 0;
+        onlineStatus = OnlineStatus.OFFLINE;
+    }
+
+    public synchronized void detachPresence()
+    {
+        PresenceStore store = presences;
+        if (store == null)
+            return;
+        // keep the last known presence, this member might still be used by events
+        long id = getIdLong();
+        List<Activity> activities = store.getActivities(presenceSlot, id);
+        OnlineStatus status = store.getOnlineStatus(presenceSlot, id);
+        this.activities = activities == null || activities.isEmpty() ? null : activities;
+        this.clientStatus = Math.max(0, store.getClientStatus(presenceSlot, id));
+        this.onlineStatus = status == null ? OnlineStatus.OFFLINE : status;
+        presences = null;
+        store.detach(presenceSlot, id);
+        presenceSlot = -1;
+    }
+
+    private int getClientStatus()
     {
-        this.onlineStatus = onlineStatus;
+        PresenceStore store = presences;
+        int status = store == null ? -1 : store.getClientStatus(presenceSlot, getIdLong());
+        return status < 0 ? clientStatus : status;
+    }
+
+    public synchronized MemberImpl setRoles(Collection<? extends Role> roles)
+    {
+        long[] roleIds = new long[roles.size()];
+        int i = 0;
+        for (Role role : roles)
+            roleIds[i++] = role.getIdLong();
+        Arrays.sort(roleIds);
+        this.roles = roleIds;
         return this;
     }
 
-    public Set<Role> getRoleSet()
+    public synchronized void removeRole(long roleId)
+    {
+        long[] roleIds = roles;
+        int index = Arrays.binarySearch(roleIds, roleId);
+        if (index < 0)
+            return;
+        long[] updated = new long[roleIds.length - 1];
+        System.arraycopy(roleIds, 0, updated, 0, index);
+        System.arraycopy(roleIds, index + 1, updated, index, updated.length - index);
+        this.roles = updated;
+    }
+
+    public long getGuildIdLong()
+    {
+        return guildId;
+    }
+
+    public long[] getRoleIds()
+    {
+        return roles.clone();
+    }
+
+    public boolean hasRole(long roleId)
     {
-        return roles;
+        return Arrays.binarySearch(roles, roleId) >= 0;
     }
 
     public long getBoostDateRaw()
@@ -340,13 +451,13 @@ public class MemberImpl implements Member
 
         MemberImpl oMember = (MemberImpl) o;
         return oMember.user.getIdLong() == user.getIdLong()
-            && oMember.guild.getIdLong() == guild.getIdLong();
+            && oMember.guildId == guildId;
     }
 
     @Override
     public int hashCode()
     {
-        return (guild.getIdLong() + user.getId()).hashCode();
+        return (guildId + user.getId()).hashCode();
     }
 
     @Override
@@ -33,8 +33,9 @@ public class StoreChannelImpl extends AbstractChannelImpl<StoreChannel, StoreCha
     @Override
     public StoreChannelImpl setPosition(int rawPosition)
     {
-        getGuild().getStoreChannelView().clearCachedLists();
-        return super.setPosition(rawPosition);
+        super.setPosition(rawPosition);
+        getGuild().getStoreChannelView().updateOrder(this);
+        return this;
     }
 
 
@@ -60,8 +60,9 @@ public class TextChannelImpl extends AbstractChannelImpl<TextChannel, TextChanne
     @Override
     public TextChannelImpl setPosition(int rawPosition)
     {
-        getGuild().getTextChannelsView().clearCachedLists();
-        return super.setPosition(rawPosition);
+        super.setPosition(rawPosition);
+        getGuild().getTextChannelsView().updateOrder(this);
+        return this;
     }
 
 
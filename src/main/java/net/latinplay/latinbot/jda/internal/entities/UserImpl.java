@@ -27,12 +27,15 @@ import net.latinplay.latinbot.jda.internal.requests.DeferredRestAction;
 import net.latinplay.latinbot.jda.internal.requests.RestActionImpl;
 import net.latinplay.latinbot.jda.internal.requests.Route;
 
+import java.util.Arrays;
 import java.util.FormattableFlags;
 import java.util.Formatter;
 import java.util.List;
 
 public class UserImpl implements User
 {
+    private static final long[] NO_GUILDS = new long[0];
+
     protected final long id;
     protected final JDAImpl api;
 
@@ -42,6 +45,10 @@ public class UserImpl implements User
     protected PrivateChannel privateChannel;
     protected boolean bot;
     protected boolean fake = false;
+    // Only used to pick users for eviction, races between updates are harmless
+    protected long lastAccess = System.currentTimeMillis();
+    // Sorted ids of the guilds this user is a cached member of, maintained by the member caches
+    private volatile long[] mutualGuilds = NO_GUILDS;
 
     public UserImpl(long id, JDAImpl api)
     {
@@ -213,6 +220,52 @@ public class UserImpl implements User
         return this;
     }
 
+    public void touch()
+    {
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public long getLastAccess()
+    {
+        return lastAccess;
+    }
+
+    public synchronized void addMutualGuild(long guildId)
+    {
+        long[] guildIds = mutualGuilds;
+        int index = Arrays.binarySearch(guildIds, guildId);
+        if (index >= 0)
+            return;
+        index = -index - 1;
+        long[] updated = new long[guildIds.length + 1];
+        System.arraycopy(guildIds, 0, updated, 0, index);
+        updated[index] = guildId;
+        System.arraycopy(guildIds, index, updated, index + 1, guildIds.length - index);
+        this.mutualGuilds = updated;
+    }
+
+    public synchronized void removeMutualGuild(long guildId)
+    {
+        long[] guildIds = mutualGuilds;
+        int index = Arrays.binarySearch(guildIds, guildId);
+        if (index < 0)
+            return;
+        long[] updated = guildIds.length == 1 ? NO_GUILDS : new long[guildIds.length - 1];
+        System.arraycopy(guildIds, 0, updated, 0, index);
+        System.arraycopy(guildIds, index + 1, updated, index, updated.length - index);
+        this.mutualGuilds = updated;
+    }
+
+    public long[] getMutualGuildIds()
+    {
+        return mutualGuilds.clone();
+    }
+
+    public boolean hasMutualGuilds()
+    {
+        return mutualGuilds.length > 0;
+    }
+
     @Override
     public void formatTo(Formatter formatter, int flags, int width, int precision)
     {
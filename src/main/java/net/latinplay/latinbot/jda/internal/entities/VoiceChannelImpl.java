@@ -40,8 +40,9 @@ public class VoiceChannelImpl extends AbstractChannelImpl<VoiceChannel, VoiceCha
     @Override
     public VoiceChannelImpl setPosition(int rawPosition)
     {
-        getGuild().getVoiceChannelsView().clearCachedLists();
-        return super.setPosition(rawPosition);
+        super.setPosition(rawPosition);
+        getGuild().getVoiceChannelsView().updateOrder(this);
+        return this;
     }
 
     @Override
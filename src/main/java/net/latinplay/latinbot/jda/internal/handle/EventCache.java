@@ -15,7 +15,6 @@
  */
 package net.latinplay.latinbot.jda.internal.handle;
 
-import gnu.trove.iterator.TLongObjectIterator;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import net.latinplay.latinbot.jda.api.utils.data.DataObject;
@@ -23,112 +22,81 @@ import net.latinplay.latinbot.jda.internal.utils.CacheConsumer;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import org.slf4j.Logger;
 
-import java.util.EnumMap;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Cache for events that arrived before the entity they refer to.
+ *
+ * <p>Each {@link Type} has its own shard with its own lock, so caching and replaying of unrelated events do not contend.
+ * Besides the events per trigger id, every shard keeps its events in buckets of {@link #TIMEOUT_AMOUNT} sequence numbers,
+ * ordered by sequence. Expiring events only has to look at the oldest buckets,
+ * events that were replayed or cleared before are only marked as removed and skipped once their bucket expires.
+ */
 public class EventCache
 {
     public static final Logger LOG = JDALogger.getLog(EventCache.class);
     /** Sequence difference after which events will be removed from cache */
     public static final long TIMEOUT_AMOUNT = 100;
-    private final EnumMap<Type, TLongObjectMap<List<CacheNode>>> eventCache = new EnumMap<>(Type.class);
+    private static final Type[] TYPES = Type.values();
+    private final Shard[] shards = new Shard[TYPES.length];
     private final boolean cacheUsers;
 
     public EventCache(boolean cacheUsers)
     {
         this.cacheUsers = cacheUsers;
+        for (Type type : TYPES)
+            shards[type.ordinal()] = new Shard(type);
     }
 
-    public synchronized void timeout(final long responseTotal)
+    public void timeout(final long responseTotal)
     {
-        if (eventCache.isEmpty())
-            return;
-        AtomicInteger count = new AtomicInteger();
-        eventCache.forEach((type, map) ->
-        {
-            if (map.isEmpty())
-                return;
-            TLongObjectIterator<List<CacheNode>> iterator = map.iterator();
-            while (iterator.hasNext())
-            {
-                iterator.advance();
-                long triggerId = iterator.key();
-                List<CacheNode> cache = iterator.value();
-                //Remove when this node is more than 100 events ago
-                cache.removeIf(node ->
-                {
-                    boolean remove = responseTotal - node.responseTotal > TIMEOUT_AMOUNT;
-                    if (remove)
-                    {
-                        count.incrementAndGet();
-                        LOG.trace("Removing type {}/{} from event cache with payload {}", type, triggerId, node.event);
-                    }
-                    return remove;
-                });
-                if (cache.isEmpty())
-                    iterator.remove();
-            }
-        });
-        int amount = count.get();
+        int amount = 0;
+        for (Shard shard : shards)
+            amount += shard.timeout(responseTotal);
         if (amount > 0)
             LOG.debug("Removed {} events from cache that were too old to be recycled", amount);
     }
 
-    public synchronized void cache(Type type, long triggerId, long responseTotal, DataObject event, CacheConsumer handler)
+    public void cache(Type type, long triggerId, long responseTotal, DataObject event, CacheConsumer handler)
     {
         if (type == Type.USER && !cacheUsers)
             return;
-        TLongObjectMap<List<CacheNode>> triggerCache =
-                eventCache.computeIfAbsent(type, k -> new TLongObjectHashMap<>());
-
-        List<CacheNode> items = triggerCache.get(triggerId);
-        if (items == null)
-        {
-            items = new LinkedList<>();
-            triggerCache.put(triggerId, items);
-        }
-
-        items.add(new CacheNode(responseTotal, event, handler));
+        shards[type.ordinal()].cache(triggerId, new CacheNode(triggerId, responseTotal, event, handler));
     }
 
-    public synchronized void playbackCache(Type type, long triggerId)
+    public void playbackCache(Type type, long triggerId)
     {
-        TLongObjectMap<List<CacheNode>> typeCache = this.eventCache.get(type);
-        if (typeCache == null)
-            return;
-
-        List<CacheNode> items = typeCache.remove(triggerId);
+        List<CacheNode> items = shards[type.ordinal()].remove(triggerId);
         if (items != null && !items.isEmpty())
         {
             EventCache.LOG.debug("Replaying {} events from the EventCache for type {} with id: {}",
                 items.size(), type, triggerId);
+            // The lock is not held here, handlers are free to cache the event again
             for (CacheNode item : items)
                 item.execute();
         }
     }
 
-    public synchronized int size()
+    public int size()
     {
-        return (int) eventCache.values().stream()
-                .mapToLong(typeMap ->
-                    typeMap.valueCollection().stream().mapToLong(List::size).sum())
-                .sum();
+        int size = 0;
+        for (Shard shard : shards)
+            size += shard.size();
+        return size;
     }
 
-    public synchronized void clear()
+    public void clear()
     {
-        eventCache.clear();
+        for (Shard shard : shards)
+            shard.clear();
     }
 
-    public synchronized void clear(Type type, long id)
+    public void clear(Type type, long id)
     {
-        TLongObjectMap<List<CacheNode>> typeCache = this.eventCache.get(type);
-        if (typeCache == null)
-            return;
-
-        List<CacheNode> events = typeCache.remove(id);
+        List<CacheNode> events = shards[type.ordinal()].remove(id);
         if (events != null)
             LOG.debug("Clearing cache for type {} with ID {} (Size: {})", type, id, events.size());
     }
@@ -138,14 +106,162 @@ public class EventCache
         USER, MEMBER, GUILD, CHANNEL, ROLE, RELATIONSHIP, CALL
     }
 
-    private class CacheNode
+    private static class Shard
+    {
+        private final Type type;
+        // Trigger ID -> Events in order of arrival
+        private final TLongObjectMap<ArrayDeque<CacheNode>> triggers = new TLongObjectHashMap<>();
+        // Buckets of TIMEOUT_AMOUNT sequence numbers, oldest first
+        private final ArrayDeque<Bucket> buckets = new ArrayDeque<>();
+        private int size;
+
+        private Shard(Type type)
+        {
+            this.type = type;
+        }
+
+        private synchronized void cache(long triggerId, CacheNode node)
+        {
+            ArrayDeque<CacheNode> items = triggers.get(triggerId);
+            if (items == null)
+            {
+                items = new ArrayDeque<>(4);
+                triggers.put(triggerId, items);
+            }
+            items.add(node);
+            bucket(node.responseTotal / TIMEOUT_AMOUNT).nodes.add(node);
+            size++;
+        }
+
+        private synchronized List<CacheNode> remove(long triggerId)
+        {
+            ArrayDeque<CacheNode> items = triggers.remove(triggerId);
+            if (items == null)
+                return null;
+            List<CacheNode> removed = new ArrayList<>(items.size());
+            for (CacheNode node : items)
+            {
+                // expired nodes are still in the trigger queue until they reach its head
+                if (!node.removed)
+                {
+                    node.removed = true;
+                    removed.add(node);
+                }
+            }
+            size -= removed.size();
+            return removed;
+        }
+
+        private synchronized int timeout(long responseTotal)
+        {
+            int count = 0;
+            // Remove when this node is more than 100 events ago, this only looks at the buckets that can contain such nodes
+            while (!buckets.isEmpty() && responseTotal - (buckets.peekFirst().index + 1) * TIMEOUT_AMOUNT >= TIMEOUT_AMOUNT)
+            {
+                for (CacheNode node : buckets.pollFirst().nodes)
+                {
+                    if (expire(node))
+                        count++;
+                }
+            }
+            Bucket first = buckets.peekFirst();
+            if (first != null && responseTotal - first.index * TIMEOUT_AMOUNT > TIMEOUT_AMOUNT)
+            {
+                // partially expired bucket, only happens if timeout is not called on a multiple of TIMEOUT_AMOUNT
+                for (Iterator<CacheNode> it = first.nodes.iterator(); it.hasNext(); )
+                {
+                    CacheNode node = it.next();
+                    if (responseTotal - node.responseTotal > TIMEOUT_AMOUNT)
+                    {
+                        it.remove();
+                        if (expire(node))
+                            count++;
+                    }
+                }
+            }
+            size -= count;
+            return count;
+        }
+
+        private boolean expire(CacheNode node)
+        {
+            if (node.removed)
+                return false;
+            node.removed = true;
+            LOG.trace("Removing type {}/{} from event cache with payload {}", type, node.triggerId, node.event);
+            ArrayDeque<CacheNode> items = triggers.get(node.triggerId);
+            if (items != null)
+            {
+                while (!items.isEmpty() && items.peekFirst().removed)
+                    items.pollFirst();
+                if (items.isEmpty())
+                    triggers.remove(node.triggerId);
+            }
+            return true;
+        }
+
+        private Bucket bucket(long index)
+        {
+            Bucket last = buckets.peekLast();
+            if (last == null || last.index < index)
+            {
+                last = new Bucket(index);
+                buckets.addLast(last);
+                return last;
+            }
+            // Events are cached in sequence order, except for replays which are cached again with their old sequence.
+            // These go into the oldest bucket that does not expire before them.
+            for (Iterator<Bucket> it = buckets.descendingIterator(); it.hasNext(); )
+            {
+                Bucket bucket = it.next();
+                if (bucket.index < index)
+                    break;
+                last = bucket;
+            }
+            return last;
+        }
+
+        private synchronized int size()
+        {
+            return size;
+        }
+
+        private synchronized void clear()
+        {
+            triggers.forEachValue(items ->
+            {
+                items.forEach(node -> node.removed = true);
+                return true;
+            });
+            triggers.clear();
+            buckets.clear();
+            size = 0;
+        }
+    }
+
+    private static class Bucket
+    {
+        private final long index;
+        private final List<CacheNode> nodes = new ArrayList<>();
+
+        private Bucket(long index)
+        {
+            this.index = index;
+        }
+    }
+
+    private static class CacheNode
     {
+        private final long triggerId;
         private final long responseTotal;
         private final DataObject event;
         private final CacheConsumer callback;
+        // guarded by the lock of the shard
+        private boolean removed;
 
-        public CacheNode(long responseTotal, DataObject event, CacheConsumer callback)
+        public CacheNode(long triggerId, long responseTotal, DataObject event, CacheConsumer callback)
         {
+            this.triggerId = triggerId;
             this.responseTotal = responseTotal;
             this.event = event;
             this.callback = callback;
@@ -70,6 +70,8 @@ public class GuildDeleteHandler extends SocketHandler
         SnowflakeCacheViewImpl<TextChannel> textView = getJDA().getTextChannelsView();
         SnowflakeCacheViewImpl<VoiceChannel> voiceView = getJDA().getVoiceChannelsView();
         SnowflakeCacheViewImpl<Category> categoryView = getJDA().getCategoriesView();
+        SnowflakeCacheViewImpl<Role> roleView = getJDA().getRolesView();
+        SnowflakeCacheViewImpl<Emote> emoteView = getJDA().getEmotesView();
         guildView.remove(id);
         try (UnlockHook hook = storeView.writeLock())
         {
@@ -91,6 +93,16 @@ public class GuildDeleteHandler extends SocketHandler
             guild.getCategoryCache()
                  .forEachUnordered(chan -> categoryView.getMap().remove(chan.getIdLong()));
         }
+        try (UnlockHook hook = roleView.writeLock())
+        {
+            guild.getRoleCache()
+                 .forEachUnordered(role -> roleView.getMap().remove(role.getIdLong()));
+        }
+        try (UnlockHook hook = emoteView.writeLock())
+        {
+            guild.getEmoteCache()
+                 .forEachUnordered(emote -> emoteView.getMap().remove(emote.getIdLong()));
+        }
 
         // Clear audio connection
         getJDA().getClient().removeAudioConnection(id);
@@ -61,9 +61,12 @@ public class GuildEmojisUpdateHandler extends SocketHandler
         DataArray array = content.getArray("emojis");
         List<Emote> oldEmotes, newEmotes;
         SnowflakeCacheViewImpl<Emote> emoteView = guild.getEmotesView();
-        try (UnlockHook hook = emoteView.writeLock())
+        SnowflakeCacheViewImpl<Emote> globalView = getJDA().getEmotesView();
+        try (UnlockHook hook = emoteView.writeLock();
+             UnlockHook globalHook = globalView.writeLock())
         {
             TLongObjectMap<Emote> emoteMap = emoteView.getMap();
+            TLongObjectMap<Emote> globalMap = globalView.getMap();
             oldEmotes = new ArrayList<>(emoteMap.valueCollection()); //snapshot of emote cache
             newEmotes = new ArrayList<>();
             for (int i = 0; i < array.length(); i++)
@@ -111,11 +114,15 @@ public class GuildEmojisUpdateHandler extends SocketHandler
 
                 // finally, update the emote
                 emoteMap.put(emote.getIdLong(), emote);
+                globalMap.put(emote.getIdLong(), emote);
                 // check for updated fields and fire events
                 handleReplace(oldEmote, emote);
             }
             for (Emote e : oldEmotes)
+            {
                 emoteMap.remove(e.getIdLong());
+                globalMap.remove(e.getIdLong());
+            }
         }
         //cleanup old emotes that don't exist anymore
         for (Emote e : oldEmotes)
@@ -49,6 +49,7 @@ public class GuildRoleDeleteHandler extends SocketHandler
 
         final long roleId = content.getLong("role_id");
         Role removedRole = guild.getRolesView().remove(roleId);
+        getJDA().getRolesView().remove(roleId);
         if (removedRole == null)
         {
             //getJDA().getEventCache().cache(EventCache.Type.ROLE, roleId, () -> handle(responseNumber, allContent));
@@ -57,11 +58,8 @@ public class GuildRoleDeleteHandler extends SocketHandler
         }
 
         //Now that the role is removed from the Guild, remove it from all users and emotes.
-        guild.getMembersView().forEach(m ->
-        {
-            MemberImpl member = (MemberImpl) m;
-            member.getRoleSet().remove(removedRole);
-        });
+        guild.getMembersView().forEach(m -> ((MemberImpl) m).removeRole(roleId));
+        guild.getMembersView().removeRole(roleId);
 
         for (Emote emote : guild.getEmoteCache())
         {
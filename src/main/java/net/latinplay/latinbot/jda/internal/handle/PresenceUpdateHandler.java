@@ -17,7 +17,6 @@ package net.latinplay.latinbot.jda.internal.handle;
 
 import net.latinplay.latinbot.jda.api.OnlineStatus;
 import net.latinplay.latinbot.jda.api.entities.Activity;
-import net.latinplay.latinbot.jda.api.entities.ClientType;
 import net.latinplay.latinbot.jda.api.events.user.UserActivityEndEvent;
 import net.latinplay.latinbot.jda.api.events.user.UserActivityStartEvent;
 import net.latinplay.latinbot.jda.api.events.user.update.UserUpdateActivityOrderEvent;
@@ -35,7 +34,6 @@ import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
 
 public class PresenceUpdateHandler extends SocketHandler
@@ -94,7 +92,7 @@ public class PresenceUpdateHandler extends SocketHandler
         // This is stored in the Member objects.
         //We set the activities to null to prevent parsing if the cache was disabled
         final DataArray activityArray = !getJDA().isCacheFlagSet(CacheFlag.ACTIVITY) || content.isNull("activities") ? null : content.getArray("activities");
-        List<Activity> newActivities = new ArrayList<>();
+        List<Activity> newActivities = activityArray == null ? null : new ArrayList<>(activityArray.length());
         boolean parsedActivity = parseActivities(userId, activityArray, newActivities);
 
         MemberImpl member = (MemberImpl) guild.getMember(user);
@@ -109,8 +107,9 @@ public class PresenceUpdateHandler extends SocketHandler
             member = createMember(content, guildId, guild, jsonUser);
         }
 
+        // Presences are stored in place, this replaces the status of all clients that are missing in the payload with offline
         if (getJDA().isCacheFlagSet(CacheFlag.CLIENT_STATUS) && !content.isNull("client_status"))
-            handleClientStatus(content, member);
+            member.setClientStatus(EntityBuilder.createClientStatus(content.getObject("client_status")));
 
         // Check if activities changed
         if (parsedActivity)
@@ -215,20 +214,4 @@ public class PresenceUpdateHandler extends SocketHandler
             }
         }
     }
-
-    private void handleClientStatus(DataObject content, MemberImpl member)
-    {
-        DataObject json = content.getObject("client_status");
-        EnumSet<ClientType> types = EnumSet.of(ClientType.UNKNOWN);
-        for (String key : json.keys())
-        {
-            ClientType type = ClientType.fromKey(key);
-            types.add(type);
-            String raw = String.valueOf(json.get(key));
-            OnlineStatus clientStatus = OnlineStatus.fromKey(raw);
-            member.setOnlineStatus(type, clientStatus);
-        }
-        for (ClientType type : EnumSet.complementOf(types))
-            member.setOnlineStatus(type, null); // set remaining types to offline
-    }
 }
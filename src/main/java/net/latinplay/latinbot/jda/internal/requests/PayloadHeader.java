@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.requests;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.latinplay.latinbot.jda.api.exceptions.ParsingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The routing information of a gateway payload ({@code op}, {@code s}, {@code t} and {@code d.guild_id}).
+ * <br>This is read with a streaming parser so we can decide whether a payload is relevant
+ * before building the full {@link net.latinplay.latinbot.jda.api.utils.data.DataObject DataObject} tree.
+ */
+public class PayloadHeader
+{
+    private static final JsonFactory factory = new JsonFactory();
+
+    private int op = -1;
+    private int sequence = -1;
+    private String type;
+    private long guildId;
+
+    private PayloadHeader() {}
+
+    public static PayloadHeader scan(InputStream stream)
+    {
+        try (JsonParser parser = factory.createParser(stream))
+        {
+            return scan(parser);
+        }
+        catch (IOException ex)
+        {
+            throw new ParsingException(ex);
+        }
+    }
+
+    public static PayloadHeader scan(String json)
+    {
+        try (JsonParser parser = factory.createParser(json))
+        {
+            return scan(parser);
+        }
+        catch (IOException ex)
+        {
+            throw new ParsingException(ex);
+        }
+    }
+
+    private static PayloadHeader scan(JsonParser parser) throws IOException
+    {
+        PayloadHeader header = new PayloadHeader();
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+            throw new ParsingException("Expected payload to be a JSON object");
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field)
+            {
+                case "op":
+                    if (value == JsonToken.VALUE_NUMBER_INT)
+                        header.op = parser.getIntValue();
+                    break;
+                case "s":
+                    if (value == JsonToken.VALUE_NUMBER_INT)
+                        header.sequence = parser.getIntValue();
+                    break;
+                case "t":
+                    header.type = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    break;
+                case "d":
+                    if (value == JsonToken.START_OBJECT)
+                        header.guildId = scanGuildId(parser);
+                    else
+                        parser.skipChildren();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return header;
+    }
+
+    private static long scanGuildId(JsonParser parser) throws IOException
+    {
+        long guildId = 0L;
+        // only the direct children of d are relevant, nested objects are skipped entirely
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("guild_id") && value != JsonToken.VALUE_NULL)
+                guildId = parser.getValueAsLong(0L);
+            else
+                parser.skipChildren();
+        }
+        return guildId;
+    }
+
+    public int getOpCode()
+    {
+        return op;
+    }
+
+    public boolean hasSequence()
+    {
+        return sequence >= 0;
+    }
+
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    public String getType()
+    {
+        return type;
+    }
+
+    public long getGuildId()
+    {
+        return guildId;
+    }
+}
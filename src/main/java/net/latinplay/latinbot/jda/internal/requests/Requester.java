@@ -27,6 +27,8 @@ import net.latinplay.latinbot.jda.internal.requests.ratelimit.ClientRateLimiter;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import net.latinplay.latinbot.jda.internal.utils.config.AuthorizationConfig;
 import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -35,6 +37,7 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
+import java.io.IOException;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.util.Collections;
@@ -42,6 +45,8 @@ import java.util.LinkedHashSet;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class Requester
 {
@@ -51,6 +56,12 @@ public class Requester
     public static final RequestBody EMPTY_BODY = RequestBody.create(null, new byte[0]);
     public static final MediaType MEDIA_TYPE_JSON  = MediaType.parse("application/json; charset=utf-8");
     public static final MediaType MEDIA_TYPE_OCTET = MediaType.parse("application/octet-stream; charset=utf-8");
+    // Headers which are the same for every request, the authorization header is added per instance
+    private static final Headers DEFAULT_HEADERS = new Headers.Builder()
+            .add("X-RateLimit-Precision", "millisecond")
+            .add("user-agent", USER_AGENT)
+            .add("accept-encoding", "gzip")
+            .build();
 
     protected final JDAImpl api;
     protected final AuthorizationConfig authConfig;
@@ -63,6 +74,7 @@ public class Requester
     private ConcurrentMap<String, String> contextMap = null;
 
     private volatile boolean retryOnTimeout = false;
+    private volatile Headers authorizedHeaders = null;
 
     public Requester(JDA api)
     {
@@ -111,7 +123,7 @@ public class Requester
         if (apiRequest.shouldQueue())
             rateLimiter.queueRequest(apiRequest);
         else
-            execute(apiRequest, true);
+            execute(apiRequest, true, retryAfter -> {});
     }
 
     private static boolean isRetry(Throwable e)
@@ -154,36 +166,8 @@ public class Requester
             return retryAfter;
         }
 
-        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
-
         String url = DISCORD_API_PREFIX + route.getCompiledRoute();
-        builder.url(url);
-
-        String method = apiRequest.getRoute().getMethod().toString();
-        RequestBody body = apiRequest.getBody();
-
-        if (body == null && HttpMethod.requiresRequestBody(method))
-            body = EMPTY_BODY;
-
-        builder.method(method, body)
-                .header("X-RateLimit-Precision", "millisecond")
-                .header("user-agent", USER_AGENT)
-                .header("accept-encoding", "gzip");
-
-        //adding token to all requests to the discord api or cdn pages
-        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
-        if (url.startsWith(DISCORD_API_PREFIX))
-            builder.header("authorization", api.getToken());
-
-        // Apply custom headers like X-Audit-Log-Reason
-        // If customHeaders is null this does nothing
-        if (apiRequest.getHeaders() != null)
-        {
-            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
-                builder.addHeader(header.getKey(), header.getValue());
-        }
-
-        okhttp3.Request request = builder.build();
+        okhttp3.Request request = createRequest(apiRequest, url);
 
         Set<String> rays = new LinkedHashSet<>();
         okhttp3.Response[] responses = new okhttp3.Response[4];
@@ -269,6 +253,72 @@ public class Requester
         }
     }
 
+    /**
+     * Used to execute a Request without blocking the calling thread.
+     * <br>The request is sent with {@link Call#enqueue(Callback)} and server errors are retried on the rate-limit pool
+     * instead of sleeping in between attempts.
+     *
+     * @param  apiRequest
+     *         The API request that needs to be sent
+     * @param  handleOnRatelimit
+     *         Whether to forward rate-limits, false if rate limit handling should take over
+     * @param  whenDone
+     *         Called once the response was handled, with the same value {@link #execute(Request, boolean, boolean)} would return
+     */
+    public void execute(Request<?> apiRequest, boolean handleOnRatelimit, Consumer<? super Long> whenDone)
+    {
+        Route.CompiledRoute route = apiRequest.getRoute();
+        Long retryAfter = rateLimiter.getRateLimit(route);
+        if (retryAfter != null && retryAfter > 0)
+        {
+            if (handleOnRatelimit)
+                apiRequest.handleResponse(new Response(retryAfter, Collections.emptySet()));
+            whenDone.accept(retryAfter);
+            return;
+        }
+
+        String url = DISCORD_API_PREFIX + route.getCompiledRoute();
+        LOG.trace("Enqueueing request {} {}", route.getMethod(), url);
+        new AsyncCall(apiRequest, createRequest(apiRequest, url), handleOnRatelimit, whenDone).enqueue();
+    }
+
+    private okhttp3.Request createRequest(Request<?> apiRequest, String url)
+    {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
+        builder.url(url);
+
+        String method = apiRequest.getRoute().getMethod().toString();
+        RequestBody body = apiRequest.getBody();
+
+        if (body == null && HttpMethod.requiresRequestBody(method))
+            body = EMPTY_BODY;
+
+        //adding token to all requests to the discord api or cdn pages
+        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
+        builder.method(method, body)
+               .headers(url.startsWith(DISCORD_API_PREFIX) ? getAuthorizedHeaders() : DEFAULT_HEADERS);
+
+        // Apply custom headers like X-Audit-Log-Reason
+        // If customHeaders is null this does nothing
+        if (apiRequest.getHeaders() != null)
+        {
+            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
+                builder.addHeader(header.getKey(), header.getValue());
+        }
+
+        return builder.build();
+    }
+
+    private Headers getAuthorizedHeaders()
+    {
+        // The header block is only built again if the token changes
+        String token = api.getToken();
+        Headers headers = authorizedHeaders;
+        if (headers == null || !token.equals(headers.get("authorization")))
+            authorizedHeaders = headers = DEFAULT_HEADERS.newBuilder().add("authorization", token).build();
+        return headers;
+    }
+
     private void applyBody(Request<?> apiRequest, okhttp3.Request.Builder builder)
     {
         String method = apiRequest.getRoute().getMethod().toString();
@@ -320,4 +370,118 @@ public class Requester
         rateLimiter.shutdown();
     }
 
+    private class AsyncCall implements Callback
+    {
+        private final Request<?> apiRequest;
+        private final okhttp3.Request request;
+        private final boolean handleOnRatelimit;
+        private final Consumer<? super Long> whenDone;
+        private final Set<String> rays = new LinkedHashSet<>();
+        private boolean retried = false;
+        private int attempt = 0;
+
+        private AsyncCall(Request<?> apiRequest, okhttp3.Request request, boolean handleOnRatelimit, Consumer<? super Long> whenDone)
+        {
+            this.apiRequest = apiRequest;
+            this.request = request;
+            this.handleOnRatelimit = handleOnRatelimit;
+            this.whenDone = whenDone;
+        }
+
+        private void enqueue()
+        {
+            httpClient.newCall(request).enqueue(this);
+        }
+
+        @Override
+        public void onResponse( Call call,  okhttp3.Response response)
+        {
+            setContext();
+            Route.CompiledRoute route = apiRequest.getRoute();
+            Long retryAfter = null;
+            try
+            {
+                String cfRay = response.header("CF-RAY");
+                if (cfRay != null)
+                    rays.add(cfRay);
+
+                if (response.code() >= 500 && attempt < 3)
+                {
+                    attempt++;
+                    LOG.debug("Requesting {} -> {} returned status {}... retrying (attempt {})",
+                            route.getMethod(), request.url(), response.code(), attempt);
+                    api.getRateLimitPool().schedule(this::enqueue, 50 * attempt, TimeUnit.MILLISECONDS);
+                    return;
+                }
+
+                LOG.trace("Finished Request {} {} with code {}", route.getMethod(), request.url(), response.code());
+
+                if (response.code() >= 500)
+                {
+                    //Epic failure from other end. Attempted 4 times.
+                    apiRequest.handleResponse(new Response(response, -1, rays));
+                }
+                else
+                {
+                    retryAfter = rateLimiter.handleResponse(route, response);
+                    if (!rays.isEmpty())
+                        LOG.debug("Received response with following cf-rays: {}", rays);
+
+                    if (retryAfter == null)
+                        apiRequest.handleResponse(new Response(response, -1, rays));
+                    else if (handleOnRatelimit)
+                        apiRequest.handleResponse(new Response(response, retryAfter, rays));
+                }
+            }
+            catch (Exception e)
+            {
+                LOG.error("There was an exception while executing a REST request", e);
+                apiRequest.handleResponse(new Response(response, e, rays));
+                retryAfter = null;
+            }
+            finally
+            {
+                response.close();
+            }
+            done(retryAfter);
+        }
+
+        @Override
+        public void onFailure( Call call,  IOException e)
+        {
+            setContext();
+            if (retryOnTimeout && !retried && isRetry(e))
+            {
+                retried = true;
+                enqueue();
+                return;
+            }
+
+            if (e instanceof SocketTimeoutException)
+                LOG.error("Requester timed out while executing a request", e);
+            else
+                LOG.error("There was an exception while executing a REST request", e);
+            try
+            {
+                apiRequest.handleResponse(new Response(null, e, rays));
+            }
+            catch (Exception ex)
+            {
+                LOG.error("Encountered exception while handling a failed REST request", ex);
+            }
+            done(null);
+        }
+
+        private void done(Long retryAfter)
+        {
+            try
+            {
+                whenDone.accept(retryAfter);
+            }
+            catch (Throwable t)
+            {
+                LOG.error("Encountered exception in REST completion callback", t);
+            }
+        }
+    }
 }
@@ -43,18 +43,23 @@ import net.latinplay.latinbot.jda.internal.entities.GuildImpl;
 import net.latinplay.latinbot.jda.internal.handle.*;
 import net.latinplay.latinbot.jda.internal.managers.AudioManagerImpl;
 import net.latinplay.latinbot.jda.internal.managers.PresenceImpl;
+import net.latinplay.latinbot.jda.internal.utils.DispatchTypes;
 import net.latinplay.latinbot.jda.internal.utils.IOUtil;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import net.latinplay.latinbot.jda.internal.utils.UnlockHook;
 import net.latinplay.latinbot.jda.internal.utils.cache.AbstractCacheView;
+import net.latinplay.latinbot.jda.internal.utils.cache.CacheSnapshot;
 import net.latinplay.latinbot.jda.internal.utils.compress.Decompressor;
 import net.latinplay.latinbot.jda.internal.utils.compress.ZlibDecompressor;
+import okio.Utf8;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -112,11 +117,31 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected boolean firstInit = true;
     protected boolean processingReady = true;
 
+    // startup statistics, only tracked until the first ready
+    protected long startTime;
+    protected long receivedBytes;
+
+    protected volatile boolean keepSession = false;
+    // counted down once the final disconnect is handled and once the cache snapshot has been written
+    protected final CountDownLatch disconnectLatch = new CountDownLatch(1);
+    protected final CountDownLatch shutdownLatch = new CountDownLatch(1);
+    // the thread that handles the received frames, onDisconnected only runs after it returned from the current frame
+    protected volatile Thread readingThread;
+
     protected volatile ConnectNode connectNode;
 
     public WebSocketClient(JDAImpl api, Compression compression)
+    {
+        this(api, compression, null);
+    }
+
+    public WebSocketClient(JDAImpl api, Compression compression, String sessionId)
     {
         this.api = api;
+        // a restored session has its cache loaded already and is resumed like a reconnect
+        this.sessionId = sessionId;
+        this.processingReady = sessionId == null;
+        this.startTime = System.currentTimeMillis();
         this.executor = api.getGatewayPool();
         this.shardInfo = api.getShardInfo();
         this.compression = compression;
@@ -176,7 +201,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     JDAImpl.LOG.warn("connection might not work as expected.");
                     JDAImpl.LOG.warn("For more info see https://git.io/vrFWP");
                 }
-                JDAImpl.LOG.info("Finished Loading!");
+                JDAImpl.LOG.info("Finished Loading! Took {} ms and received {} KiB from the gateway",
+                    System.currentTimeMillis() - startTime, receivedBytes / 1024);
                 api.handleEvent(new ReadyEvent(api, api.getResponseTotal()));
             }
             else
@@ -273,12 +299,48 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     }
 
     public synchronized void shutdown()
+    {
+        shutdown(false);
+    }
+
+    public synchronized void shutdown(boolean keepSession)
     {
         shutdown = true;
         shouldReconnect = false;
+        this.keepSession = keepSession && sessionId != null;
         if (connectNode != null)
             api.getSessionController().removeSession(connectNode);
-        close(1000, "Shutting down");
+        if (!this.keepSession)
+        {
+            close(1000, "Shutting down");
+            return;
+        }
+
+        // 1000 would invalidate the session, any other code keeps it open for a resume
+        close(4000, "Shutting down");
+        // Listeners of the default event manager run on the reading thread, waiting here would only delay the disconnect
+        if (Thread.currentThread() == readingThread)
+        {
+            LOG.debug("Shutdown was requested by the reading thread, the cache snapshot is written once the connection is closed");
+            return;
+        }
+        try
+        {
+            // The socket is closed after at most 10 seconds if the gateway doesn't answer the close frame,
+            // but this might be called while no socket is connected at all
+            if (!disconnectLatch.await(15, TimeUnit.SECONDS))
+            {
+                LOG.warn("Timed out waiting for the gateway connection to close, continuing without waiting for the cache snapshot");
+                return;
+            }
+            // wait for the snapshot, this has to happen before the internals are shutdown
+            if (!shutdownLatch.await(1, TimeUnit.MINUTES))
+                LOG.warn("Timed out waiting for the cache snapshot to be written");
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /*
@@ -337,6 +399,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     @Override
     public void onThreadStarted(WebSocket websocket, ThreadType threadType, Thread thread) throws Exception
     {
+        if (threadType == ThreadType.READING_THREAD)
+            readingThread = thread;
         api.setContext();
     }
 
@@ -419,6 +483,17 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
             if (decompressor != null)
                 decompressor.shutdown();
+            disconnectLatch.countDown();
+            // all events have been handled at this point, so the cache matches the sequence
+            try
+            {
+                if (keepSession && sessionId != null)
+                    CacheSnapshot.write(api, sessionId, api.getCacheSnapshotFile());
+            }
+            finally
+            {
+                shutdownLatch.countDown();
+            }
             api.shutdownInternals();
             api.handleEvent(new ShutdownEvent(api, OffsetDateTime.now(), rawCloseCode));
         }
@@ -651,6 +726,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         api.getVoiceChannelsView().clear();
         api.getStoreChannelsView().clear();
         api.getCategoriesView().clear();
+        api.getRolesView().clear();
+        api.getEmotesView().clear();
         api.getGuildsView().clear();
         api.getUsersView().clear();
         api.getPrivateChannelsView().clear();
@@ -831,7 +908,9 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     sentAuthInfo = true;
                     if (!processingReady)
                     {
-                        initiating = false;
+                        // a restored session still has to fire the ready event
+                        if (!firstInit)
+                            initiating = false;
                         ready();
                     }
                     else
@@ -871,15 +950,70 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             jda.getEventCache().timeout(responseTotal);
     }
 
+    protected boolean isSkippable(PayloadHeader header)
+    {
+        String type = header.getType();
+        if (header.getOpCode() != WebSocketCode.DISPATCH || type == null)
+            return false;
+        // Filtered dispatches are dropped entirely, this includes the raw event
+        if (DispatchTypes.isFilterable(type) && !api.isDispatchEnabled(type))
+            return true;
+        // raw events need the full payload regardless of its handler
+        if (api.isRawEvents())
+            return false;
+        switch (type)
+        {
+            case "READY":
+            case "RESUMED":
+            case "GUILD_CREATE":
+            case "GUILD_DELETE":
+            case "PRESENCES_REPLACE":
+                return false;
+        }
+
+        SocketHandler handler = handlers.get(type);
+        if (handler == null)
+        {
+            LOG.debug("Unrecognized event: {}", type);
+            return true;
+        }
+        if (handler instanceof SocketHandler.NOPHandler)
+            return true;
+        if (api.isUnavailable(header.getGuildId()))
+        {
+            LOG.warn("Ignoring {} for unavailable guild with id {}", type, header.getGuildId());
+            return true;
+        }
+        return false;
+    }
+
+    protected void onSkippedDispatch(PayloadHeader header)
+    {
+        // Keep the sequence and event cache timeouts consistent with fully handled dispatches
+        if (header.hasSequence())
+            api.setResponseTotal(header.getSequence());
+        long responseTotal = api.getResponseTotal();
+        if (responseTotal % EventCache.TIMEOUT_AMOUNT == 0)
+            api.getEventCache().timeout(responseTotal);
+    }
+
     @Override
     public void onTextMessage(WebSocket websocket, String message)
     {
-        handleEvent(DataObject.fromJson(message));
+        if (firstInit)
+            receivedBytes += Utf8.size(message);
+        PayloadHeader header = PayloadHeader.scan(message);
+        if (isSkippable(header))
+            onSkippedDispatch(header);
+        else
+            handleEvent(DataObject.fromJson(message));
     }
 
     @Override
     public void onBinaryMessage(WebSocket websocket, byte[] binary) throws DataFormatException
     {
+        if (firstInit)
+            receivedBytes += binary.length;
         DataObject json;
         // Only acquire lock for decompression and unlock for event handling
         synchronized (readLock)
@@ -895,11 +1029,12 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         if (decompressor == null)
             throw new IllegalStateException("Cannot decompress binary message due to unknown compression algorithm: " + compression);
         // Scoping allows us to print the json that possibly failed parsing
-        String jsonString;
+        ByteArrayInputStream jsonStream;
         try
         {
-            jsonString = decompressor.decompress(binary);
-            if (jsonString == null)
+            // The stream reads straight from the decompression buffer, this is safe because we hold the readLock
+            jsonStream = decompressor.decompressStream(binary);
+            if (jsonStream == null)
                 return null;
         }
         catch (DataFormatException e)
@@ -910,12 +1045,24 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
         try
         {
-            return DataObject.fromJson(jsonString);
+            // Only build the full tree for payloads that reach a handler
+            PayloadHeader header = PayloadHeader.scan(jsonStream);
+            if (isSkippable(header))
+            {
+                onSkippedDispatch(header);
+                return null;
+            }
+            jsonStream.reset();
+            return DataObject.fromJson(jsonStream);
         }
         catch (ParsingException e)
         {
             // Print the string that could not be parsed and re-throw the exception
-            LOG.error("Failed to parse json {}", jsonString);
+            LOG.error("Failed to parse json {}", JDALogger.getLazyString(() ->
+            {
+                jsonStream.reset();
+                return new String(IOUtil.readFully(jsonStream), StandardCharsets.UTF_8);
+            }));
             throw e;
         }
     }
@@ -17,7 +17,6 @@
 package net.latinplay.latinbot.jda.internal.requests.ratelimit;
 
 import net.latinplay.latinbot.jda.api.requests.Request;
-import net.latinplay.latinbot.jda.api.utils.MiscUtil;
 import net.latinplay.latinbot.jda.internal.requests.RateLimiter;
 import net.latinplay.latinbot.jda.internal.requests.Requester;
 import net.latinplay.latinbot.jda.internal.requests.Route;
@@ -28,7 +27,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
 
@@ -77,13 +76,11 @@ public class BotRateLimiter extends RateLimiter
     private static final String RETRY_AFTER_HEADER = "Retry-After";
     private static final String UNLIMITED_BUCKET = "unlimited"; // we generate an unlimited bucket for every major parameter configuration
 
-    private final ReentrantLock bucketLock = new ReentrantLock();
     // Route -> Hash
     private final Map<Route, String> hash = new ConcurrentHashMap<>();
     // Hash + Major Parameter -> Bucket
-    private final Map<String, Bucket> bucket = new ConcurrentHashMap<>();
-    // Bucket -> Rate-Limit Worker
-    private final Map<Bucket, Future<?>> rateLimitQueue = new ConcurrentHashMap<>();
+    // Adding requests and removing buckets is done with atomic map operations, there is no global lock
+    private final ConcurrentMap<String, Bucket> bucket = new ConcurrentHashMap<>();
     private Future<?> cleanupWorker;
 
     public BotRateLimiter(Requester requester)
@@ -106,26 +103,24 @@ public class BotRateLimiter extends RateLimiter
     {
         // This will remove buckets that are no longer needed every 30 seconds to avoid memory leakage
         // We will keep the hashes in memory since they are very limited (by the amount of possible routes)
-        MiscUtil.locked(bucketLock, () -> {
-            int size = bucket.size();
-            Iterator<Map.Entry<String, Bucket>> entries = bucket.entrySet().iterator();
-
-            while (entries.hasNext())
-            {
-                Map.Entry<String, Bucket> entry = entries.next();
-                String key = entry.getKey();
-                Bucket bucket = entry.getValue();
+        int size = bucket.size();
+        long now = getNow();
+        for (String key : bucket.keySet())
+        {
+            // Removing in computeIfPresent makes sure no request is added to the bucket while we check it
+            bucket.computeIfPresent(key, (k, bucket) -> {
                 if (bucket.isUnlimited() && bucket.requests.isEmpty())
-                    entries.remove(); // remove unlimited if requests are empty
+                    return null; // remove unlimited if requests are empty
                 // If the requests of the bucket are drained and the reset is expired the bucket has no valuable information
-                else if (bucket.requests.isEmpty() && bucket.reset <= getNow())
-                    entries.remove();
-            }
-            // Log how many buckets were removed
-            size -= bucket.size();
-            if (size > 0)
-                log.debug("Removed {} expired buckets", size);
-        });
+                else if (bucket.requests.isEmpty() && bucket.reset <= now)
+                    return null;
+                return bucket;
+            });
+        }
+        // Log how many buckets were removed
+        size -= bucket.size();
+        if (size > 0)
+            log.debug("Removed {} expired buckets", size);
     }
 
     private String getRouteHash(Route route)
@@ -153,123 +148,115 @@ public class BotRateLimiter extends RateLimiter
     protected void queueRequest(Request request)
     {
         // Create bucket and enqueue request
-        MiscUtil.locked(bucketLock, () -> {
-            Bucket bucket = getBucket(request.getRoute(), true);
-            bucket.enqueue(request);
-            runBucket(bucket);
-        });
+        runBucket(enqueue(request));
     }
 
     @Override
     protected Long handleResponse(Route.CompiledRoute route, okhttp3.Response response)
     {
-        bucketLock.lock();
-        try
-        {
-            long rateLimit = updateBucket(route, response).getRateLimit();
-            if (response.code() == 429)
-                return rateLimit;
-            else
-                return null;
-        }
-        finally
-        {
-            bucketLock.unlock();
-        }
+        long rateLimit = updateBucket(route, response).getRateLimit();
+        if (response.code() == 429)
+            return rateLimit;
+        else
+            return null;
     }
 
     private Bucket updateBucket(Route.CompiledRoute route, okhttp3.Response response)
     {
-        return MiscUtil.locked(bucketLock, () -> {
-            try
-            {
-                Bucket bucket = getBucket(route, true);
-                Headers headers = response.headers();
-
-                boolean wasUnlimited = bucket.isUnlimited();
-                boolean global = headers.get(GLOBAL_HEADER) != null;
-                String hash = headers.get(HASH_HEADER);
-                long now = getNow();
-
-                // Create a new bucket for the hash if needed
-                Route baseRoute = route.getBaseRoute();
-                if (hash != null)
-                {
-                    if (!this.hash.containsKey(baseRoute))
-                    {
-                        this.hash.put(baseRoute, hash);
-                        log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
-                    }
-
-                    bucket = getBucket(route, true);
-                }
+        try
+        {
+            Bucket bucket = getBucket(route, true);
+            Headers headers = response.headers();
 
-                // Handle global rate limit if necessary
-                if (global)
-                {
-                    String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
-                    long retryAfter = parseLong(retryAfterHeader);
-                    requester.getJDA().getSessionController().setGlobalRatelimit(now + retryAfter);
-                    log.error("Encountered global rate limit! Retry-After: {} ms", retryAfter);
-                }
-                // Handle hard rate limit, pretty much just log that it happened
-                else if (response.code() == 429)
-                {
-                    // Update the bucket to the new information
-                    String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
-                    long retryAfter = parseLong(retryAfterHeader);
-                    bucket.remaining = 0;
-                    bucket.reset = getNow() + retryAfter;
-                    // don't log warning if we are switching bucket, this means it was an issue with an un-hashed route that is now resolved
-                    if (hash == null || !wasUnlimited)
-                        log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
-                    else
-                        log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
-                    return bucket;
-                }
+            boolean wasUnlimited = bucket.isUnlimited();
+            boolean global = headers.get(GLOBAL_HEADER) != null;
+            String hash = headers.get(HASH_HEADER);
+            long now = getNow();
 
-                // If hash is null this means we didn't get enough information to update a bucket
-                if (hash == null)
-                    return bucket;
+            // Create a new bucket for the hash if needed
+            Route baseRoute = route.getBaseRoute();
+            if (hash != null)
+            {
+                if (this.hash.putIfAbsent(baseRoute, hash) == null)
+                    log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
 
-                // Update the bucket parameters with new information
-                String limitHeader = headers.get(LIMIT_HEADER);
-                String remainingHeader = headers.get(REMAINING_HEADER);
-                String resetAfterHeader = headers.get(RESET_AFTER_HEADER);
-                String resetHeader = headers.get(RESET_HEADER);
+                bucket = getBucket(route, true);
+            }
 
-                bucket.limit = (int) Math.max(1L, parseLong(limitHeader));
-                bucket.remaining = (int) parseLong(remainingHeader);
-                if (requester.getJDA().isRelativeRateLimit())
-                    bucket.reset = now + parseDouble(resetAfterHeader);
-                else
-                    bucket.reset = parseDouble(resetHeader);
-                log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, bucket.remaining, bucket.limit, bucket.reset - now);
-                return bucket;
+            // Handle global rate limit if necessary
+            if (global)
+            {
+                String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
+                long retryAfter = parseLong(retryAfterHeader);
+                requester.getJDA().getSessionController().setGlobalRatelimit(now + retryAfter);
+                log.error("Encountered global rate limit! Retry-After: {} ms", retryAfter);
             }
-            catch (Exception e)
+            // Handle hard rate limit, pretty much just log that it happened
+            else if (response.code() == 429)
             {
-                Bucket bucket = getBucket(route, true);
-                log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
-                        route.getBaseRoute(), bucket, response.code(), response.headers(), e);
+                // Update the bucket to the new information
+                String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
+                long retryAfter = parseLong(retryAfterHeader);
+                bucket.update(bucket.limit, 0, getNow() + retryAfter);
+                // don't log warning if we are switching bucket, this means it was an issue with an un-hashed route that is now resolved
+                if (hash == null || !wasUnlimited)
+                    log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
+                else
+                    log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
                 return bucket;
             }
-        });
+
+            // If hash is null this means we didn't get enough information to update a bucket
+            if (hash == null)
+                return bucket;
+
+            // Update the bucket parameters with new information
+            String limitHeader = headers.get(LIMIT_HEADER);
+            String remainingHeader = headers.get(REMAINING_HEADER);
+            String resetAfterHeader = headers.get(RESET_AFTER_HEADER);
+            String resetHeader = headers.get(RESET_HEADER);
+
+            int limit = (int) Math.max(1L, parseLong(limitHeader));
+            int remaining = (int) parseLong(remainingHeader);
+            if (requester.getJDA().isRelativeRateLimit())
+                bucket.update(limit, remaining, now + parseDouble(resetAfterHeader));
+            else
+                bucket.update(limit, remaining, parseDouble(resetHeader));
+            log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, bucket.remaining, bucket.limit, bucket.reset - now);
+            return bucket;
+        }
+        catch (Exception e)
+        {
+            Bucket bucket = getBucket(route, true);
+            log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
+                    route.getBaseRoute(), bucket, response.code(), response.headers(), e);
+            return bucket;
+        }
     }
 
     @Contract("_,true->!null")
     private Bucket getBucket(Route.CompiledRoute route, boolean create)
     {
-        return MiscUtil.locked(bucketLock, () ->
-        {
-            // Retrieve the hash via the route
-            String hash = getRouteHash(route.getBaseRoute());
-            // Get or create a bucket for the hash + major parameters
-            String bucketId = hash + ":" + route.getMajorParameters();
-            Bucket bucket = this.bucket.get(bucketId);
-            if (bucket == null && create)
-                this.bucket.put(bucketId, bucket = new Bucket(bucketId));
+        String bucketId = getBucketId(route);
+        return create ? this.bucket.computeIfAbsent(bucketId, Bucket::new) : this.bucket.get(bucketId);
+    }
 
+    private String getBucketId(Route.CompiledRoute route)
+    {
+        // Retrieve the hash via the route
+        String hash = getRouteHash(route.getBaseRoute());
+        // Get or create a bucket for the hash + major parameters
+        return hash + ":" + route.getMajorParameters();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Bucket enqueue(Request request)
+    {
+        // Adding the request inside compute prevents the cleanup from removing the bucket at the same time
+        return this.bucket.compute(getBucketId(request.getRoute()), (bucketId, bucket) -> {
+            if (bucket == null)
+                bucket = new Bucket(bucketId);
+            bucket.requests.add(request);
             return bucket;
         });
     }
@@ -279,9 +266,8 @@ public class BotRateLimiter extends RateLimiter
         if (isShutdown)
             return;
         // Schedule a new bucket worker if no worker is running
-        MiscUtil.locked(bucketLock, () ->
-            rateLimitQueue.computeIfAbsent(bucket,
-                (k) -> getScheduler().schedule(bucket, bucket.getRateLimit(), TimeUnit.MILLISECONDS)));
+        if (bucket.scheduled.compareAndSet(false, true))
+            getScheduler().schedule(bucket, bucket.getRateLimit(), TimeUnit.MILLISECONDS);
     }
 
     private long parseLong(String input)
@@ -306,22 +292,26 @@ public class BotRateLimiter extends RateLimiter
     {
         private final String bucketId;
         private final Queue<Request> requests = new ConcurrentLinkedQueue<>();
+        // Set while a worker is scheduled, running or waiting for a response
+        private final AtomicBoolean scheduled = new AtomicBoolean();
 
-        private long reset = 0;
-        private int remaining = 1;
-        private int limit = 1;
+        private volatile long reset = 0;
+        private volatile int remaining = 1;
+        private volatile int limit = 1;
 
         public Bucket(String bucketId)
         {
             this.bucketId = bucketId;
         }
 
-        public void enqueue(Request request)
+        private synchronized void update(int limit, int remaining, long reset)
         {
-            requests.add(request);
+            this.limit = limit;
+            this.remaining = remaining;
+            this.reset = reset;
         }
 
-        public long getRateLimit()
+        public synchronized long getRateLimit()
         {
             long now = getNow();
             long global = requester.getJDA().getSessionController().getGlobalRatelimit();
@@ -363,11 +353,10 @@ public class BotRateLimiter extends RateLimiter
         private void backoff()
         {
             // Schedule backoff if requests are not done
-            MiscUtil.locked(bucketLock, () -> {
-                rateLimitQueue.remove(this);
-                if (!requests.isEmpty())
-                    runBucket(this);
-            });
+            // The flag has to be cleared before checking the queue, otherwise a concurrent enqueue could be missed
+            scheduled.set(false);
+            if (!requests.isEmpty())
+                runBucket(this);
         }
 
         @Override
@@ -388,19 +377,13 @@ public class BotRateLimiter extends RateLimiter
                 Request request = iterator.next();
                 if (isUnlimited())
                 {
-                    boolean shouldSkip = MiscUtil.locked(bucketLock, () -> {
-                        // Attempt moving request to correct bucket if it has been created
-                        Bucket bucket = getBucket(request.getRoute(), true);
-                        if (bucket != this)
-                        {
-                            bucket.enqueue(request);
-                            iterator.remove();
-                            runBucket(bucket);
-                            return true;
-                        }
-                        return false;
-                    });
-                    if (shouldSkip) continue;
+                    // Attempt moving request to correct bucket if it has been created
+                    if (!getBucketId(request.getRoute()).equals(bucketId))
+                    {
+                        iterator.remove();
+                        runBucket(enqueue(request));
+                        continue;
+                    }
                 }
 
                 if (isSkipped(iterator, request))
@@ -408,12 +391,15 @@ public class BotRateLimiter extends RateLimiter
 
                 try
                 {
-                    rateLimit = requester.execute(request);
-                    if (rateLimit != null)
-                        break; // this means we hit a hard rate limit (429) so the request needs to be retried
-
-                    // The request went through so we can remove it
-                    iterator.remove();
+                    // The worker stays registered until the response arrives, the callback continues with the next request
+                    requester.execute(request, false, retryAfter -> {
+                        // Without a hard rate limit (429) the request went through so we can remove it
+                        if (retryAfter == null && requests.remove(request))
+                            run();
+                        else
+                            backoff();
+                    });
+                    return;
                 }
                 catch (Exception ex)
                 {
@@ -51,7 +51,7 @@ public class MessageActionImpl extends RestActionImpl<Message> implements Messag
     protected final MessageChannel channel;
     protected MessageEmbed embed = null;
     protected String nonce = null;
-    protected boolean tts = false, override = false;
+    protected boolean tts = false, override = false, coalesce = false;
 
     public MessageActionImpl(JDA api, Route.CompiledRoute route, MessageChannel channel)
     {
@@ -121,6 +121,15 @@ public class MessageActionImpl extends RestActionImpl<Message> implements Messag
     }
 
 
+    @Override
+
+    public MessageActionImpl coalesce(final boolean enable)
+    {
+        this.coalesce = enable;
+        return this;
+    }
+
+
     @Override
 
     public MessageActionImpl reset()
@@ -330,7 +339,7 @@ public class MessageActionImpl extends RestActionImpl<Message> implements Messag
 
     protected RequestBody asJSON()
     {
-        return RequestBody.create(Requester.MEDIA_TYPE_JSON, getJSON().toString());
+        return RequestBody.create(Requester.MEDIA_TYPE_JSON, getJSON().toJson());
     }
 
     protected DataObject getJSON()
@@ -405,6 +414,21 @@ public class MessageActionImpl extends RestActionImpl<Message> implements Messag
         throw new IllegalStateException("Cannot build a message without content!");
     }
 
+    @Override
+    public void queue(Consumer<? super Message> success, Consumer<? super Throwable> failure)
+    {
+        if (coalesce && isCoalescable())
+            api.getMessageCoalescer().add(this, success, failure);
+        else
+            super.queue(success, failure);
+    }
+
+    protected boolean isCoalescable()
+    {
+        // Only plain sends can be merged, everything else has to keep its own request
+        return !isEdit() && !isEmpty() && files.isEmpty() && nonce == null && !override && getCheck() == null;
+    }
+
     @Override
     protected void handleSuccess(Response response, Request<Message> request)
     {
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.requests.restaction;
+
+import net.latinplay.latinbot.jda.api.entities.Message;
+import net.latinplay.latinbot.jda.api.entities.MessageChannel;
+import net.latinplay.latinbot.jda.api.entities.MessageEmbed;
+import net.latinplay.latinbot.jda.api.events.ExceptionEvent;
+import net.latinplay.latinbot.jda.internal.JDAImpl;
+import net.latinplay.latinbot.jda.internal.requests.RestActionImpl;
+import net.latinplay.latinbot.jda.internal.requests.Route;
+import net.latinplay.latinbot.jda.internal.utils.JDALogger;
+import net.latinplay.latinbot.jda.internal.utils.tuple.Pair;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Merges messages that are queued with {@link MessageActionImpl#coalesce(boolean) coalesce(true)}
+ * to the same channel within a short window into a single request.
+ */
+public class MessageCoalescer
+{
+    public static final Logger LOG = JDALogger.getLog(MessageCoalescer.class);
+    // How long the first message of a batch waits for more messages
+    public static final long WINDOW_MILLIS = 20;
+
+    private final JDAImpl api;
+    // Channel ID -> Pending batch, batches are sent while holding this lock to keep their order
+    private final Map<Long, Batch> batches = new HashMap<>();
+
+    public MessageCoalescer(JDAImpl api)
+    {
+        this.api = api;
+    }
+
+    public void add(MessageActionImpl action, Consumer<? super Message> success, Consumer<? super Throwable> failure)
+    {
+        MessageChannel channel = action.getChannel();
+        long channelId = channel.getIdLong();
+        String content = action.content.toString();
+        MessageEmbed embed = action.embed;
+        synchronized (batches)
+        {
+            boolean sendNow = embed != null;
+            Batch batch = batches.get(channelId);
+            if (batch != null && !batch.accepts(content, action.tts))
+            {
+                batches.remove(channelId);
+                batch.send();
+                batch = null;
+            }
+
+            if (batch == null)
+            {
+                batch = new Batch(channel, action.tts);
+                batches.put(channelId, batch);
+                // Without a timer nothing would ever flush the batch
+                sendNow |= !schedule(channelId, batch);
+            }
+
+            batch.add(content, embed, success, failure);
+            // The embed is shown below the content, messages after it would appear above it
+            if (sendNow)
+            {
+                batches.remove(channelId);
+                batch.send();
+            }
+        }
+    }
+
+    private boolean schedule(long channelId, Batch batch)
+    {
+        try
+        {
+            api.getRateLimitPool().schedule(() -> flush(channelId, batch), WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The pool is shut down, the message is sent on its own and fails like any other request would
+            LOG.debug("Could not schedule message batch for channel {}", channelId, e);
+            return false;
+        }
+    }
+
+    private void flush(long channelId, Batch batch)
+    {
+        synchronized (batches)
+        {
+            if (batches.remove(channelId, batch))
+                batch.send();
+        }
+    }
+
+    private class Batch
+    {
+        private final MessageChannel channel;
+        private final boolean tts;
+        private final StringBuilder content = new StringBuilder();
+        private final List<Pair<Consumer<? super Message>, Consumer<? super Throwable>>> callbacks = new ArrayList<>();
+        private MessageEmbed embed;
+
+        private Batch(MessageChannel channel, boolean tts)
+        {
+            this.channel = channel;
+            this.tts = tts;
+        }
+
+        private boolean accepts(String content, boolean tts)
+        {
+            if (this.tts != tts)
+                return false;
+            int separator = this.content.length() > 0 && !content.isEmpty() ? 1 : 0;
+            return this.content.length() + separator + content.length() <= Message.MAX_CONTENT_LENGTH;
+        }
+
+        private void add(String content, MessageEmbed embed, Consumer<? super Message> success, Consumer<? super Throwable> failure)
+        {
+            if (this.content.length() > 0 && !content.isEmpty())
+                this.content.append('\n');
+            this.content.append(content);
+            this.embed = embed;
+            callbacks.add(Pair.of(success == null ? RestActionImpl.getDefaultSuccess() : success,
+                                  failure == null ? RestActionImpl.getDefaultFailure() : failure));
+        }
+
+        private void send()
+        {
+            Route.CompiledRoute route = Route.Messages.SEND_MESSAGE.compile(channel.getId());
+            MessageActionImpl action = new MessageActionImpl(api, route, channel, content);
+            action.embed = embed;
+            action.tts = tts;
+            if (callbacks.size() > 1)
+                LOG.trace("Sending {} coalesced messages to channel {}", callbacks.size(), channel.getId());
+            try
+            {
+                action.queue(this::onSuccess, this::onFailure);
+            }
+            catch (RuntimeException e)
+            {
+                // The requester is shut down, every message of the batch has to know
+                onFailure(e);
+            }
+        }
+
+        private void onSuccess(Message message)
+        {
+            for (Pair<Consumer<? super Message>, Consumer<? super Throwable>> callback : callbacks)
+            {
+                try
+                {
+                    callback.getLeft().accept(message);
+                }
+                catch (Throwable t)
+                {
+                    RestActionImpl.LOG.error("Encountered error while processing success consumer", t);
+                    if (t instanceof Error)
+                        api.handleEvent(new ExceptionEvent(api, t, true));
+                }
+            }
+        }
+
+        private void onFailure(Throwable failure)
+        {
+            for (Pair<Consumer<? super Message>, Consumer<? super Throwable>> callback : callbacks)
+            {
+                try
+                {
+                    callback.getRight().accept(failure);
+                }
+                catch (Throwable t)
+                {
+                    RestActionImpl.LOG.error("Encountered error while processing failure consumer", t);
+                    if (t instanceof Error)
+                        api.handleEvent(new ExceptionEvent(api, t, true));
+                }
+            }
+        }
+    }
+}
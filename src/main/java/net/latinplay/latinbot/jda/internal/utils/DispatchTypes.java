@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.utils;
+
+import net.latinplay.latinbot.jda.api.events.GenericEvent;
+import net.latinplay.latinbot.jda.api.events.guild.GuildBanEvent;
+import net.latinplay.latinbot.jda.api.events.guild.GuildUnbanEvent;
+import net.latinplay.latinbot.jda.api.events.message.*;
+import net.latinplay.latinbot.jda.api.events.message.guild.*;
+import net.latinplay.latinbot.jda.api.events.message.guild.react.GuildMessageReactionAddEvent;
+import net.latinplay.latinbot.jda.api.events.message.guild.react.GuildMessageReactionRemoveAllEvent;
+import net.latinplay.latinbot.jda.api.events.message.guild.react.GuildMessageReactionRemoveEvent;
+import net.latinplay.latinbot.jda.api.events.message.priv.*;
+import net.latinplay.latinbot.jda.api.events.message.priv.react.PrivateMessageReactionAddEvent;
+import net.latinplay.latinbot.jda.api.events.message.priv.react.PrivateMessageReactionRemoveEvent;
+import net.latinplay.latinbot.jda.api.events.message.react.MessageReactionAddEvent;
+import net.latinplay.latinbot.jda.api.events.message.react.MessageReactionRemoveAllEvent;
+import net.latinplay.latinbot.jda.api.events.message.react.MessageReactionRemoveEvent;
+import net.latinplay.latinbot.jda.api.events.user.UserActivityEndEvent;
+import net.latinplay.latinbot.jda.api.events.user.UserActivityStartEvent;
+import net.latinplay.latinbot.jda.api.events.user.UserTypingEvent;
+import net.latinplay.latinbot.jda.api.events.user.update.*;
+
+import java.util.*;
+
+/**
+ * Maps the dispatch types accepted by {@link net.latinplay.latinbot.jda.api.utils.DispatchFilter DispatchFilter}
+ * to the events their handlers can fire.
+ */
+public final class DispatchTypes
+{
+    private static final Map<String, List<Class<? extends GenericEvent>>> EVENTS = new HashMap<>();
+
+    static
+    {
+        register("PRESENCE_UPDATE",
+            UserUpdateNameEvent.class, UserUpdateDiscriminatorEvent.class, UserUpdateAvatarEvent.class,
+            UserUpdateOnlineStatusEvent.class, UserUpdateActivityOrderEvent.class,
+            UserActivityStartEvent.class, UserActivityEndEvent.class);
+        register("TYPING_START",
+            UserTypingEvent.class);
+        register("MESSAGE_CREATE",
+            MessageReceivedEvent.class, GuildMessageReceivedEvent.class, PrivateMessageReceivedEvent.class);
+        register("MESSAGE_UPDATE",
+            MessageUpdateEvent.class, GuildMessageUpdateEvent.class, PrivateMessageUpdateEvent.class,
+            MessageEmbedEvent.class, GuildMessageEmbedEvent.class, PrivateMessageEmbedEvent.class);
+        register("MESSAGE_DELETE",
+            MessageDeleteEvent.class, GuildMessageDeleteEvent.class, PrivateMessageDeleteEvent.class);
+        register("MESSAGE_DELETE_BULK",
+            MessageBulkDeleteEvent.class, MessageDeleteEvent.class, GuildMessageDeleteEvent.class);
+        register("MESSAGE_REACTION_ADD",
+            MessageReactionAddEvent.class, GuildMessageReactionAddEvent.class, PrivateMessageReactionAddEvent.class);
+        register("MESSAGE_REACTION_REMOVE",
+            MessageReactionRemoveEvent.class, GuildMessageReactionRemoveEvent.class, PrivateMessageReactionRemoveEvent.class);
+        register("MESSAGE_REACTION_REMOVE_ALL",
+            MessageReactionRemoveAllEvent.class, GuildMessageReactionRemoveAllEvent.class);
+        register("GUILD_BAN_ADD",
+            GuildBanEvent.class);
+        register("GUILD_BAN_REMOVE",
+            GuildUnbanEvent.class);
+    }
+
+    private DispatchTypes() {}
+
+    @SafeVarargs
+    private static void register(String type, Class<? extends GenericEvent>... events)
+    {
+        List<Class<? extends GenericEvent>> list = new ArrayList<>(events.length);
+        for (Class<? extends GenericEvent> event : events)
+            list.add(event);
+        EVENTS.put(type, Collections.unmodifiableList(list));
+    }
+
+    public static boolean isFilterable(String type)
+    {
+        return EVENTS.containsKey(type);
+    }
+
+    public static Set<String> getTypes(Class<? extends GenericEvent> event)
+    {
+        Set<String> types = new HashSet<>();
+        EVENTS.forEach((type, events) ->
+        {
+            for (Class<? extends GenericEvent> fired : events)
+            {
+                if (event.isAssignableFrom(fired))
+                {
+                    types.add(type);
+                    break;
+                }
+            }
+        });
+        return types;
+    }
+}
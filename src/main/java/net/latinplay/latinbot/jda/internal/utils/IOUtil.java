@@ -16,7 +16,10 @@
 
 package net.latinplay.latinbot.jda.internal.utils;
 
+import net.latinplay.latinbot.jda.internal.utils.concurrent.CountingThreadFactory;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okio.Okio;
 import org.slf4j.Logger;
@@ -24,6 +27,9 @@ import org.slf4j.Logger;
 import java.io.*;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
@@ -51,6 +57,23 @@ public class IOUtil
         catch (IOException ignored) {}
     }
 
+    /**
+     * Creates the {@link OkHttpClient.Builder OkHttpClient.Builder} used when no client was configured.
+     * <br>Requests are sent asynchronously, so the dispatcher allows more concurrent requests per host
+     * and uses daemon threads to not keep the JVM alive after shutdown.
+     *
+     * @return The default OkHttpClient.Builder
+     */
+    public static OkHttpClient.Builder newHttpClientBuilder()
+    {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CountingThreadFactory(() -> "JDA", "HttpDispatch"));
+        Dispatcher dispatcher = new Dispatcher(executor);
+        // The rate limiter already limits requests per bucket, the default of 5 would serialize independent buckets
+        dispatcher.setMaxRequestsPerHost(64);
+        return new OkHttpClient.Builder().dispatcher(dispatcher);
+    }
+
     public static String getHost(String uri)
     {
         return URI.create(uri).getHost();
@@ -28,6 +28,7 @@ import org.apache.commons.collections4.iterators.ObjectArrayIterator;
 
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -36,7 +37,11 @@ import java.util.stream.StreamSupport;
 
 public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> implements CacheView<T>
 {
-    protected final TLongObjectMap<T> elements = new TLongObjectHashMap<>();
+    protected final TLongObjectMap<T> elements = new IndexedMap();
+    // Secondary name indexes, empty unless enabled by the implementation
+    // Added under the write lock but also checked without it, see updateNames(long)
+    protected final List<NameIndex<T>> indexes = new CopyOnWriteArrayList<>();
+    protected NameIndex<T> nameIndex;
     protected final T[] emptyArray;
     protected final Function<T, String> nameMapper;
     protected final Class<T> type;
@@ -49,6 +54,59 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
         this.emptyArray = (T[]) Array.newInstance(type, 0);
     }
 
+    /**
+     * Enables the lazily built name index used by {@link #getElementsByName(String, boolean)}.
+     */
+    public void indexNames()
+    {
+        if (nameMapper == null)
+            throw new UnsupportedOperationException("The contained elements are not assigned with names.");
+        if (nameIndex == null)
+            nameIndex = addIndex(nameMapper);
+    }
+
+    protected NameIndex<T> addIndex(Function<T, String> mapper)
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            NameIndex<T> index = new NameIndex<>(mapper);
+            indexes.add(index);
+            return index;
+        }
+    }
+
+    /**
+     * Updates the name indexes after an element was renamed.
+     *
+     * @param id
+     *        The id of the renamed element
+     */
+    public void updateNames(long id)
+    {
+        // Indexes are built lazily, most views are never searched by name
+        if (!hasBuiltIndex())
+            return;
+        try (UnlockHook hook = writeLock())
+        {
+            T element = elements.get(id);
+            if (element != null)
+            {
+                for (NameIndex<T> index : indexes)
+                    index.update(id, element);
+            }
+        }
+    }
+
+    private boolean hasBuiltIndex()
+    {
+        for (NameIndex<T> index : indexes)
+        {
+            if (index.isBuilt())
+                return true;
+        }
+        return false;
+    }
+
     public void clear()
     {
         try (UnlockHook hook = writeLock())
@@ -66,6 +124,21 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
 
     public T get(long id)
     {
+        // Point lookups are by far the most common access, try without locking first
+        long stamp = sequence.tryOptimisticRead();
+        if (stamp != 0L)
+        {
+            try
+            {
+                T element = elements.get(id);
+                if (sequence.validate(stamp))
+                    return element;
+            }
+            catch (RuntimeException ignored)
+            {
+                // Concurrent modification while probing, try again with the lock
+            }
+        }
         try (UnlockHook hook = readLock())
         {
             return elements.get(id);
@@ -176,6 +249,8 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
             throw new UnsupportedOperationException("The contained elements are not assigned with names.");
         if (isEmpty())
             return Collections.emptyList();
+        if (nameIndex != null)
+            return findByName(nameIndex, nameMapper, name, ignoreCase);
         List<T> list = new ArrayList<>();
         forEach(elem ->
         {
@@ -248,8 +323,117 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
         }
     }
 
+    protected void elementAdded(long id, T element)
+    {
+        for (NameIndex<T> index : indexes)
+            index.update(id, element);
+    }
+
+    protected void elementRemoved(long id)
+    {
+        for (NameIndex<T> index : indexes)
+            index.remove(id);
+    }
+
+    protected void elementsCleared()
+    {
+        for (NameIndex<T> index : indexes)
+            index.clear();
+    }
+
+    protected List<T> findByName(NameIndex<T> index, Function<T, String> mapper, String name, boolean ignoreCase)
+    {
+        List<T> list = new ArrayList<>();
+        try (UnlockHook hook = readLock())
+        {
+            index.find(name, ignoreCase, elements).forEach(id ->
+            {
+                // The index only provides candidates, the element might have been renamed or removed
+                T elem = elements.get(id);
+                String elementName = elem == null ? null : mapper.apply(elem);
+                if (elementName != null && equals(ignoreCase, elementName, name))
+                    list.add(elem);
+                return true;
+            });
+        }
+        return list; // must be modifiable because of SortedSnowflakeCacheView
+    }
+
+    protected List<T> findByPrefix(NameIndex<T> index, Function<T, String> mapper, String prefix)
+    {
+        String folded = NameIndex.fold(prefix);
+        List<T> list = new ArrayList<>();
+        try (UnlockHook hook = readLock())
+        {
+            index.findPrefix(prefix, elements).forEach(id ->
+            {
+                T elem = elements.get(id);
+                String elementName = elem == null ? null : mapper.apply(elem);
+                if (elementName != null && NameIndex.fold(elementName).startsWith(folded))
+                    list.add(elem);
+                return true;
+            });
+        }
+        return list;
+    }
+
     protected boolean equals(boolean ignoreCase, String first, String second)
     {
         return ignoreCase ? first.equalsIgnoreCase(second) : first.equals(second);
     }
+
+    // Keeps the indexes in sync with the elements, all modifications happen under the write lock
+    private class IndexedMap extends TLongObjectHashMap<T>
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public T put(long key, T value)
+        {
+            T old = super.put(key, value);
+            elementAdded(key, value);
+            return old;
+        }
+
+        @Override
+        public T putIfAbsent(long key, T value)
+        {
+            T old = super.putIfAbsent(key, value);
+            if (old == null)
+                elementAdded(key, value);
+            return old;
+        }
+
+        // Covers remove(key), iterator removal and retainEntries
+        @Override
+        protected void removeAt(int slot)
+        {
+            long key = _set[slot];
+            super.removeAt(slot);
+            elementRemoved(key);
+        }
+
+        @Override
+        public void putAll(Map<? extends Long, ? extends T> map)
+        {
+            map.forEach(this::put);
+        }
+
+        @Override
+        public void putAll(TLongObjectMap<? extends T> map)
+        {
+            map.forEachEntry((key, value) ->
+            {
+                put(key, value);
+                return true;
+            });
+        }
+
+        @Override
+        public void clear()
+        {
+            super.clear();
+            elementsCleared();
+        }
+    }
 }
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import net.latinplay.latinbot.jda.api.JDA;
+import net.latinplay.latinbot.jda.api.entities.*;
+import net.latinplay.latinbot.jda.api.utils.MiscUtil;
+import net.latinplay.latinbot.jda.api.utils.data.DataArray;
+import net.latinplay.latinbot.jda.api.utils.data.DataObject;
+import net.latinplay.latinbot.jda.internal.JDAImpl;
+import net.latinplay.latinbot.jda.internal.entities.*;
+import net.latinplay.latinbot.jda.internal.utils.JDALogger;
+import net.latinplay.latinbot.jda.internal.utils.UnlockHook;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the guild cache of a session, used to resume the session after a restart.
+ *
+ * <p>The snapshot is written when the session is shut down and mapped back into memory on the next login.
+ * Users and members make up almost all of the cache and are stored in a compact binary layout,
+ * the guild metadata, roles, channels and emotes are stored in the same JSON layout as the {@code GUILD_CREATE}
+ * payload and loaded through the {@link EntityBuilder}.
+ * Presences and voice states are not stored, they are volatile anyway.
+ *
+ * <p>The restored cache is only valid if the gateway accepts the session resume,
+ * otherwise the session is invalidated which clears the cache and starts a new session.
+ */
+public class CacheSnapshot
+{
+    public static final Logger LOG = JDALogger.getLog(CacheSnapshot.class);
+    private static final int MAGIC = 0x4A444153; // JDAS
+    private static final int VERSION = 1;
+    // Sessions can only be resumed for a short time after the disconnect
+    private static final long MAX_AGE = TimeUnit.MINUTES.toMillis(10);
+
+    public static void write(JDAImpl api, String sessionId, File file)
+    {
+        long start = System.currentTimeMillis();
+        File temp = new File(file.getPath() + ".tmp");
+        try
+        {
+            int guildCount;
+            int members = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16)))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(start);
+                out.writeLong(api.getSelfUser().getIdLong());
+                JDA.ShardInfo shardInfo = api.getShardInfo();
+                out.writeInt(shardInfo == null ? -1 : shardInfo.getShardId());
+                out.writeInt(shardInfo == null ? -1 : shardInfo.getShardTotal());
+                writeString(out, sessionId);
+                out.writeInt((int) api.getResponseTotal());
+
+                List<User> users = api.getUsersView().asList();
+                out.writeInt(users.size());
+                for (User user : users)
+                {
+                    out.writeLong(user.getIdLong());
+                    writeString(out, user.getName());
+                    out.writeShort(Short.parseShort(user.getDiscriminator()));
+                    writeString(out, user.getAvatarId());
+                    out.writeBoolean(user.isBot());
+                }
+
+                List<Guild> guilds = api.getGuildsView().asList();
+                guildCount = guilds.size();
+                out.writeInt(guildCount);
+                for (Guild guild : guilds)
+                    members += writeGuild(out, (GuildImpl) guild);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Wrote cache snapshot with {} guilds and {} members in {} ms", guildCount, members, System.currentTimeMillis() - start);
+        }
+        catch (Exception e)
+        {
+            LOG.error("Failed to write cache snapshot to {}", file, e);
+            temp.delete();
+        }
+    }
+
+    /**
+     * Loads the snapshot into the cache of the provided session and deletes the file.
+     *
+     * @param  api
+     *         The session, this requires the self user
+     * @param  file
+     *         The snapshot file
+     *
+     * @return The id of the session to resume, or null if the snapshot could not be used
+     */
+    public static String restore(JDAImpl api, File file)
+    {
+        if (!file.isFile())
+            return null;
+        long start = System.currentTimeMillis();
+        try
+        {
+            // Copied to the heap, a mapping keeps the file open until it is garbage collected and Windows can't delete open files
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                LOG.warn("Ignoring cache snapshot {} with unknown format", file);
+                return null;
+            }
+            long created = buffer.getLong();
+            long selfId = buffer.getLong();
+            int shardId = buffer.getInt();
+            int shardTotal = buffer.getInt();
+            JDA.ShardInfo shardInfo = api.getShardInfo();
+            if (start - created > MAX_AGE)
+            {
+                LOG.debug("Ignoring outdated cache snapshot {}", file);
+                return null;
+            }
+            if (selfId != api.getSelfUser().getIdLong()
+                || shardId != (shardInfo == null ? -1 : shardInfo.getShardId())
+                || shardTotal != (shardInfo == null ? -1 : shardInfo.getShardTotal()))
+            {
+                LOG.debug("Ignoring cache snapshot {} of a different session", file);
+                return null;
+            }
+            String sessionId = readString(buffer);
+            int sequence = buffer.getInt();
+
+            readUsers(api, buffer, selfId);
+            int guilds = buffer.getInt();
+            int members = 0;
+            for (int i = 0; i < guilds; i++)
+                members += readGuild(api, buffer);
+
+            api.setResponseTotal(sequence);
+            LOG.info("Restored {} guilds and {} members from the cache snapshot in {} ms", guilds, members, System.currentTimeMillis() - start);
+            return sessionId;
+        }
+        catch (Exception e)
+        {
+            LOG.error("Failed to restore cache snapshot from {}", file, e);
+            clear(api);
+            return null;
+        }
+        finally
+        {
+            // A snapshot can only be used once, the sequence is outdated as soon as the session continues
+            try
+            {
+                Files.delete(file.toPath());
+            }
+            catch (IOException e)
+            {
+                LOG.warn("Could not delete cache snapshot {}, it will be ignored once it is outdated", file, e);
+            }
+        }
+    }
+
+    private static int writeGuild(DataOutputStream out, GuildImpl guild) throws IOException
+    {
+        out.writeLong(guild.getIdLong());
+        out.writeInt(guild.getMemberCount());
+        writeBytes(out, toJson(guild).toJson());
+
+        List<Member> members = guild.getMembersView().asList();
+        out.writeInt(members.size());
+        for (Member m : members)
+        {
+            MemberImpl member = (MemberImpl) m;
+            out.writeLong(member.getIdLong());
+            writeString(out, member.getNickname());
+            out.writeLong(member.getTimeJoined().toInstant().toEpochMilli());
+            out.writeLong(member.getBoostDateRaw());
+            long[] roles = member.getRoleIds();
+            out.writeShort(roles.length);
+            for (long role : roles)
+                out.writeLong(role);
+        }
+        return members.size();
+    }
+
+    private static void readUsers(JDAImpl api, ByteBuffer buffer, long selfId)
+    {
+        SnowflakeCacheViewImpl<User> userView = api.getUsersView();
+        int count = buffer.getInt();
+        try (UnlockHook hook = userView.writeLock())
+        {
+            TLongObjectMap<User> map = userView.getMap();
+            for (int i = 0; i < count; i++)
+            {
+                long id = buffer.getLong();
+                String name = readString(buffer);
+                String discriminator = String.format("%04d", buffer.getShort());
+                String avatarId = readString(buffer);
+                boolean bot = buffer.get() != 0;
+                if (id == selfId)
+                    continue;
+                UserImpl user = new UserImpl(id, api);
+                user.setName(name)
+                    .setDiscriminator(discriminator)
+                    .setAvatarId(avatarId)
+                    .setBot(bot);
+                map.put(id, user);
+            }
+        }
+    }
+
+    private static int readGuild(JDAImpl api, ByteBuffer buffer)
+    {
+        EntityBuilder builder = api.getEntityBuilder();
+        long guildId = buffer.getLong();
+        int memberCount = buffer.getInt();
+        DataObject json = DataObject.fromJson(new ByteArrayInputStream(readBytes(buffer)));
+        DataArray channels = json.getArray("channels");
+        json.put("channels", DataArray.empty());
+        GuildImpl guild = builder.createGuild(guildId, json, MiscUtil.newLongMap(), memberCount);
+
+        // Members are needed before the channels to load the member overrides
+        int count = buffer.getInt();
+        MemberCacheViewImpl memberView = guild.getMembersView();
+        SnowflakeCacheViewImpl<User> userView = api.getUsersView();
+        SortedSnowflakeCacheViewImpl<Role> roleView = guild.getRolesView();
+        try (UnlockHook hook = memberView.writeLock())
+        {
+            TLongObjectMap<Member> map = memberView.getMap();
+            for (int i = 0; i < count; i++)
+            {
+                long id = buffer.getLong();
+                String nickname = readString(buffer);
+                long joinDate = buffer.getLong();
+                long boostDate = buffer.getLong();
+                List<Role> roles = new ArrayList<>();
+                for (int j = buffer.getShort(); j > 0; j--)
+                {
+                    Role role = roleView.get(buffer.getLong());
+                    if (role != null)
+                        roles.add(role);
+                }
+                User user = userView.get(id);
+                if (user == null)
+                    continue;
+                MemberImpl member = new MemberImpl(guild, user);
+                member.setNickname(nickname)
+                      .setJoinDate(joinDate)
+                      .setBoostDate(boostDate)
+                      .setRoles(roles);
+                map.put(id, member);
+                if (id == guild.getOwnerIdLong())
+                    guild.setOwner(member);
+            }
+        }
+        guild.acknowledgeMembers();
+
+        for (int i = 0; i < channels.length(); i++)
+        {
+            DataObject channel = channels.getObject(i);
+            switch (ChannelType.fromId(channel.getInt("type")))
+            {
+            case TEXT:
+                builder.createTextChannel(guild, channel, guildId);
+                break;
+            case VOICE:
+                builder.createVoiceChannel(guild, channel, guildId);
+                break;
+            case CATEGORY:
+                builder.createCategory(guild, channel, guildId);
+                break;
+            case STORE:
+                builder.createStoreChannel(guild, channel, guildId);
+                break;
+            default:
+            }
+        }
+        guild.setAfkChannel(guild.getVoiceChannelById(json.getUnsignedLong("afk_channel_id", 0L)))
+             .setSystemChannel(guild.getTextChannelById(json.getUnsignedLong("system_channel_id", 0L)));
+        return count;
+    }
+
+    private static void clear(JDAImpl api)
+    {
+        api.getTextChannelsView().clear();
+        api.getVoiceChannelsView().clear();
+        api.getStoreChannelsView().clear();
+        api.getCategoriesView().clear();
+        api.getRolesView().clear();
+        api.getEmotesView().clear();
+        api.getGuildsView().clear();
+        try (UnlockHook hook = api.getUsersView().writeLock())
+        {
+            api.getUsersView().getMap().retainEntries((id, user) -> id == api.getSelfUser().getIdLong());
+        }
+    }
+
+    // Same layout as the GUILD_CREATE payload, without members, presences and voice states
+    private static DataObject toJson(GuildImpl guild)
+    {
+        DataArray roles = DataArray.empty();
+        for (Role role : guild.getRolesView())
+        {
+            roles.add(DataObject.empty()
+                .put("id", role.getIdLong())
+                .put("name", role.getName())
+                .put("color", role.getColorRaw() == Role.DEFAULT_COLOR_RAW ? 0 : role.getColorRaw())
+                .put("position", role.getPositionRaw())
+                .put("permissions", role.getPermissionsRaw())
+                .put("managed", role.isManaged())
+                .put("hoist", role.isHoisted())
+                .put("mentionable", role.isMentionable()));
+        }
+
+        DataArray channels = DataArray.empty();
+        guild.getCategoriesView().forEach(channel -> channels.add(toJson(channel)));
+        guild.getTextChannelsView().forEach(channel -> channels.add(toJson(channel)
+            .put("last_message_id", channel.hasLatestMessage() ? channel.getLatestMessageIdLong() : 0L)
+            .put("topic", channel.getTopic())
+            .put("nsfw", channel.isNSFW())
+            .put("rate_limit_per_user", channel.getSlowmode())));
+        guild.getVoiceChannelsView().forEach(channel -> channels.add(toJson(channel)
+            .put("bitrate", channel.getBitrate())
+            .put("user_limit", channel.getUserLimit())));
+        guild.getStoreChannelView().forEach(channel -> channels.add(toJson(channel)));
+
+        DataArray emotes = DataArray.empty();
+        guild.getEmotesView().forEach(emote ->
+        {
+            DataArray emoteRoles = DataArray.empty();
+            if (emote.canProvideRoles())
+                emote.getRoles().forEach(role -> emoteRoles.add(role.getId()));
+            emotes.add(DataObject.empty()
+                .put("id", emote.getIdLong())
+                .put("name", emote.getName())
+                .put("animated", emote.isAnimated())
+                .put("managed", emote.isManaged())
+                .put("roles", emoteRoles));
+        });
+
+        VoiceChannel afkChannel = guild.getAfkChannel();
+        TextChannel systemChannel = guild.getSystemChannel();
+        return DataObject.empty()
+            .put("name", guild.getName())
+            .put("icon", guild.getIconId())
+            .put("splash", guild.getSplashId())
+            .put("region", guild.getRegionRaw())
+            .put("description", guild.getDescription())
+            .put("vanity_url_code", guild.getVanityCode())
+            .put("banner", guild.getBannerId())
+            .put("owner_id", guild.getOwnerIdLong())
+            .put("afk_channel_id", afkChannel == null ? 0L : afkChannel.getIdLong())
+            .put("system_channel_id", systemChannel == null ? 0L : systemChannel.getIdLong())
+            .put("premium_subscription_count", guild.getBoostCount())
+            .put("premium_tier", guild.getBoostTier().getKey())
+            .put("max_members", guild.getMaxMembers())
+            .put("max_presences", guild.getMaxPresences())
+            .put("mfa_level", guild.getRequiredMFALevel().getKey())
+            .put("afk_timeout", guild.getAfkTimeout().getSeconds())
+            .put("verification_level", guild.getVerificationLevel().getKey())
+            .put("default_message_notifications", guild.getDefaultNotificationLevel().getKey())
+            .put("explicit_content_filter", guild.getExplicitContentLevel().getKey())
+            .put("features", DataArray.fromCollection(guild.getFeatures()))
+            .put("roles", roles)
+            .put("channels", channels)
+            .put("emojis", emotes)
+            .put("voice_states", DataArray.empty());
+    }
+
+    private static DataObject toJson(GuildChannel channel)
+    {
+        DataArray overrides = DataArray.empty();
+        for (PermissionOverride override : channel.getPermissionOverrides())
+        {
+            overrides.add(DataObject.empty()
+                .put("id", override.getIdLong())
+                .put("type", override.isRoleOverride() ? "role" : "member")
+                .put("allow", override.getAllowedRaw())
+                .put("deny", override.getDeniedRaw()));
+        }
+        Category parent = channel.getParent();
+        return DataObject.empty()
+            .put("id", channel.getIdLong())
+            .put("type", channel.getType().getId())
+            .put("name", channel.getName())
+            .put("position", channel.getPositionRaw())
+            .put("parent_id", parent == null ? 0L : parent.getIdLong())
+            .put("permission_overwrites", overrides);
+    }
+
+    private static void writeString(DataOutput out, String string) throws IOException
+    {
+        if (string == null)
+            out.writeInt(-1);
+        else
+            writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
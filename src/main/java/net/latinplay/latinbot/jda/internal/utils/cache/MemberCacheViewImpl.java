@@ -19,15 +19,100 @@ package net.latinplay.latinbot.jda.internal.utils.cache;
 import net.latinplay.latinbot.jda.api.entities.Member;
 import net.latinplay.latinbot.jda.api.entities.Role;
 import net.latinplay.latinbot.jda.api.utils.cache.MemberCacheView;
+import net.latinplay.latinbot.jda.internal.entities.MemberImpl;
+import net.latinplay.latinbot.jda.internal.entities.UserImpl;
 import net.latinplay.latinbot.jda.internal.utils.Checks;
+import net.latinplay.latinbot.jda.internal.utils.UnlockHook;
 
 import java.util.*;
 
 public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implements MemberCacheView
 {
+    protected final NameIndex<Member> usernameIndex;
+    protected final NameIndex<Member> nicknameIndex;
+    protected final RoleIndex roleIndex = new RoleIndex();
+    protected final PresenceStore presences = new PresenceStore();
+
     public MemberCacheViewImpl()
     {
         super(Member.class, Member::getEffectiveName);
+        indexNames();
+        usernameIndex = addIndex(MemberCacheViewImpl::getUsername);
+        nicknameIndex = addIndex(Member::getNickname);
+    }
+
+    private static String getUsername(Member member)
+    {
+        return member.getUser().getName();
+    }
+
+    /**
+     * Updates the role index after roles were added to or removed from a member.
+     *
+     * @param memberId
+     *        The id of the member
+     * @param added
+     *        The roles that were added
+     * @param removed
+     *        The roles that were removed
+     */
+    public void updateRoles(long memberId, Collection<? extends Role> added, Collection<? extends Role> removed)
+    {
+        roleIndex.update(memberId, added, removed);
+    }
+
+    /**
+     * Updates the role index after a role was deleted.
+     *
+     * @param roleId
+     *        The id of the deleted role
+     */
+    public void removeRole(long roleId)
+    {
+        roleIndex.removeRole(roleId);
+    }
+
+    public PresenceStore getPresences()
+    {
+        return presences;
+    }
+
+    @Override
+    protected void elementAdded(long id, Member element)
+    {
+        super.elementAdded(id, element);
+        roleIndex.add(id, element);
+        MemberImpl member = (MemberImpl) element;
+        MemberImpl previous = presences.getMember(id);
+        if (previous != null && previous != element)
+            previous.detachPresence();
+        member.attachPresence(presences);
+        ((UserImpl) member.getUser()).addMutualGuild(member.getGuildIdLong());
+    }
+
+    @Override
+    protected void elementRemoved(long id)
+    {
+        super.elementRemoved(id);
+        roleIndex.remove(id);
+        MemberImpl member = presences.getMember(id);
+        if (member != null)
+        {
+            ((UserImpl) member.getUser()).removeMutualGuild(member.getGuildIdLong());
+            member.detachPresence();
+        }
+    }
+
+    @Override
+    protected void elementsCleared()
+    {
+        super.elementsCleared();
+        roleIndex.clear();
+        for (MemberImpl member : presences.getMembers())
+        {
+            ((UserImpl) member.getUser()).removeMutualGuild(member.getGuildIdLong());
+            member.detachPresence();
+        }
     }
 
     @Override
@@ -43,14 +128,7 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
         Checks.notEmpty(name, "Name");
         if (isEmpty())
             return Collections.emptyList();
-        List<Member> members = new ArrayList<>();
-        forEach(member ->
-        {
-            final String nick = member.getUser().getName();
-            if (equals(ignoreCase, nick, name))
-                members.add(member);
-        });
-        return Collections.unmodifiableList(members);
+        return Collections.unmodifiableList(findByName(usernameIndex, MemberCacheViewImpl::getUsername, name, ignoreCase));
     }
 
     
@@ -59,6 +137,9 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
     {
         if (isEmpty())
             return Collections.emptyList();
+        if (name != null)
+            return Collections.unmodifiableList(findByName(nicknameIndex, Member::getNickname, name, ignoreCase));
+        // Members without nickname are not indexed
         List<Member> members = new ArrayList<>();
         forEach(member ->
         {
@@ -77,6 +158,16 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
     }
 
     
+    @Override
+    public List<Member> getElementsByPrefix(String prefix)
+    {
+        Checks.notNull(prefix, "Prefix");
+        if (isEmpty())
+            return Collections.emptyList();
+        return Collections.unmodifiableList(findByPrefix(nameIndex, Member::getEffectiveName, prefix));
+    }
+
+    
     @Override
     public List<Member> getElementsWithRoles( Role... roles)
     {
@@ -91,12 +182,19 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
         Checks.noneNull(roles, "Roles");
         if (isEmpty())
             return Collections.emptyList();
+        if (roles.isEmpty())
+            return new ArrayList<>(asList());
+        long[] roleIds = roles.stream().mapToLong(Role::getIdLong).distinct().toArray();
         List<Member> members = new ArrayList<>();
-        forEach(member ->
+        try (UnlockHook hook = readLock())
         {
-            if (member.getRoles().containsAll(roles))
-                members.add(member);
-        });
+            for (long id : roleIndex.find(roleIds, elements))
+            {
+                Member member = elements.get(id);
+                if (member != null)
+                    members.add(member);
+            }
+        }
         return members;
     }
 }
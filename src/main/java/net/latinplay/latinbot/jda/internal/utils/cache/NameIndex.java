@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.apache.commons.collections4.trie.PatriciaTrie;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Secondary index from names to IDs for an {@link AbstractCacheView}.
+ * <br>The index is built lazily on the first lookup and kept up to date afterwards.
+ *
+ * <p>Lookups have to hold the read lock of the view and structural updates the write lock,
+ * renames are reported with {@link AbstractCacheView#updateNames(long)}.
+ * The results are candidates, the view still has to check the current name of each element.
+ */
+public class NameIndex<T>
+{
+    private final Function<T, String> nameMapper;
+    // Name -> IDs
+    private final Map<String, TLongSet> exact = new HashMap<>();
+    // Case folded name -> IDs, the trie also provides the prefix lookups
+    private final PatriciaTrie<TLongSet> folded = new PatriciaTrie<>();
+    // ID -> Indexed name, used to remove the old entries on updates
+    private final TLongObjectMap<String> names = new TLongObjectHashMap<>();
+    private boolean built = false;
+
+    public NameIndex(Function<T, String> nameMapper)
+    {
+        this.nameMapper = nameMapper;
+    }
+
+    public static String fold(String name)
+    {
+        // Same rules as String.equalsIgnoreCase
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        return new String(chars);
+    }
+
+    // Synchronized, so a build that starts after this returned false sees the current names
+    public synchronized boolean isBuilt()
+    {
+        return built;
+    }
+
+    public synchronized void update(long id, T element)
+    {
+        if (!built)
+            return;
+        removeEntry(id);
+        addEntry(id, element);
+    }
+
+    public synchronized void remove(long id)
+    {
+        if (built)
+            removeEntry(id);
+    }
+
+    public synchronized void clear()
+    {
+        exact.clear();
+        folded.clear();
+        names.clear();
+        built = false;
+    }
+
+    public synchronized TLongSet find(String name, boolean ignoreCase, TLongObjectMap<T> elements)
+    {
+        build(elements);
+        TLongSet ids = ignoreCase ? folded.get(fold(name)) : exact.get(name);
+        return ids == null ? new TLongHashSet(0) : new TLongHashSet(ids);
+    }
+
+    public synchronized TLongSet findPrefix(String prefix, TLongObjectMap<T> elements)
+    {
+        build(elements);
+        TLongSet ids = new TLongHashSet();
+        for (TLongSet set : folded.prefixMap(fold(prefix)).values())
+            ids.addAll(set);
+        return ids;
+    }
+
+    private void build(TLongObjectMap<T> elements)
+    {
+        if (built)
+            return;
+        built = true;
+        elements.forEachEntry((id, element) ->
+        {
+            addEntry(id, element);
+            return true;
+        });
+    }
+
+    private void addEntry(long id, T element)
+    {
+        String name = nameMapper.apply(element);
+        if (name == null)
+            return;
+        names.put(id, name);
+        exact.computeIfAbsent(name, k -> new TLongHashSet(2)).add(id);
+        folded.computeIfAbsent(fold(name), k -> new TLongHashSet(2)).add(id);
+    }
+
+    private void removeEntry(long id)
+    {
+        String name = names.remove(id);
+        if (name == null)
+            return;
+        remove(exact, name, id);
+        remove(folded, fold(name), id);
+    }
+
+    private static void remove(Map<String, TLongSet> map, String key, long id)
+    {
+        TLongSet ids = map.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty())
+            map.remove(key);
+    }
+}
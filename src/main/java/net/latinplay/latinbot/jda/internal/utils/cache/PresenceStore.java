@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import net.latinplay.latinbot.jda.api.OnlineStatus;
+import net.latinplay.latinbot.jda.api.entities.Activity;
+import net.latinplay.latinbot.jda.api.entities.ClientType;
+import net.latinplay.latinbot.jda.internal.entities.MemberImpl;
+
+import java.util.*;
+
+/**
+ * Column store for the presences of the cached members of a guild.
+ * <br>Every member in the cache is assigned a slot and the online status, client status and activities
+ * are kept in parallel arrays indexed by that slot. Presence updates write into these arrays in place.
+ * Activity lists are interned, members with exactly the same activities share one list.
+ *
+ * <p>Members are attached by the {@link MemberCacheViewImpl} when they are added to the cache.
+ * Detached members keep their presence in their own fields, see {@link MemberImpl#attachPresence(PresenceStore)}.
+ *
+ * <p>All access is synchronized, the slot a member remembers is validated against its id on every access.
+ */
+public class PresenceStore
+{
+    private static final OnlineStatus[] STATUSES = OnlineStatus.values();
+
+    // Member ID -> Slot
+    private final TLongIntMap slots = new TLongIntHashMap(16, 0.5f, 0, -1);
+    private final BitSet usedSlots = new BitSet();
+    // Lowest slot that might be free
+    private int freeSlot = 0;
+    // Replaced as a whole when the store grows
+    private Columns columns = new Columns(16);
+    // Activity list -> Interned instance
+    private final Map<Key, Interned> activities = new HashMap<>();
+
+    public synchronized int attach(MemberImpl member, OnlineStatus status, int clientStatus, List<Activity> activities)
+    {
+        long id = member.getIdLong();
+        int slot = slots.get(id);
+        if (slot < 0)
+        {
+            slot = usedSlots.nextClearBit(freeSlot);
+            usedSlots.set(slot);
+            freeSlot = slot + 1;
+            slots.put(id, slot);
+        }
+        Columns columns = ensureCapacity(slot + 1);
+        release(columns.activities[slot]);
+        columns.members[slot] = member;
+        columns.status[slot] = (byte) status.ordinal();
+        columns.clientStatus[slot] = clientStatus;
+        columns.activities[slot] = intern(activities);
+        columns.ids[slot] = id;
+        return slot;
+    }
+
+    public synchronized void detach(int slot, long id)
+    {
+        Columns columns = this.columns;
+        if (!owns(columns, slot, id))
+            return;
+        slots.remove(id);
+        usedSlots.clear(slot);
+        freeSlot = Math.min(freeSlot, slot);
+        release(columns.activities[slot]);
+        columns.ids[slot] = 0;
+        columns.members[slot] = null;
+        columns.activities[slot] = null;
+        columns.status[slot] = 0;
+        columns.clientStatus[slot] = 0;
+    }
+
+    public synchronized MemberImpl getMember(long id)
+    {
+        int slot = slots.get(id);
+        return slot < 0 ? null : columns.members[slot];
+    }
+
+    public synchronized List<MemberImpl> getMembers()
+    {
+        List<MemberImpl> members = new ArrayList<>(slots.size());
+        Columns columns = this.columns;
+        for (int slot = usedSlots.nextSetBit(0); slot >= 0; slot = usedSlots.nextSetBit(slot + 1))
+            members.add(columns.members[slot]);
+        return members;
+    }
+
+    public synchronized boolean setOnlineStatus(int slot, long id, OnlineStatus status)
+    {
+        Columns columns = this.columns;
+        if (!owns(columns, slot, id))
+            return false;
+        columns.status[slot] = (byte) status.ordinal();
+        return true;
+    }
+
+    public synchronized boolean setClientStatus(int slot, long id, int clientStatus)
+    {
+        Columns columns = this.columns;
+        if (!owns(columns, slot, id))
+            return false;
+        columns.clientStatus[slot] = clientStatus;
+        return true;
+    }
+
+    public synchronized boolean setActivities(int slot, long id, List<Activity> activities)
+    {
+        Columns columns = this.columns;
+        if (!owns(columns, slot, id))
+            return false;
+        List<Activity> old = columns.activities[slot];
+        if (old == null ? activities.isEmpty() : new Key(old).equals(new Key(activities)))
+            return true;
+        release(old);
+        columns.activities[slot] = intern(activities);
+        return true;
+    }
+
+    // The getters return null if the slot is no longer owned by the member
+
+    public synchronized OnlineStatus getOnlineStatus(int slot, long id)
+    {
+        Columns columns = this.columns;
+        if (!owns(columns, slot, id))
+            return null;
+        return STATUSES[columns.status[slot]];
+    }
+
+    public synchronized int getClientStatus(int slot, long id)
+    {
+        Columns columns = this.columns;
+        if (!owns(columns, slot, id))
+            return -1;
+        return columns.clientStatus[slot];
+    }
+
+    public synchronized List<Activity> getActivities(int slot, long id)
+    {
+        Columns columns = this.columns;
+        if (!owns(columns, slot, id))
+            return null;
+        List<Activity> activities = columns.activities[slot];
+        return activities == null ? Collections.emptyList() : activities;
+    }
+
+    // The slot of a member might be stale if it was detached concurrently
+    private static boolean owns(Columns columns, int slot, long id)
+    {
+        return slot >= 0 && slot < columns.ids.length && columns.ids[slot] == id;
+    }
+
+    // Client status is packed into an int, 4 bits per ClientType holding the ordinal of the OnlineStatus + 1, 0 for offline
+
+    public static int setClientStatus(int clientStatus, ClientType type, OnlineStatus status)
+    {
+        if (type == null || type == ClientType.UNKNOWN)
+            return clientStatus;
+        int shift = type.ordinal() * 4;
+        int value = clientStatus & ~(0xF << shift);
+        if (status != null && status != OnlineStatus.UNKNOWN && status != OnlineStatus.OFFLINE)
+            value |= (status.ordinal() + 1) << shift;
+        return value;
+    }
+
+    public static OnlineStatus getClientStatus(int clientStatus, ClientType type)
+    {
+        int status = (clientStatus >>> (type.ordinal() * 4)) & 0xF;
+        return status == 0 ? OnlineStatus.OFFLINE : STATUSES[status - 1];
+    }
+
+    private List<Activity> intern(List<Activity> list)
+    {
+        if (list == null || list.isEmpty())
+            return null;
+        Key key = new Key(list);
+        Interned interned = activities.get(key);
+        if (interned == null)
+        {
+            interned = new Interned(Collections.unmodifiableList(new ArrayList<>(list)));
+            activities.put(new Key(interned.list), interned);
+        }
+        interned.references++;
+        return interned.list;
+    }
+
+    private void release(List<Activity> list)
+    {
+        if (list == null)
+            return;
+        Key key = new Key(list);
+        Interned interned = activities.get(key);
+        if (interned != null && --interned.references == 0)
+            activities.remove(key);
+    }
+
+    private Columns ensureCapacity(int size)
+    {
+        Columns columns = this.columns;
+        if (size <= columns.ids.length)
+            return columns;
+        Columns grown = new Columns(Math.max(size, columns.ids.length * 2));
+        System.arraycopy(columns.ids, 0, grown.ids, 0, columns.ids.length);
+        System.arraycopy(columns.members, 0, grown.members, 0, columns.members.length);
+        System.arraycopy(columns.status, 0, grown.status, 0, columns.status.length);
+        System.arraycopy(columns.clientStatus, 0, grown.clientStatus, 0, columns.clientStatus.length);
+        System.arraycopy(columns.activities, 0, grown.activities, 0, columns.activities.length);
+        this.columns = grown;
+        return grown;
+    }
+
+    private static class Columns
+    {
+        private final long[] ids;
+        private final MemberImpl[] members;
+        private final byte[] status;
+        private final int[] clientStatus;
+        private final List<Activity>[] activities;
+
+        private Columns(int size)
+        {
+            ids = new long[size];
+            members = new MemberImpl[size];
+            status = new byte[size];
+            clientStatus = new int[size];
+            activities = newActivityArray(size);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Activity>[] newActivityArray(int size)
+        {
+            return (List<Activity>[]) new List<?>[size];
+        }
+    }
+
+    // Activity#equals ignores some fields, like the emoji of a custom status,
+    // so two lists are only the same if every element has the same class, is equal and has the same emoji
+    private static class Key
+    {
+        private final List<Activity> list;
+        private final int hashCode;
+
+        private Key(List<Activity> list)
+        {
+            this.list = list;
+            int hashCode = list.hashCode();
+            for (Activity activity : list)
+                hashCode = 31 * hashCode + Objects.hashCode(activity.getEmoji());
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (obj == this)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            List<Activity> other = ((Key) obj).list;
+            if (other.size() != list.size())
+                return false;
+            for (int i = 0; i < list.size(); i++)
+            {
+                Activity a = list.get(i), b = other.get(i);
+                if (a.getClass() != b.getClass() || !a.equals(b) || !isSameEmoji(a.getEmoji(), b.getEmoji()))
+                    return false;
+            }
+            return true;
+        }
+
+        private static boolean isSameEmoji(Activity.Emoji a, Activity.Emoji b)
+        {
+            if (a == null || b == null)
+                return a == b;
+            // Emoji#equals only looks at the id of custom emotes
+            return a.equals(b) && a.isAnimated() == b.isAnimated() && a.getName().equals(b.getName());
+        }
+    }
+
+    private static class Interned
+    {
+        private final List<Activity> list;
+        private int references;
+
+        private Interned(List<Activity> list)
+        {
+            this.list = list;
+        }
+    }
+}
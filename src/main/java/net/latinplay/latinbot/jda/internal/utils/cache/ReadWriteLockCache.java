@@ -24,10 +24,13 @@ import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 public abstract class ReadWriteLockCache<T>
 {
     protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sequence lock for optimistic reads, held by the outermost write lock
+    protected final StampedLock sequence = new StampedLock();
     protected WeakReference<List<T>> cachedList;
     protected WeakReference<Set<T>>  cachedSet;
 
@@ -37,9 +40,11 @@ public abstract class ReadWriteLockCache<T>
             throw new IllegalStateException("Unable to acquire write-lock while holding read-lock!");
         ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
         writeLock.lock();
+        // The stamped lock is not reentrant
+        long stamp = lock.getWriteHoldCount() == 1 ? sequence.writeLock() : 0L;
         onAcquireWriteLock();
         clearCachedLists();
-        return new UnlockHook(writeLock);
+        return new WriteHook(writeLock, stamp);
     }
 
     public UnlockHook readLock()
@@ -89,4 +94,23 @@ public abstract class ReadWriteLockCache<T>
         cachedSet = new WeakReference<>(set);
         return set;
     }
+
+    private class WriteHook extends UnlockHook
+    {
+        private final long stamp;
+
+        private WriteHook(ReentrantReadWriteLock.WriteLock lock, long stamp)
+        {
+            super(lock);
+            this.stamp = stamp;
+        }
+
+        @Override
+        public void close()
+        {
+            if (stamp != 0L)
+                sequence.unlockWrite(stamp);
+            super.close();
+        }
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.latinplay.latinbot.jda.api.entities.Member;
+import net.latinplay.latinbot.jda.api.entities.Role;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Inverted index from role IDs to the members holding that role.
+ * <br>Every member is assigned a dense slot and each role keeps a bitset of slots,
+ * this way a query for multiple roles is just an intersection of these bitsets.
+ *
+ * <p>The index is built lazily on the first lookup and kept up to date afterwards.
+ * Members are added and removed by the {@link MemberCacheViewImpl}, role changes are reported
+ * with {@link MemberCacheViewImpl#updateRoles(long, Collection, Collection)} and {@link MemberCacheViewImpl#removeRole(long)}.
+ */
+public class RoleIndex
+{
+    private static final long[] EMPTY = new long[0];
+
+    // Member ID -> Slot
+    private final TLongIntMap slots = new TLongIntHashMap(16, 0.5f, 0, -1);
+    // Slot -> Member ID
+    private long[] members = new long[16];
+    private final BitSet usedSlots = new BitSet();
+    // Lowest slot that might be free
+    private int freeSlot = 0;
+    // Role ID -> Slots of the members with that role
+    private final TLongObjectMap<BitSet> roles = new TLongObjectHashMap<>();
+    private boolean built = false;
+
+    public synchronized void add(long memberId, Member member)
+    {
+        if (!built)
+            return;
+        int slot = slots.get(memberId);
+        if (slot < 0)
+            slot = allocate(memberId);
+        else
+            clearSlot(slot);
+        for (Role role : member.getRoles())
+            set(role.getIdLong(), slot);
+    }
+
+    public synchronized void remove(long memberId)
+    {
+        if (!built)
+            return;
+        int slot = slots.remove(memberId);
+        if (slot < 0)
+            return;
+        clearSlot(slot);
+        usedSlots.clear(slot);
+        freeSlot = Math.min(freeSlot, slot);
+    }
+
+    public synchronized void update(long memberId, Collection<? extends Role> added, Collection<? extends Role> removed)
+    {
+        if (!built)
+            return;
+        int slot = slots.get(memberId);
+        if (slot < 0)
+            return;
+        for (Role role : removed)
+        {
+            BitSet set = roles.get(role.getIdLong());
+            if (set != null)
+                set.clear(slot);
+        }
+        for (Role role : added)
+            set(role.getIdLong(), slot);
+    }
+
+    public synchronized void removeRole(long roleId)
+    {
+        roles.remove(roleId);
+    }
+
+    public synchronized void clear()
+    {
+        slots.clear();
+        members = new long[16];
+        usedSlots.clear();
+        freeSlot = 0;
+        roles.clear();
+        built = false;
+    }
+
+    public synchronized long[] find(long[] roleIds, TLongObjectMap<Member> elements)
+    {
+        build(elements);
+        BitSet[] sets = new BitSet[roleIds.length];
+        for (int i = 0; i < roleIds.length; i++)
+        {
+            sets[i] = roles.get(roleIds[i]);
+            if (sets[i] == null)
+                return EMPTY;
+        }
+        // Start with the smallest set to keep the intermediate results small
+        Arrays.sort(sets, (a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        BitSet result = (BitSet) sets[0].clone();
+        for (int i = 1; i < sets.length && !result.isEmpty(); i++)
+            result.and(sets[i]);
+
+        long[] ids = new long[result.cardinality()];
+        int i = 0;
+        for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1))
+            ids[i++] = members[slot];
+        return ids;
+    }
+
+    private void build(TLongObjectMap<Member> elements)
+    {
+        if (built)
+            return;
+        built = true;
+        elements.forEachEntry((id, member) ->
+        {
+            add(id, member);
+            return true;
+        });
+    }
+
+    private int allocate(long memberId)
+    {
+        int slot = usedSlots.nextClearBit(freeSlot);
+        usedSlots.set(slot);
+        freeSlot = slot + 1;
+        if (slot >= members.length)
+            members = Arrays.copyOf(members, Math.max(slot + 1, members.length * 2));
+        members[slot] = memberId;
+        slots.put(memberId, slot);
+        return slot;
+    }
+
+    private void clearSlot(int slot)
+    {
+        roles.forEachValue(set ->
+        {
+            set.clear(slot);
+            return true;
+        });
+    }
+
+    private void set(long roleId, int slot)
+    {
+        BitSet set = roles.get(roleId);
+        if (set == null)
+            roles.put(roleId, set = new BitSet(members.length));
+        set.set(slot);
+    }
+}
@@ -32,6 +32,8 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
     protected static final int SPLIT_CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED | Spliterator.NONNULL;
 
     protected final Comparator<T> comparator;
+    // All elements in sorted order, replaced as a whole on changes so readers never have to sort or lock
+    protected volatile T[] sorted;
 
     public SortedSnowflakeCacheViewImpl(Class<T> type, Comparator<T> comparator)
     {
@@ -42,15 +44,95 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
     {
         super(type, nameMapper);
         this.comparator = comparator;
+        this.sorted = emptyArray;
+    }
+
+    /**
+     * Moves the element to its new place in the sorted order.
+     * <br>This has to be called after changing any property used by the comparator, like the position.
+     *
+     * @param element
+     *        The element that was changed
+     */
+    public void updateOrder(T element)
+    {
+        // Elements that are not cached (anymore) don't need the write lock
+        if (get(element.getIdLong()) != element || isOrdered(sorted, element))
+            return;
+        try (UnlockHook hook = writeLock())
+        {
+            // Might have been removed since the check above
+            if (elements.get(element.getIdLong()) != element)
+                return;
+            sorted = insert(removeById(sorted, element.getIdLong()), element);
+        }
     }
 
     @Override
-    public void forEach( Consumer<? super T> action)
+    protected void elementAdded(long id, T element)
     {
-        try (UnlockHook hook = readLock())
+        super.elementAdded(id, element);
+        sorted = insert(removeById(sorted, id), element);
+    }
+
+    @Override
+    protected void elementRemoved(long id)
+    {
+        super.elementRemoved(id);
+        sorted = removeById(sorted, id);
+    }
+
+    @Override
+    protected void elementsCleared()
+    {
+        super.elementsCleared();
+        sorted = emptyArray;
+    }
+
+    private boolean isOrdered(T[] arr, T element)
+    {
+        for (int i = 0; i < arr.length; i++)
         {
-            iterator().forEachRemaining(action);
+            if (arr[i] == element)
+            {
+                return (i == 0 || comparator.compare(arr[i - 1], element) < 0)
+                    && (i == arr.length - 1 || comparator.compare(element, arr[i + 1]) < 0);
+            }
         }
+        return false;
+    }
+
+    private T[] insert(T[] arr, T element)
+    {
+        int index = Arrays.binarySearch(arr, element, comparator);
+        if (index < 0)
+            index = -index - 1;
+        T[] updated = Arrays.copyOf(arr, arr.length + 1);
+        System.arraycopy(arr, index, updated, index + 1, arr.length - index);
+        updated[index] = element;
+        return updated;
+    }
+
+    private T[] removeById(T[] arr, long id)
+    {
+        for (int i = 0; i < arr.length; i++)
+        {
+            if (arr[i].getIdLong() == id)
+            {
+                T[] updated = Arrays.copyOf(arr, arr.length - 1);
+                System.arraycopy(arr, i + 1, updated, i, updated.length - i);
+                return updated;
+            }
+        }
+        return arr;
+    }
+
+    @Override
+    public void forEach( Consumer<? super T> action)
+    {
+        Objects.requireNonNull(action);
+        for (T element : sorted)
+            action.accept(element);
     }
 
     @Override
@@ -63,18 +145,10 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
     @Override
     public List<T> asList()
     {
-        if (isEmpty())
+        T[] arr = sorted;
+        if (arr.length == 0)
             return Collections.emptyList();
-        try (UnlockHook hook = readLock())
-        {
-            List<T> list = getCachedList();
-            if (list != null)
-                return list;
-            list = new ArrayList<>(elements.size());
-            elements.forEachValue(list::add);
-            list.sort(comparator);
-            return cache(list);
-        }
+        return Collections.unmodifiableList(Arrays.asList(arr));
     }
 
     
@@ -89,7 +163,7 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
             if (set != null)
                 return set;
             set = new TreeSet<>(comparator);
-            elements.forEachValue(set::add);
+            Collections.addAll(set, sorted);
             return cache(set);
         }
     }
@@ -106,10 +180,7 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
     @Override
     public Spliterator<T> spliterator()
     {
-        try (UnlockHook hook = readLock())
-        {
-            return Spliterators.spliterator(iterator(), elements.size(), SPLIT_CHARACTERISTICS);
-        }
+        return Spliterators.spliterator(sorted, SPLIT_CHARACTERISTICS);
     }
 
     
@@ -130,25 +201,20 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
     @Override
     public Stream<T> stream()
     {
-        return super.stream().sorted(comparator);
+        return Arrays.stream(sorted);
     }
 
     
     @Override
     public Stream<T> parallelStream()
     {
-        return super.parallelStream().sorted(comparator);
+        return Arrays.stream(sorted).parallel();
     }
 
     
     @Override
     public Iterator<T> iterator()
     {
-        try (UnlockHook hook = readLock())
-        {
-            T[] arr = elements.values(emptyArray);
-            Arrays.sort(arr, comparator);
-            return new ObjectArrayIterator<>(arr);
-        }
+        return new ObjectArrayIterator<>(sorted);
     }
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015-2019 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.latinplay.latinbot.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import net.latinplay.latinbot.jda.api.entities.PrivateChannel;
+import net.latinplay.latinbot.jda.api.entities.User;
+import net.latinplay.latinbot.jda.api.utils.cache.CacheStatistics;
+import net.latinplay.latinbot.jda.api.utils.cache.UserCachePolicy;
+import net.latinplay.latinbot.jda.internal.JDAImpl;
+import net.latinplay.latinbot.jda.internal.entities.GuildImpl;
+import net.latinplay.latinbot.jda.internal.entities.UserImpl;
+import net.latinplay.latinbot.jda.internal.handle.EventCache;
+import net.latinplay.latinbot.jda.internal.utils.JDALogger;
+import net.latinplay.latinbot.jda.internal.utils.UnlockHook;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies the {@link UserCachePolicy} of a JDA session and tracks the user cache statistics.
+ *
+ * <p>Users remember their last access, the cache is swept periodically on the gateway pool.
+ * A sweep first collects the candidates without blocking the cache and only takes the write lock
+ * to remove the chosen users.
+ */
+public class UserCacheEvictor implements CacheStatistics
+{
+    public static final Logger LOG = JDALogger.getLog(UserCacheEvictor.class);
+    private static final long MAX_SWEEP_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    private static final long MIN_SWEEP_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
+    private final JDAImpl api;
+    private final UserCachePolicy policy;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private ScheduledFuture<?> sweeper;
+
+    public UserCacheEvictor(JDAImpl api, UserCachePolicy policy)
+    {
+        this.api = api;
+        this.policy = policy;
+    }
+
+    public synchronized void start()
+    {
+        if (policy.isUnbounded() || sweeper != null)
+            return;
+        long interval = MAX_SWEEP_INTERVAL;
+        if (policy.getExpireAfterAccess() > 0)
+            interval = Math.max(MIN_SWEEP_INTERVAL, Math.min(interval, policy.getExpireAfterAccess() / 2));
+        sweeper = api.getGatewayPool().scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop()
+    {
+        if (sweeper != null)
+            sweeper.cancel(false);
+        sweeper = null;
+    }
+
+    public User record(User user)
+    {
+        if (user == null)
+        {
+            misses.increment();
+        }
+        else
+        {
+            hits.increment();
+            if (!policy.isUnbounded())
+                ((UserImpl) user).touch();
+        }
+        return user;
+    }
+
+    public void sweep()
+    {
+        try
+        {
+            long expiry = policy.getExpireAfterAccess() > 0
+                ? System.currentTimeMillis() - policy.getExpireAfterAccess()
+                : Long.MIN_VALUE;
+            int evicted = sweepCached(expiry) + sweepFake(expiry);
+            if (evicted > 0)
+            {
+                evictions.add(evicted);
+                LOG.debug("Evicted {} users from the cache", evicted);
+            }
+        }
+        catch (Exception e)
+        {
+            LOG.error("Failed to evict users from the cache", e);
+        }
+    }
+
+    private int sweepCached(long expiry)
+    {
+        if (!api.hasSelfUser())
+            return 0;
+        SnowflakeCacheViewImpl<User> userView = api.getUsersView();
+        long selfId = api.getSelfUser().getIdLong();
+        int excess = policy.getMaxSize() > 0 ? (int) userView.size() - policy.getMaxSize() : 0;
+        List<UserImpl> candidates = new ArrayList<>();
+        userView.forEach(user ->
+        {
+            if (user.getIdLong() != selfId && (excess > 0 || ((UserImpl) user).getLastAccess() < expiry))
+                candidates.add((UserImpl) user);
+        });
+        if (candidates.isEmpty())
+            return 0;
+
+        // Users of cached members are never evicted
+        candidates.removeIf(this::isMember);
+        // With an excess the candidates are all member-less users
+        List<UserImpl> evicted = select(candidates, expiry, candidates.size());
+        if (evicted.isEmpty())
+            return 0;
+
+        int count = 0;
+        try (UnlockHook hook = userView.writeLock())
+        {
+            for (UserImpl user : evicted)
+            {
+                long id = user.getIdLong();
+                // The user might have joined a guild since we collected the candidates
+                if (isMember(user) || userView.getMap().get(id) != user)
+                    continue;
+                userView.getMap().remove(id);
+                if (user.hasPrivateChannel())
+                    api.getPrivateChannelsView().remove(user.getPrivateChannel().getIdLong());
+                api.getEventCache().clear(EventCache.Type.USER, id);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int sweepFake(long expiry)
+    {
+        TLongObjectMap<User> fakeUsers = api.getFakeUserMap();
+        List<UserImpl> candidates = new ArrayList<>();
+        fakeUsers.forEachValue(user ->
+        {
+            candidates.add((UserImpl) user);
+            return true;
+        });
+        int count = 0;
+        for (UserImpl user : select(candidates, expiry, candidates.size()))
+        {
+            long id = user.getIdLong();
+            if (fakeUsers.get(id) != user)
+                continue;
+            fakeUsers.remove(id);
+            if (user.hasPrivateChannel())
+            {
+                PrivateChannel channel = user.getPrivateChannel();
+                api.getFakePrivateChannelMap().remove(channel.getIdLong());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    // Picks the expired users and as many of the least recently used ones as needed to get down to the max size
+    private List<UserImpl> select(List<UserImpl> candidates, long expiry, int evictableSize)
+    {
+        candidates.sort(Comparator.comparingLong(UserImpl::getLastAccess));
+        int excess = policy.getMaxSize() > 0 ? evictableSize - policy.getMaxSize() : 0;
+        int index = 0;
+        while (index < candidates.size() && (index < excess || candidates.get(index).getLastAccess() < expiry))
+            index++;
+        return candidates.subList(0, index);
+    }
+
+    // Only the guilds the member caches reported for this user have to be checked
+    private boolean isMember(UserImpl user)
+    {
+        long id = user.getIdLong();
+        for (long guildId : user.getMutualGuildIds())
+        {
+            GuildImpl guild = (GuildImpl) api.getGuildsView().get(guildId);
+            if (guild != null && guild.getMembersView().get(id) != null)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+}
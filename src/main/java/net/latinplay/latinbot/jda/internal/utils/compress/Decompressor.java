@@ -20,6 +20,7 @@ import net.latinplay.latinbot.jda.api.utils.Compression;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 import org.slf4j.Logger;
 
+import java.io.ByteArrayInputStream;
 import java.util.zip.DataFormatException;
 
 public interface Decompressor
@@ -34,4 +35,8 @@ public interface Decompressor
 
      // returns null when the decompression isn't done, for example when no Z_SYNC_FLUSH was present
     String decompress(byte[] data) throws DataFormatException;
+
+    // same as decompress(byte[]) but without building an intermediate String,
+    // the returned stream is backed by a reused buffer and is only valid until the next call
+    ByteArrayInputStream decompressStream(byte[] data) throws DataFormatException;
 }
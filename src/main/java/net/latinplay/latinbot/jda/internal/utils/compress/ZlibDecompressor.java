@@ -20,14 +20,13 @@ import net.latinplay.latinbot.jda.api.utils.Compression;
 import net.latinplay.latinbot.jda.internal.utils.IOUtil;
 import net.latinplay.latinbot.jda.internal.utils.JDALogger;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
 import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterOutputStream;
 
 public class ZlibDecompressor implements Decompressor
 {
@@ -36,27 +35,28 @@ public class ZlibDecompressor implements Decompressor
     private final int maxBufferSize;
     private final Inflater inflater = new Inflater();
     private ByteBuffer flushBuffer = null;
-    private SoftReference<ByteArrayOutputStream> decompressBuffer = null;
+    private SoftReference<byte[]> decompressBuffer = null;
+    private int decompressedSize = 0;
 
     public ZlibDecompressor(int maxBufferSize)
     {
         this.maxBufferSize = maxBufferSize;
     }
 
-    private SoftReference<ByteArrayOutputStream> newDecompressBuffer()
+    private SoftReference<byte[]> newDecompressBuffer()
     {
-        return new SoftReference<>(new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        return new SoftReference<>(new byte[Math.min(1024, maxBufferSize)]);
     }
 
-    private ByteArrayOutputStream getDecompressBuffer()
+    private byte[] getDecompressBuffer()
     {
         // If no buffer has been allocated yet we do that here (lazy init)
         if (decompressBuffer == null)
             decompressBuffer = newDecompressBuffer();
         // Check if the buffer has been collected by the GC or not
-        ByteArrayOutputStream buffer = decompressBuffer.get();
-        if (buffer == null) // create a ne buffer because the GC got it
-            decompressBuffer = new SoftReference<>(buffer = new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        byte[] buffer = decompressBuffer.get();
+        if (buffer == null) // create a new buffer because the GC got it
+            decompressBuffer = new SoftReference<>(buffer = new byte[Math.min(1024, maxBufferSize)]);
         return buffer;
     }
 
@@ -85,9 +85,9 @@ public class ZlibDecompressor implements Decompressor
         flushBuffer.put(data);
     }
 
-    private Object lazy(byte[] data)
+    private Object lazy(byte[] data, int offset, int length)
     {
-        return JDALogger.getLazyString(() -> Arrays.toString(data));
+        return JDALogger.getLazyString(() -> Arrays.toString(Arrays.copyOfRange(data, offset, offset + length)));
     }
 
     @Override
@@ -110,6 +110,26 @@ public class ZlibDecompressor implements Decompressor
 
     @Override
     public String decompress(byte[] data) throws DataFormatException
+    {
+        byte[] buffer = inflate(data);
+        if (buffer == null)
+            return null;
+        // Once decompressed we re-interpret the data as a String which can be used for JSON parsing
+        return new String(buffer, 0, decompressedSize, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public ByteArrayInputStream decompressStream(byte[] data) throws DataFormatException
+    {
+        byte[] buffer = inflate(data);
+        if (buffer == null)
+            return null;
+        // The stream is a view of our reused buffer, the JSON parser reads the bytes directly
+        return new ByteArrayInputStream(buffer, 0, decompressedSize);
+    }
+
+    // returns the buffer holding decompressedSize bytes of output or null when the message is incomplete
+    private byte[] inflate(byte[] data) throws DataFormatException
     {
         //Handle split messages
         if (!isFlush(data))
@@ -119,40 +139,47 @@ public class ZlibDecompressor implements Decompressor
             buffer(data);
             return null; // signal failure to decompress
         }
-        else if (flushBuffer != null)
+
+        byte[] input = data;
+        int length = data.length;
+        if (flushBuffer != null)
         {
             //This has a flush suffix and we have an incomplete package buffered
-            //concatenate the package with the new data and decompress it below
+            //append the package to the buffer and decompress the backing array below
             LOG.debug("Received final part of incomplete data");
             buffer(data);
-            byte[] arr = flushBuffer.array();
-            data = new byte[flushBuffer.position()];
-            System.arraycopy(arr, 0, data, 0, data.length);
+            input = flushBuffer.array();
+            length = flushBuffer.position();
             flushBuffer = null;
         }
-        LOG.trace("Decompressing data {}", lazy(data));
-        //Get the compressed message and inflate it
+        LOG.trace("Decompressing data {}", lazy(input, 0, length));
+        //Inflate the compressed message directly into our buffer
         //We use the same buffer here to optimize gc use
-        ByteArrayOutputStream buffer = getDecompressBuffer();
-        try (InflaterOutputStream decompressor = new InflaterOutputStream(buffer, inflater))
+        byte[] buffer = getDecompressBuffer();
+        int size = 0;
+        inflater.setInput(input, 0, length);
+        while (true)
         {
-            // This decompressor writes the received data and inflates it
-            decompressor.write(data);
-            // Once decompressed we re-interpret the data as a String which can be used for JSON parsing
-            return buffer.toString("UTF-8");
-        }
-        catch (IOException e)
-        {
-            // Some issue appeared during decompression that caused a failure
-            throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
-        }
-        finally
-        {
-            // When done with decompression we want to reset the buffer so it can be used again later
-            if (buffer.size() > maxBufferSize)
-                decompressBuffer = newDecompressBuffer();
-            else
-                buffer.reset();
+            if (size == buffer.length)
+            {
+                // Grow the buffer, the next message will decide whether we keep it around
+                buffer = Arrays.copyOf(buffer, Math.max(1024, buffer.length * 2));
+                decompressBuffer = new SoftReference<>(buffer);
+            }
+            int written = inflater.inflate(buffer, size, buffer.length - size);
+            if (written == 0)
+                break;
+            size += written;
         }
+
+        if (inflater.needsDictionary())
+            throw new DataFormatException("Malformed");
+
+        // When done with decompression we want to drop the buffer if it has grown too large
+        // the current message still holds a strong reference until it has been parsed
+        if (buffer.length > maxBufferSize)
+            decompressBuffer = newDecompressBuffer();
+        decompressedSize = size;
+        return buffer;
     }
 }
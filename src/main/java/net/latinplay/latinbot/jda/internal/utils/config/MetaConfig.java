@@ -17,6 +17,7 @@
 package net.latinplay.latinbot.jda.internal.utils.config;
 
 import net.latinplay.latinbot.jda.api.utils.cache.CacheFlag;
+import net.latinplay.latinbot.jda.api.utils.cache.UserCachePolicy;
 import net.latinplay.latinbot.jda.internal.utils.config.flags.ConfigFlag;
 
 import java.util.EnumSet;
@@ -28,6 +29,7 @@ public class MetaConfig
     private static final MetaConfig defaultConfig = new MetaConfig(2048, null, EnumSet.allOf(CacheFlag.class), ConfigFlag.getDefault());
     private final ConcurrentMap<String, String> mdcContextMap;
     private final EnumSet<CacheFlag> cacheFlags;
+    private final UserCachePolicy userCachePolicy;
     private final boolean enableMDC;
     private final boolean useShutdownHook;
     private final boolean guildSubscriptions;
@@ -37,9 +39,19 @@ public class MetaConfig
             int maxBufferSize,
              ConcurrentMap<String, String> mdcContextMap,
              EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags)
+    {
+        this(maxBufferSize, mdcContextMap, cacheFlags, flags, null);
+    }
+
+    public MetaConfig(
+            int maxBufferSize,
+             ConcurrentMap<String, String> mdcContextMap,
+             EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags,
+             UserCachePolicy userCachePolicy)
     {
         this.maxBufferSize = maxBufferSize;
         this.cacheFlags = cacheFlags == null ? EnumSet.allOf(CacheFlag.class) : cacheFlags;
+        this.userCachePolicy = userCachePolicy == null ? UserCachePolicy.UNBOUNDED : userCachePolicy;
         this.enableMDC = flags.contains(ConfigFlag.MDC_CONTEXT);
         if (enableMDC)
             this.mdcContextMap = mdcContextMap == null ? new ConcurrentHashMap<>() : null;
@@ -61,6 +73,12 @@ public class MetaConfig
         return cacheFlags;
     }
 
+    
+    public UserCachePolicy getUserCachePolicy()
+    {
+        return userCachePolicy;
+    }
+
     public boolean isEnableMDC()
     {
         return enableMDC;
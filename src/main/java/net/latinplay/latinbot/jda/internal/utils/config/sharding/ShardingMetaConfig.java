@@ -18,6 +18,7 @@ package net.latinplay.latinbot.jda.internal.utils.config.sharding;
 
 import net.latinplay.latinbot.jda.api.utils.Compression;
 import net.latinplay.latinbot.jda.api.utils.cache.CacheFlag;
+import net.latinplay.latinbot.jda.api.utils.cache.UserCachePolicy;
 import net.latinplay.latinbot.jda.internal.utils.config.MetaConfig;
 import net.latinplay.latinbot.jda.internal.utils.config.flags.ConfigFlag;
 
@@ -36,7 +37,16 @@ public class ShardingMetaConfig extends MetaConfig
              IntFunction<? extends ConcurrentMap<String, String>> contextProvider,
              EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags, Compression compression)
     {
-        super(maxBufferSize, null, cacheFlags, flags);
+        this(maxBufferSize, contextProvider, cacheFlags, flags, compression, null);
+    }
+
+    public ShardingMetaConfig(
+            int maxBufferSize,
+             IntFunction<? extends ConcurrentMap<String, String>> contextProvider,
+             EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags, Compression compression,
+             UserCachePolicy userCachePolicy)
+    {
+        super(maxBufferSize, null, cacheFlags, flags, userCachePolicy);
 
         this.compression = compression;
         this.contextProvider = contextProvider;
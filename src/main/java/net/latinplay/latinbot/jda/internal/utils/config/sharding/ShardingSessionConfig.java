@@ -20,6 +20,7 @@ import com.neovisionaries.ws.client.WebSocketFactory;
 import net.latinplay.latinbot.jda.api.audio.factory.IAudioSendFactory;
 import net.latinplay.latinbot.jda.api.hooks.VoiceDispatchInterceptor;
 import net.latinplay.latinbot.jda.api.utils.SessionController;
+import net.latinplay.latinbot.jda.internal.utils.IOUtil;
 import net.latinplay.latinbot.jda.internal.utils.config.SessionConfig;
 import net.latinplay.latinbot.jda.internal.utils.config.flags.ConfigFlag;
 import net.latinplay.latinbot.jda.internal.utils.config.flags.ShardingConfigFlag;
@@ -42,7 +43,7 @@ public class ShardingSessionConfig extends SessionConfig
     {
         super(sessionController, httpClient, webSocketFactory, interceptor, flags, maxReconnectDelay, largeThreshold);
         if (httpClient == null)
-            this.builder = httpClientBuilder == null ? new OkHttpClient.Builder() : httpClientBuilder;
+            this.builder = httpClientBuilder == null ? IOUtil.newHttpClientBuilder() : httpClientBuilder;
         else
             this.builder = null;
         this.audioSendFactory = audioSendFactory;